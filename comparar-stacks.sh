@@ -0,0 +1,62 @@
+#!/bin/bash
+
+# ========================================
+# Compara la pila servlet (Tomcat + JPA) con la reactiva (Netty + R2DBC)
+# ========================================
+# Para cada pila arranca el servidor, lanza el generador de carga con 1.000 y
+# 10.000 conexiones concurrentes y deja los resultados en target/comparacion/
+#
+# Ambas pilas arrancan con el perfil prod (sin log de SQL) para no distorsionar latencias
+#
+# Uso: ./comparar-stacks.sh [rps] [duracion]
+
+RPS=${1:-2000}
+DURACION=${2:-60}
+PUERTO=8080
+SALIDA=target/comparacion
+CONEXIONES="1000 10000"
+
+mkdir -p "$SALIDA"
+
+esperar_servidor() {
+    local ATTEMPT=0
+    while [ $ATTEMPT -lt 60 ]; do
+        if curl -s http://localhost:$PUERTO/actuator/health > /dev/null 2>&1; then
+            return 0
+        fi
+        sleep 1
+        ATTEMPT=$((ATTEMPT + 1))
+    done
+    return 1
+}
+
+for PILA in servlet reactivo; do
+    echo "🚀 Arrancando pila $PILA..."
+
+    if [ "$PILA" = "reactivo" ]; then
+        ./mvnw -q -Preactivo spring-boot:run -Dspring-boot.run.profiles=prod,reactivo > "$SALIDA/servidor-$PILA.log" 2>&1 &
+    else
+        ./mvnw -q spring-boot:run -Dspring-boot.run.profiles=prod > "$SALIDA/servidor-$PILA.log" 2>&1 &
+    fi
+    SERVER_PID=$!
+
+    if ! esperar_servidor; then
+        echo "❌ ERROR: la pila $PILA no arrancó (ver $SALIDA/servidor-$PILA.log)"
+        kill $SERVER_PID 2>/dev/null
+        exit 1
+    fi
+
+    for HILOS in $CONEXIONES; do
+        echo "   → $HILOS conexiones, $RPS rps, $DURACION s"
+        ./mvnw -q -Pcarga verify -Dcarga.args="url=http://localhost:$PUERTO hilos=$HILOS rps=$RPS duracion=$DURACION salida=$SALIDA/$PILA-$HILOS.json"
+    done
+
+    # spring-boot:run arranca la aplicación en un proceso hijo
+    pkill -P $SERVER_PID 2>/dev/null
+    kill $SERVER_PID 2>/dev/null
+    wait $SERVER_PID 2>/dev/null
+    sleep 2
+done
+
+echo ""
+echo "✓ Resultados en $SALIDA/ (servlet-1000.json, reactivo-10000.json, ...)"
@@ -0,0 +1,71 @@
+package com.empresa.gestion.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente HTTP mínimo sobre HttpURLConnection (keep-alive del JDK, sin dependencias)
+ * 
+ * El cuerpo de la respuesta se consume siempre por completo para que la
+ * conexión vuelva al pool y el tiempo medido incluya la transferencia.
+ */
+final class ClienteHttp {
+
+    private final String base;
+
+    ClienteHttp(String base) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    /**
+     * Ejecutar una petición y devolver el código de estado
+     */
+    int ejecutar(Peticion peticion) throws IOException {
+        return ejecutar(peticion, null);
+    }
+
+    /**
+     * Ejecutar una petición guardando el cuerpo de la respuesta en destino (si no es null)
+     */
+    int ejecutar(Peticion peticion, StringBuilder destino) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) new URL(base + peticion.ruta).openConnection();
+        conexion.setRequestMethod(peticion.metodo);
+        conexion.setConnectTimeout(5_000);
+        conexion.setReadTimeout(60_000);
+        conexion.setRequestProperty("Accept", "application/json");
+
+        if (peticion.cuerpo != null) {
+            byte[] cuerpo = peticion.cuerpo.getBytes(StandardCharsets.UTF_8);
+            conexion.setDoOutput(true);
+            conexion.setRequestProperty("Content-Type", "application/json");
+            conexion.setFixedLengthStreamingMode(cuerpo.length);
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo);
+            }
+        }
+
+        int estado = conexion.getResponseCode();
+        InputStream entrada = estado >= 400 ? conexion.getErrorStream() : conexion.getInputStream();
+        if (entrada != null) {
+            ByteArrayOutputStream copia = destino != null ? new ByteArrayOutputStream() : null;
+            try (InputStream cuerpo = entrada) {
+                byte[] buffer = new byte[8192];
+                int leidos;
+                while ((leidos = cuerpo.read(buffer)) != -1) {
+                    if (copia != null) {
+                        copia.write(buffer, 0, leidos);
+                    }
+                }
+            }
+            if (copia != null) {
+                destino.append(new String(copia.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        return estado;
+    }
+}
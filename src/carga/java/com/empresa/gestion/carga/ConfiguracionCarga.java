@@ -0,0 +1,82 @@
+package com.empresa.gestion.carga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una ejecución de carga (argumentos clave=valor)
+ * 
+ * - url: servidor ya arrancado; si se omite se arranca la aplicación en un puerto aleatorio
+ * - empresas / sedes-por-empresa: tamaño del juego de datos sintético
+ * - rps: peticiones por segundo objetivo (planificación en bucle abierto)
+ * - calentamiento / duracion: segundos de calentamiento (descartados) y de medición
+ * - hilos: conexiones concurrentes máximas del cliente
+ * - mezcla: pesos por operación, p.ej. empresaPorId:30,listarEmpresas:10
+ * - semilla: semilla del generador aleatorio (ejecuciones reproducibles)
+ * - salida: fichero JSON del resultado
+ */
+final class ConfiguracionCarga {
+
+    final String url;
+    final int empresas;
+    final int sedesPorEmpresa;
+    final int rps;
+    final int calentamientoSegundos;
+    final int duracionSegundos;
+    final int hilos;
+    final Map<Operacion, Integer> mezcla;
+    final long semilla;
+    final String salida;
+
+    private ConfiguracionCarga(Map<String, String> args) {
+        this.url = args.get("url");
+        this.empresas = entero(args, "empresas", 1000);
+        this.sedesPorEmpresa = entero(args, "sedes-por-empresa", 5);
+        this.rps = entero(args, "rps", 500);
+        this.calentamientoSegundos = entero(args, "calentamiento", 10);
+        this.duracionSegundos = entero(args, "duracion", 60);
+        this.hilos = entero(args, "hilos", 64);
+        this.mezcla = Operacion.parsearMezcla(args.get("mezcla"));
+        this.semilla = Long.parseLong(args.getOrDefault("semilla", "42"));
+        this.salida = args.getOrDefault("salida",
+                "target/carga/resultado-" + System.currentTimeMillis() + ".json");
+
+        if (rps <= 0 || duracionSegundos <= 0 || hilos <= 0 || empresas <= 0) {
+            throw new IllegalArgumentException("rps, duracion, hilos y empresas deben ser positivos");
+        }
+    }
+
+    static ConfiguracionCarga desdeArgumentos(String[] argumentos) {
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String argumento : argumentos) {
+            String limpio = argumento.startsWith("--") ? argumento.substring(2) : argumento;
+            int igual = limpio.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Argumento no válido (se espera clave=valor): " + argumento);
+            }
+            args.put(limpio.substring(0, igual), limpio.substring(igual + 1));
+        }
+        return new ConfiguracionCarga(args);
+    }
+
+    Map<String, Object> comoMapa() {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("url", url);
+        mapa.put("empresas", empresas);
+        mapa.put("sedesPorEmpresa", sedesPorEmpresa);
+        mapa.put("rpsObjetivo", rps);
+        mapa.put("calentamientoSegundos", calentamientoSegundos);
+        mapa.put("duracionSegundos", duracionSegundos);
+        mapa.put("hilos", hilos);
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        mezcla.forEach((operacion, peso) -> pesos.put(operacion.nombre(), peso));
+        mapa.put("mezcla", pesos);
+        mapa.put("semilla", semilla);
+        return mapa;
+    }
+
+    private static int entero(Map<String, String> args, String clave, int defecto) {
+        String valor = args.get(clave);
+        return valor == null ? defecto : Integer.parseInt(valor);
+    }
+}
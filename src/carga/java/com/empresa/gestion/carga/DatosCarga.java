@@ -0,0 +1,69 @@
+package com.empresa.gestion.carga;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Juego de datos sintético y sus identificadores una vez insertado
+ * 
+ * Los valores (sector, ciudad, nombre) se derivan del índice de forma
+ * determinista: con la misma configuración se generan los mismos datos.
+ */
+final class DatosCarga {
+
+    static final String[] SECTORES = {"Tecnologia", "Logistica", "Energia", "Retail", "Industria", "Salud"};
+    static final String[] CIUDADES = {"Madrid", "Barcelona", "Valencia", "Sevilla", "Bilbao", "Zaragoza", "Malaga"};
+    static final String[] PALABRAS = {"Solutions", "Global", "Iberia", "Norte", "Digital", "Servicios", "Grupo"};
+
+    private final List<Long> empresaIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> cifs = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> sedeIds = Collections.synchronizedList(new ArrayList<>());
+
+    static String cif(long indice, long ejecucion) {
+        return String.format("C%04d%07d", ejecucion % 10_000, indice);
+    }
+
+    static String razonSocial(long indice) {
+        return PALABRAS[(int) (indice % PALABRAS.length)] + " "
+                + PALABRAS[(int) ((indice / PALABRAS.length) % PALABRAS.length)] + " " + indice + " S.L.";
+    }
+
+    static String sector(long indice) {
+        return SECTORES[(int) (indice % SECTORES.length)];
+    }
+
+    static String ciudad(long indice) {
+        return CIUDADES[(int) (indice % CIUDADES.length)];
+    }
+
+    void registrarEmpresa(Long id, String cif) {
+        empresaIds.add(id);
+        cifs.add(cif);
+    }
+
+    void registrarSede(Long id) {
+        sedeIds.add(id);
+    }
+
+    int numeroEmpresas() {
+        return empresaIds.size();
+    }
+
+    int numeroSedes() {
+        return sedeIds.size();
+    }
+
+    Long empresaAleatoria(Random random) {
+        return empresaIds.get(random.nextInt(empresaIds.size()));
+    }
+
+    String cifAleatorio(Random random) {
+        return cifs.get(random.nextInt(cifs.size()));
+    }
+
+    Long sedeAleatoria(Random random) {
+        return sedeIds.get(random.nextInt(sedeIds.size()));
+    }
+}
@@ -0,0 +1,288 @@
+package com.empresa.gestion.carga;
+
+import com.empresa.gestion.GestionEmpresasApplication;
+import com.empresa.gestion.paginacion.CursorCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga HTTP reproducible (bucle abierto)
+ * 
+ * 1. Arranca la aplicación en un puerto aleatorio (o usa url=...)
+ * 2. Inserta un juego de datos sintético con POST /api/empresas/bulk
+ * 3. Lanza peticiones de la mezcla ponderada a ritmo constante (rps):
+ *    cada petición tiene un instante planificado fijo, independiente de si
+ *    las anteriores han terminado, y su latencia se mide desde ese instante
+ *    (sin omisión coordinada)
+ * 4. Escribe percentiles p50/p95/p99/p99.9 por operación y globales en JSON
+ * 
+ * Uso: mvn -Pcarga verify -Dcarga.args="rps=1000 duracion=120"
+ */
+public final class GeneradorCarga {
+
+    private static final int TAMANO_LOTE_DATOS = 500;
+    private static final long RETRASO_DESPACHO_TOLERADO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConfiguracionCarga configuracion;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final DatosCarga datos = new DatosCarga();
+
+    private GeneradorCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        // Pool keep-alive del JDK dimensionado al número de hilos del cliente
+        System.setProperty("http.maxConnections", String.valueOf(configuracion.hilos));
+
+        ConfigurableApplicationContext contexto = null;
+        String url = configuracion.url;
+        if (url == null) {
+            contexto = arrancarAplicacion();
+            url = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        }
+
+        try {
+            new GeneradorCarga(configuracion).ejecutar(url);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    static ConfigurableApplicationContext arrancarAplicacion() {
+        return new SpringApplicationBuilder(GestionEmpresasApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.empresa.gestion=WARN")
+                .run();
+    }
+
+    private void ejecutar(String url) throws Exception {
+        ClienteHttp cliente = new ClienteHttp(url);
+        System.out.printf("Servidor: %s%n", url);
+
+        long inicioDatos = System.nanoTime();
+        insertarDatos(cliente);
+        cargarSedes(cliente);
+        System.out.printf("Datos: %d empresas, %d sedes (%d ms)%n", datos.numeroEmpresas(), datos.numeroSedes(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioDatos));
+
+        Map<String, Object> informe = lanzarCarga(cliente);
+        informe.put("servidor", url);
+
+        File salida = new File(configuracion.salida);
+        if (salida.getParentFile() != null) {
+            salida.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(salida, informe);
+        System.out.printf("Resultado: %s%n", salida.getAbsolutePath());
+    }
+
+    // ========================================
+    // DATOS SINTÉTICOS
+    // ========================================
+
+    private void insertarDatos(ClienteHttp cliente) throws IOException {
+        long ejecucion = System.currentTimeMillis() / 1000;
+        for (int desde = 0; desde < configuracion.empresas; desde += TAMANO_LOTE_DATOS) {
+            int hasta = Math.min(desde + TAMANO_LOTE_DATOS, configuracion.empresas);
+            ArrayNode lote = objectMapper.createArrayNode();
+            for (int i = desde; i < hasta; i++) {
+                lote.add(empresa(i, ejecucion));
+            }
+
+            StringBuilder respuesta = new StringBuilder();
+            int estado = cliente.ejecutar(Peticion.post("/api/empresas/bulk",
+                    objectMapper.writeValueAsString(lote)), respuesta);
+            if (estado >= 400) {
+                throw new IllegalStateException("Error " + estado + " al insertar datos: " + respuesta);
+            }
+            for (JsonNode resultado : objectMapper.readTree(respuesta.toString()).path("resultados")) {
+                if ("CREADA".equals(resultado.path("estado").asText())) {
+                    datos.registrarEmpresa(resultado.path("id").asLong(), resultado.path("cif").asText());
+                }
+            }
+        }
+        if (datos.numeroEmpresas() == 0) {
+            throw new IllegalStateException("No se ha insertado ninguna empresa");
+        }
+    }
+
+    private ObjectNode empresa(int indice, long ejecucion) {
+        ObjectNode empresa = objectMapper.createObjectNode();
+        empresa.put("razonSocial", DatosCarga.razonSocial(indice));
+        empresa.put("cif", DatosCarga.cif(indice, ejecucion));
+        empresa.put("email", "empresa" + indice + "@carga.es");
+        empresa.put("sector", DatosCarga.sector(indice));
+        empresa.put("activo", indice % 10 != 0);
+        empresa.put("numeroEmpleados", 10 + indice % 500);
+
+        ArrayNode sedes = empresa.putArray("sedes");
+        for (int j = 0; j < configuracion.sedesPorEmpresa; j++) {
+            ObjectNode sede = sedes.addObject();
+            sede.put("nombre", "Sede " + indice + "-" + j);
+            sede.put("direccion", "Calle " + j + ", " + indice);
+            sede.put("ciudad", DatosCarga.ciudad(indice + j));
+            sede.put("provincia", DatosCarga.ciudad(indice + j));
+            sede.put("esPrincipal", j == 0);
+        }
+        return empresa;
+    }
+
+    /**
+     * Recorre /api/sedes por cursor para conocer los IDs de sede
+     */
+    private void cargarSedes(ClienteHttp cliente) throws IOException {
+        Long ultimoId = null;
+        while (true) {
+            String ruta = "/api/sedes?limit=500" + (ultimoId != null ? "&after=" + CursorCodec.codificar(ultimoId) : "");
+            StringBuilder respuesta = new StringBuilder();
+            if (cliente.ejecutar(Peticion.get(ruta), respuesta) >= 400) {
+                throw new IllegalStateException("Error al leer sedes: " + respuesta);
+            }
+            JsonNode pagina = objectMapper.readTree(respuesta.toString());
+            for (JsonNode sede : pagina) {
+                ultimoId = sede.path("id").asLong();
+                datos.registrarSede(ultimoId);
+            }
+            if (pagina.size() < 500) {
+                break;
+            }
+        }
+        if (datos.numeroSedes() == 0) {
+            throw new IllegalStateException("No hay sedes: use sedes-por-empresa > 0");
+        }
+    }
+
+    // ========================================
+    // CARGA EN BUCLE ABIERTO
+    // ========================================
+
+    private Map<String, Object> lanzarCarga(ClienteHttp cliente) throws InterruptedException {
+        Map<Operacion, ResultadosOperacion> porOperacion = new EnumMap<>(Operacion.class);
+        configuracion.mezcla.keySet().forEach(operacion -> porOperacion.put(operacion, new ResultadosOperacion()));
+        ResultadosOperacion global = new ResultadosOperacion();
+        Histogram retrasoDespacho = new ConcurrentHistogram(3);
+        AtomicLong ultimaRespuesta = new AtomicLong();
+
+        SelectorOperacion selector = new SelectorOperacion(configuracion.mezcla);
+        Random random = new Random(configuracion.semilla);
+
+        ExecutorService hilos = new ThreadPoolExecutor(configuracion.hilos, configuracion.hilos,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(configuracion.calentamientoSegundos);
+        long fin = inicioMedicion + TimeUnit.SECONDS.toNanos(configuracion.duracionSegundos);
+        System.out.printf("Carga: %d rps, %d s de calentamiento + %d s medidos, %d hilos%n",
+                configuracion.rps, configuracion.calentamientoSegundos,
+                configuracion.duracionSegundos, configuracion.hilos);
+
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * TimeUnit.SECONDS.toNanos(1) / configuracion.rps;
+            if (previsto >= fin) {
+                break;
+            }
+            long ahora;
+            while ((ahora = System.nanoTime()) < previsto) {
+                LockSupport.parkNanos(previsto - ahora);
+            }
+            boolean medir = previsto >= inicioMedicion;
+            if (medir && ahora - previsto > RETRASO_DESPACHO_TOLERADO_NANOS) {
+                retrasoDespacho.recordValue(TimeUnit.NANOSECONDS.toMicros(ahora - previsto));
+            }
+
+            Operacion operacion = selector.siguiente(random);
+            Peticion peticion = operacion.crear(datos, random);
+            hilos.execute(() -> {
+                long envio = System.nanoTime();
+                boolean correcta;
+                try {
+                    int estado = cliente.ejecutar(peticion);
+                    correcta = estado < 400;
+                } catch (IOException e) {
+                    correcta = false;
+                }
+                long respuesta = System.nanoTime();
+                if (medir) {
+                    porOperacion.get(operacion).registrar(respuesta - previsto, respuesta - envio, correcta);
+                    global.registrar(respuesta - previsto, respuesta - envio, correcta);
+                    ultimaRespuesta.accumulateAndGet(respuesta, Math::max);
+                }
+            });
+        }
+
+        hilos.shutdown();
+        if (!hilos.awaitTermination(5, TimeUnit.MINUTES)) {
+            hilos.shutdownNow();
+        }
+
+        // El throughput se calcula hasta la última respuesta medida, no hasta el fin del despacho
+        double segundos = (Math.max(ultimaRespuesta.get(), fin) - inicioMedicion) / 1e9;
+
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("fecha", Instant.now().toString());
+        informe.put("configuracion", configuracion.comoMapa());
+        Map<String, Object> resumenDatos = new LinkedHashMap<>();
+        resumenDatos.put("empresas", datos.numeroEmpresas());
+        resumenDatos.put("sedes", datos.numeroSedes());
+        informe.put("datos", resumenDatos);
+        informe.put("segundosMedidos", segundos);
+        informe.put("global", global.comoMapa(segundos));
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        porOperacion.forEach((operacion, resultados) ->
+                operaciones.put(operacion.nombre(), resultados.comoMapa(segundos)));
+        informe.put("operaciones", operaciones);
+        informe.put("retrasoDespachoUs", ResultadosOperacion.percentiles(retrasoDespacho));
+        informe.put("despachosRetrasados", retrasoDespacho.getTotalCount());
+
+        imprimirResumen(global, porOperacion, segundos);
+        return informe;
+    }
+
+    private static void imprimirResumen(ResultadosOperacion global,
+                                        Map<Operacion, ResultadosOperacion> porOperacion,
+                                        double segundos) {
+        System.out.printf("%-24s %10s %8s %10s %10s %10s %10s%n",
+                "operacion", "peticiones", "errores", "p50(us)", "p95(us)", "p99(us)", "p99.9(us)");
+        porOperacion.forEach((operacion, resultados) -> imprimirFila(operacion.nombre(), resultados));
+        imprimirFila("TOTAL", global);
+        System.out.printf("Throughput: %.1f peticiones/s%n", global.peticiones() / segundos);
+    }
+
+    private static void imprimirFila(String nombre, ResultadosOperacion resultados) {
+        Histogram latencia = resultados.latencia();
+        System.out.printf("%-24s %10d %8d %10d %10d %10d %10d%n", nombre,
+                resultados.peticiones(), resultados.errores(),
+                latencia.getValueAtPercentile(50), latencia.getValueAtPercentile(95),
+                latencia.getValueAtPercentile(99), latencia.getValueAtPercentile(99.9));
+    }
+}
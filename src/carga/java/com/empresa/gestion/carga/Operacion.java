@@ -0,0 +1,152 @@
+package com.empresa.gestion.carga;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Operaciones de la mezcla de carga sobre EmpresaController y SedeController
+ * con su peso por defecto (porcentaje aproximado de peticiones)
+ */
+enum Operacion {
+
+    EMPRESA_POR_ID("empresaPorId", 25) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas/" + datos.empresaAleatoria(random));
+        }
+    },
+    EMPRESA_POR_CIF("empresaPorCif", 10) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas/cif/" + datos.cifAleatorio(random));
+        }
+    },
+    LISTAR_EMPRESAS("listarEmpresas", 8) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas?limit=50");
+        }
+    },
+    LISTAR_EMPRESAS_CON_SEDES("listarEmpresasConSedes", 4) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas?limit=50&include=sedes");
+        }
+    },
+    EMPRESAS_ACTIVAS("empresasActivas", 5) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas/activas?limit=50");
+        }
+    },
+    EMPRESAS_POR_SECTOR("empresasPorSector", 5) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas/sector/" + DatosCarga.sector(random.nextInt(1000)) + "?limit=50");
+        }
+    },
+    BUSCAR_EMPRESAS("buscarEmpresas", 5) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            String palabra = DatosCarga.PALABRAS[random.nextInt(DatosCarga.PALABRAS.length)];
+            return Peticion.get("/api/empresas/buscar?limit=50&texto=" + palabra.substring(0, 4));
+        }
+    },
+    ESTADISTICAS_ACTIVAS("estadisticasActivas", 3) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/empresas/estadisticas/activas");
+        }
+    },
+    SEDE_POR_ID("sedePorId", 10) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/sedes/" + datos.sedeAleatoria(random));
+        }
+    },
+    SEDES_POR_EMPRESA("sedesPorEmpresa", 8) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/sedes/empresa/" + datos.empresaAleatoria(random));
+        }
+    },
+    SEDE_PRINCIPAL("sedePrincipal", 5) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/sedes/empresa/" + datos.empresaAleatoria(random) + "/principal");
+        }
+    },
+    SEDES_POR_CIUDAD("sedesPorCiudad", 5) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/sedes/ciudad/" + DatosCarga.ciudad(random.nextInt(1000)) + "?limit=50");
+        }
+    },
+    CONTAR_SEDES("contarSedes", 3) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            return Peticion.get("/api/sedes/empresa/" + datos.empresaAleatoria(random) + "/count");
+        }
+    },
+    CREAR_SEDE("crearSede", 4) {
+        @Override
+        Peticion crear(DatosCarga datos, Random random) {
+            int n = random.nextInt(1_000_000);
+            return Peticion.post("/api/sedes", "{\"nombre\":\"Sede carga " + n + "\","
+                    + "\"direccion\":\"Calle Carga " + n + "\","
+                    + "\"ciudad\":\"" + DatosCarga.ciudad(n) + "\","
+                    + "\"esPrincipal\":false,"
+                    + "\"empresaId\":" + datos.empresaAleatoria(random) + "}");
+        }
+    };
+
+    private final String nombre;
+    private final int pesoDefecto;
+
+    Operacion(String nombre, int pesoDefecto) {
+        this.nombre = nombre;
+        this.pesoDefecto = pesoDefecto;
+    }
+
+    abstract Peticion crear(DatosCarga datos, Random random);
+
+    String nombre() {
+        return nombre;
+    }
+
+    /**
+     * Mezcla "nombre:peso,nombre:peso"; sin valor se usan los pesos por defecto.
+     * Las operaciones no indicadas quedan con peso 0.
+     */
+    static Map<Operacion, Integer> parsearMezcla(String mezcla) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        if (mezcla == null || mezcla.trim().isEmpty()) {
+            for (Operacion operacion : values()) {
+                pesos.put(operacion, operacion.pesoDefecto);
+            }
+            return pesos;
+        }
+
+        for (String parte : mezcla.split(",")) {
+            String[] nombrePeso = parte.trim().split(":");
+            if (nombrePeso.length != 2) {
+                throw new IllegalArgumentException("Entrada de mezcla no válida: " + parte);
+            }
+            pesos.put(porNombre(nombrePeso[0].trim()), Integer.parseInt(nombrePeso[1].trim()));
+        }
+        if (pesos.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("La mezcla debe tener algún peso positivo");
+        }
+        return pesos;
+    }
+
+    private static Operacion porNombre(String nombre) {
+        for (Operacion operacion : values()) {
+            if (operacion.nombre.equals(nombre)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + nombre);
+    }
+}
@@ -0,0 +1,29 @@
+package com.empresa.gestion.carga;
+
+/**
+ * Petición HTTP concreta generada por una operación
+ */
+final class Peticion {
+
+    final String metodo;
+    final String ruta;
+    final String cuerpo;
+
+    private Peticion(String metodo, String ruta, String cuerpo) {
+        this.metodo = metodo;
+        this.ruta = ruta;
+        this.cuerpo = cuerpo;
+    }
+
+    static Peticion get(String ruta) {
+        return new Peticion("GET", ruta, null);
+    }
+
+    static Peticion post(String ruta, String cuerpo) {
+        return new Peticion("POST", ruta, cuerpo);
+    }
+
+    static Peticion put(String ruta, String cuerpo) {
+        return new Peticion("PUT", ruta, cuerpo);
+    }
+}
@@ -0,0 +1,87 @@
+package com.empresa.gestion.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramas y contadores de una operación (o del total)
+ * 
+ * - latencia: desde el instante PLANIFICADO de la petición hasta el fin de la respuesta.
+ *   Incluye la espera en cola del cliente: corrige la omisión coordinada.
+ * - servicio: desde el envío real hasta el fin de la respuesta (solo como referencia)
+ * 
+ * Valores en microsegundos.
+ */
+final class ResultadosOperacion {
+
+    private static final long MAXIMO_US = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram latencia = new ConcurrentHistogram(MAXIMO_US, 3);
+    private final Histogram servicio = new ConcurrentHistogram(MAXIMO_US, 3);
+    private final LongAdder correctas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    void registrar(long latenciaNanos, long servicioNanos, boolean correcta) {
+        latencia.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latenciaNanos), MAXIMO_US));
+        servicio.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(servicioNanos), MAXIMO_US));
+        if (correcta) {
+            correctas.increment();
+        } else {
+            errores.increment();
+        }
+    }
+
+    long peticiones() {
+        return correctas.sum() + errores.sum();
+    }
+
+    long errores() {
+        return errores.sum();
+    }
+
+    Histogram latencia() {
+        return latencia;
+    }
+
+    Map<String, Object> comoMapa(double segundosMedidos) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("peticiones", peticiones());
+        mapa.put("errores", errores.sum());
+        mapa.put("throughputRps", segundosMedidos > 0 ? peticiones() / segundosMedidos : 0);
+        mapa.put("latenciaUs", percentiles(latencia));
+        mapa.put("servicioUs", percentiles(servicio));
+        mapa.put("histogramaLatencia", codificar(latencia));
+        return mapa;
+    }
+
+    static Map<String, Object> percentiles(Histogram histograma) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("p50", histograma.getValueAtPercentile(50));
+        mapa.put("p95", histograma.getValueAtPercentile(95));
+        mapa.put("p99", histograma.getValueAtPercentile(99));
+        mapa.put("p99.9", histograma.getValueAtPercentile(99.9));
+        mapa.put("max", histograma.getMaxValue());
+        mapa.put("media", histograma.getMean());
+        return mapa;
+    }
+
+    /**
+     * Histograma comprimido en Base64 (formato HdrHistogram), para poder
+     * combinar o comparar ejecuciones con precisión completa
+     */
+    private static String codificar(Histogram histograma) {
+        ByteBuffer buffer = ByteBuffer.allocate(histograma.getNeededByteBufferCapacity());
+        int longitud = histograma.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[longitud];
+        buffer.flip();
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
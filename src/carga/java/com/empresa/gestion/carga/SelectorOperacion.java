@@ -0,0 +1,42 @@
+package com.empresa.gestion.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Selección ponderada de operaciones según la mezcla configurada
+ */
+final class SelectorOperacion {
+
+    private final Operacion[] operaciones;
+    private final int[] pesosAcumulados;
+    private final int total;
+
+    SelectorOperacion(Map<Operacion, Integer> mezcla) {
+        List<Operacion> lista = new ArrayList<>();
+        List<Integer> acumulados = new ArrayList<>();
+        int suma = 0;
+        for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+            if (entrada.getValue() > 0) {
+                suma += entrada.getValue();
+                lista.add(entrada.getKey());
+                acumulados.add(suma);
+            }
+        }
+        this.operaciones = lista.toArray(new Operacion[0]);
+        this.pesosAcumulados = acumulados.stream().mapToInt(Integer::intValue).toArray();
+        this.total = suma;
+    }
+
+    Operacion siguiente(Random random) {
+        int valor = random.nextInt(total);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+}
@@ -0,0 +1,81 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.mapper.EmpresaMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datos sintéticos (entidades no gestionadas) para los benchmarks
+ */
+final class DatosBenchmark {
+
+    private DatosBenchmark() {
+    }
+
+    static Empresa empresa(long id, int numeroSedes) {
+        Empresa empresa = new Empresa("Empresa Benchmark " + id + " S.L.", String.format("B%08d", id));
+        empresa.setId(id);
+        empresa.setEmail("info" + id + "@benchmark.es");
+        empresa.setTelefono("910000000");
+        empresa.setSector("Tecnología");
+        empresa.setFechaAlta(LocalDate.of(2020, 1, 15));
+        empresa.setActivo(true);
+        empresa.setFacturacionAnual(1500000.0 + id);
+        empresa.setNumeroEmpleados(25);
+
+        for (int i = 0; i < numeroSedes; i++) {
+            empresa.addSede(sede(id * 10_000 + i, i == 0));
+        }
+        return empresa;
+    }
+
+    static List<Empresa> empresas(int cantidad, int sedesPorEmpresa) {
+        List<Empresa> empresas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            empresas.add(empresa(i, sedesPorEmpresa));
+        }
+        return empresas;
+    }
+
+    static Map<Long, List<Sede>> sedesPorEmpresa(List<Empresa> empresas) {
+        Map<Long, List<Sede>> sedes = new HashMap<>();
+        for (Empresa empresa : empresas) {
+            sedes.put(empresa.getId(), empresa.getSedes());
+        }
+        return sedes;
+    }
+
+    /**
+     * DTOs de una página con las sedes ya agrupadas por empresa, como al cargarlas
+     * en bloque con una consulta IN
+     */
+    static List<EmpresaDTO> dtosConSedes(EmpresaMapper empresaMapper, List<Empresa> empresas,
+                                         Map<Long, List<Sede>> sedesPorEmpresa) {
+        List<EmpresaDTO> dtos = new ArrayList<>(empresas.size());
+        for (Empresa empresa : empresas) {
+            dtos.add(empresaMapper.toDTO(empresa, sedesPorEmpresa.get(empresa.getId())));
+        }
+        return dtos;
+    }
+
+    static Sede sede(long id, boolean principal) {
+        Sede sede = new Sede("Sede " + id, "Calle Mayor " + (id % 200), "Madrid");
+        sede.setId(id);
+        sede.setProvincia("Madrid");
+        sede.setCodigoPostal("28001");
+        sede.setPais("España");
+        sede.setTelefono("910000001");
+        sede.setEmail("sede" + id + "@benchmark.es");
+        sede.setEsPrincipal(principal);
+        sede.setCapacidadAlmacenamiento(500.0);
+        sede.setHorarioRecepcion("L-V 8:00-18:00");
+        return sede;
+    }
+}
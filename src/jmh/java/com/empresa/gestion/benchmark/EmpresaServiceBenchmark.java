@@ -0,0 +1,75 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.GestionEmpresasApplication;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.service.EmpresaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de EmpresaService.obtenerPorId contra H2 en memoria
+ * 
+ * - Arranca el contexto completo sin servidor web (Flyway + datos de ejemplo)
+ * - cache=caffeine mide el acierto de caché; cache=none mide la consulta JPA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpresaServiceBenchmark {
+
+    /** Empresa de los datos de ejemplo (db/datos) */
+    private static final Long EMPRESA_ID = 1L;
+
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext contexto;
+    private EmpresaService empresaService;
+
+    @Setup
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(GestionEmpresasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.cache.type=" + cache,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.empresa.gestion=WARN")
+                .run();
+        empresaService = contexto.getBean(EmpresaService.class);
+
+        if (!empresaService.obtenerPorId(EMPRESA_ID).isPresent()) {
+            throw new IllegalStateException("No existe la empresa " + EMPRESA_ID + " en los datos de ejemplo");
+        }
+    }
+
+    @TearDown
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<EmpresaDTO> obtenerPorId() {
+        return empresaService.obtenerPorId(EMPRESA_ID);
+    }
+}
@@ -0,0 +1,186 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.formatos.EsquemasProtobuf;
+import com.empresa.gestion.formatos.FormatosBinarios;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.mapper.SedeMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark de los formatos de respuesta sobre una página de 10.000 empresas
+ * 
+ * - codificar / decodificar: tiempo por página (lado servidor y lado cliente Java)
+ * - Bytes por página: se imprimen al preparar cada combinación
+ * 
+ * Los ObjectMapper binarios se crean con FormatosBinarios a partir de un builder
+ * configurado como el de Spring Boot, igual que en la aplicación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosBenchmark {
+
+    private static final int EMPRESAS = 10_000;
+
+    @Param({"JSON", "JSON_GZIP", "CBOR", "SMILE", "PROTOBUF"})
+    public String formato;
+
+    @Param({"0", "3"})
+    public int sedesPorEmpresa;
+
+    private List<EmpresaDTO> pagina;
+    private Codec codec;
+    private byte[] codificada;
+
+    @Setup
+    public void preparar() throws IOException {
+        EmpresaMapper empresaMapper = new EmpresaMapper(new SedeMapper());
+        List<Empresa> entidades = DatosBenchmark.empresas(EMPRESAS, sedesPorEmpresa);
+        pagina = DatosBenchmark.dtosConSedes(empresaMapper, entidades,
+                DatosBenchmark.sedesPorEmpresa(entidades));
+
+        codec = crearCodec(formato);
+        codificada = codec.codificar(pagina);
+        System.out.printf("%n%s, %d sedes/empresa: %,d bytes por página%n",
+                formato, sedesPorEmpresa, codificada.length);
+    }
+
+    @Benchmark
+    public byte[] codificar() throws IOException {
+        return codec.codificar(pagina);
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> decodificar() throws IOException {
+        return codec.decodificar(codificada);
+    }
+
+    private static Codec crearCodec(String formato) {
+        switch (formato) {
+            case "JSON":
+                return new CodecJackson(builder().build(), false);
+            case "JSON_GZIP":
+                return new CodecJackson(builder().build(), true);
+            case "CBOR":
+                return new CodecJackson(FormatosBinarios.cbor(builder()), false);
+            case "SMILE":
+                return new CodecJackson(FormatosBinarios.smile(builder()), false);
+            case "PROTOBUF":
+                return new CodecProtobuf(new EsquemasProtobuf(FormatosBinarios.protobuf(builder())));
+            default:
+                throw new IllegalArgumentException("Formato desconocido: " + formato);
+        }
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static JavaType tipoLista(ObjectMapper mapper) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, EmpresaDTO.class);
+    }
+
+    interface Codec {
+
+        byte[] codificar(List<EmpresaDTO> empresas) throws IOException;
+
+        List<EmpresaDTO> decodificar(byte[] datos) throws IOException;
+    }
+
+    /**
+     * JSON, CBOR y Smile: mismo ObjectMapper con distinto JsonFactory (JSON opcionalmente con gzip)
+     */
+    static final class CodecJackson implements Codec {
+
+        private final ObjectWriter writer;
+        private final ObjectReader reader;
+        private final boolean gzip;
+
+        CodecJackson(ObjectMapper mapper, boolean gzip) {
+            this.writer = mapper.writerFor(tipoLista(mapper));
+            this.reader = mapper.readerFor(tipoLista(mapper));
+            this.gzip = gzip;
+        }
+
+        @Override
+        public byte[] codificar(List<EmpresaDTO> empresas) throws IOException {
+            if (!gzip) {
+                return writer.writeValueAsBytes(empresas);
+            }
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            try (GZIPOutputStream comprimida = new GZIPOutputStream(salida)) {
+                writer.writeValue(comprimida, empresas);
+            }
+            return salida.toByteArray();
+        }
+
+        @Override
+        public List<EmpresaDTO> decodificar(byte[] datos) throws IOException {
+            try (InputStream entrada = gzip
+                    ? new GZIPInputStream(new ByteArrayInputStream(datos))
+                    : new ByteArrayInputStream(datos)) {
+                return reader.readValue(entrada);
+            }
+        }
+    }
+
+    /**
+     * Protobuf con el esquema generado desde EmpresaDTO (lista envuelta en ValorProtobuf)
+     */
+    static final class CodecProtobuf implements Codec {
+
+        private final EsquemasProtobuf esquemas;
+        private final JavaType tipo;
+
+        CodecProtobuf(EsquemasProtobuf esquemas) {
+            this.esquemas = esquemas;
+            this.tipo = esquemas.tipo(new TypeReference<List<EmpresaDTO>>() {
+            }.getType());
+        }
+
+        @Override
+        public byte[] codificar(List<EmpresaDTO> empresas) throws IOException {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            esquemas.escribir(empresas, tipo, null, salida);
+            return salida.toByteArray();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<EmpresaDTO> decodificar(byte[] datos) throws IOException {
+            return (List<EmpresaDTO>) esquemas.leer(tipo, new ByteArrayInputStream(datos));
+        }
+    }
+}
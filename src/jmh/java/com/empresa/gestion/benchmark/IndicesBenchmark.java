@@ -0,0 +1,162 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.GestionEmpresasApplication;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.service.ImportacionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsquedas por sector, ciudad y provincia con y sin los índices de las columnas normalizadas
+ * 
+ * - indices=true: esquema de las migraciones (idx_empresas_sector, idx_sedes_ciudad,
+ *   idx_sedes_provincia sobre la columna normalizada + id)
+ * - indices=false: los mismos datos tras DROP INDEX; la página keyset recorre la clave
+ *   primaria filtrando fila a fila hasta reunir limite + 1 coincidencias
+ * - valor=frecuente busca un valor de 1 de cada 4 filas; valor=escaso, de 1 de cada 200
+ *   (sin índice el coste crece con lo poco selectivo que sea el valor buscado)
+ * - Primera página de 50 filas por la consulta de proyección del repositorio, dentro
+ *   de una transacción de solo lectura, con el valor en minúsculas (UPPER(:param))
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicesBenchmark {
+
+    private static final int EMPRESAS = 20_000;
+    private static final int SEDES_POR_EMPRESA = 5;
+    private static final int LIMITE = 50;
+
+    /** Uno de cada ESCASO registros lleva el valor escaso; el resto reparte los frecuentes */
+    private static final int ESCASO = 200;
+
+    private static final String[] SECTORES = {"Tecnología", "Logística", "Alimentación", "Energía"};
+    private static final String[] CIUDADES = {"Madrid", "Barcelona", "Valencia", "Sevilla"};
+    private static final String[] PROVINCIAS = {"Madrid", "Barcelona", "Valencia", "Sevilla"};
+    private static final String SECTOR_ESCASO = "Minería";
+    private static final String CIUDAD_ESCASA = "Soria";
+    private static final String PROVINCIA_ESCASA = "Soria";
+
+    @Param({"true", "false"})
+    public boolean indices;
+
+    @Param({"frecuente", "escaso"})
+    public String valor;
+
+    private ConfigurableApplicationContext contexto;
+    private EmpresaRepository empresaRepository;
+    private SedeRepository sedeRepository;
+    private TransactionTemplate lectura;
+    private Pageable pageable;
+    private String sector;
+    private String ciudad;
+    private String provincia;
+
+    @Setup
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(GestionEmpresasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:indices;DB_CLOSE_DELAY=-1",
+                        "spring.flyway.locations=classpath:db/migration",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.empresa.gestion=WARN")
+                .run();
+        empresaRepository = contexto.getBean(EmpresaRepository.class);
+        sedeRepository = contexto.getBean(SedeRepository.class);
+
+        lectura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        lectura.setReadOnly(true);
+
+        contexto.getBean(ImportacionService.class).importar(datos().iterator());
+
+        if (!indices) {
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            jdbc.execute("DROP INDEX idx_empresas_sector");
+            jdbc.execute("DROP INDEX idx_sedes_ciudad");
+            jdbc.execute("DROP INDEX idx_sedes_provincia");
+        }
+
+        boolean frecuente = "frecuente".equals(valor);
+        sector = (frecuente ? SECTORES[0] : SECTOR_ESCASO).toLowerCase();
+        ciudad = (frecuente ? CIUDADES[0] : CIUDAD_ESCASA).toLowerCase();
+        provincia = (frecuente ? PROVINCIAS[0] : PROVINCIA_ESCASA).toLowerCase();
+        pageable = new SolicitudPagina(0L, LIMITE).toPageable();
+    }
+
+    @TearDown
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> porSector() {
+        return lectura.execute(estado -> empresaRepository.buscarPorSectorDTO(sector, 0L, pageable));
+    }
+
+    @Benchmark
+    public List<SedeDTO> porCiudad() {
+        return lectura.execute(estado -> sedeRepository.buscarPorCiudadDTO(ciudad, 0L, pageable));
+    }
+
+    @Benchmark
+    public List<SedeDTO> porProvincia() {
+        return lectura.execute(estado -> sedeRepository.buscarPorProvinciaDTO(provincia, 0L, pageable));
+    }
+
+    private static List<EmpresaDTO> datos() {
+        List<EmpresaDTO> empresas = new ArrayList<>(EMPRESAS);
+        long sedeNumero = 0;
+        for (int id = 1; id <= EMPRESAS; id++) {
+            String sectorEmpresa = id % ESCASO == 0 ? SECTOR_ESCASO : SECTORES[id % SECTORES.length];
+            EmpresaDTO empresa = new EmpresaDTO(null, "Empresa Índices " + id + " S.L.",
+                    String.format("I%08d", id), "info" + id + "@benchmark.es", "910000000",
+                    sectorEmpresa, LocalDate.of(2020, 1, 15), true, 1500000.0 + id, 25, null);
+
+            List<SedeDTO> sedes = new ArrayList<>(SEDES_POR_EMPRESA);
+            for (int i = 0; i < SEDES_POR_EMPRESA; i++) {
+                sedeNumero++;
+                boolean escasa = sedeNumero % ESCASO == 0;
+                String ciudadSede = escasa ? CIUDAD_ESCASA : CIUDADES[(int) (sedeNumero % CIUDADES.length)];
+                String provinciaSede = escasa ? PROVINCIA_ESCASA
+                        : PROVINCIAS[(int) ((sedeNumero / CIUDADES.length) % PROVINCIAS.length)];
+                sedes.add(new SedeDTO(null, "Sede " + id + "-" + i, "Calle Mayor " + i, ciudadSede,
+                        provinciaSede, "28001", "España", "910000001", "sede" + id + "-" + i + "@benchmark.es",
+                        i == 0, 500.0, "L-V 8:00-18:00", null, null));
+            }
+            empresa.setSedes(sedes);
+            empresas.add(empresa);
+        }
+        return empresas;
+    }
+}
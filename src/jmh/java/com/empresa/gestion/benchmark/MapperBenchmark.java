@@ -0,0 +1,89 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.mapper.SedeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de EmpresaMapper y SedeMapper
+ * 
+ * - toDTO de una empresa con 0, 10 y 1000 sedes
+ * - toDTOList de una página de 50 empresas, sin sedes y con sedes cargadas en bloque
+ * - SedeMapper.toDTOList de las sedes de la empresa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int EMPRESAS_POR_PAGINA = 50;
+
+    @Param({"0", "10", "1000"})
+    public int sedes;
+
+    private SedeMapper sedeMapper;
+    private EmpresaMapper empresaMapper;
+
+    private Empresa empresa;
+    private List<Sede> sedesEmpresa;
+    private List<Empresa> pagina;
+    private Map<Long, List<Sede>> sedesPorEmpresa;
+
+    @Setup
+    public void preparar() {
+        sedeMapper = new SedeMapper();
+        empresaMapper = new EmpresaMapper(sedeMapper);
+
+        empresa = DatosBenchmark.empresa(1, sedes);
+        sedesEmpresa = empresa.getSedes();
+
+        pagina = DatosBenchmark.empresas(EMPRESAS_POR_PAGINA, 0);
+        // Todas las empresas de la página comparten la misma lista de sedes
+        sedesPorEmpresa = new HashMap<>();
+        for (Empresa e : pagina) {
+            sedesPorEmpresa.put(e.getId(), sedesEmpresa);
+        }
+    }
+
+    @Benchmark
+    public EmpresaDTO empresaToDTO() {
+        return empresaMapper.toDTO(empresa);
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> empresaToDTOListSinSedes() {
+        return empresaMapper.toDTOList(pagina);
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> empresaToDTOListConSedes() {
+        return DatosBenchmark.dtosConSedes(empresaMapper, pagina, sedesPorEmpresa);
+    }
+
+    @Benchmark
+    public List<SedeDTO> sedeToDTOList() {
+        return sedeMapper.toDTOList(sedesEmpresa);
+    }
+}
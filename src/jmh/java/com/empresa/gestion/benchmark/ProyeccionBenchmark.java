@@ -0,0 +1,155 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.GestionEmpresasApplication;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.mapper.SedeMapper;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.service.ImportacionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listados por entidades + mapper frente a proyecciones a DTO
+ * 
+ * - Misma página (keyset, limite + 1 filas) leída de las dos formas dentro
+ *   de una transacción de solo lectura, como en EmpresaService / SedeService
+ * - Las consultas con entidades son la base de comparación: solo existen aquí,
+ *   la aplicación lista siempre con proyecciones
+ * - Latencia media por página; con -prof gc, gc.alloc.rate.norm da los
+ *   bytes asignados por página (entidades, snapshots, DTOs)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProyeccionBenchmark {
+
+    private static final int EMPRESAS = 2000;
+    private static final int SEDES_POR_EMPRESA = 3;
+    private static final String CIUDAD = "Madrid";
+
+    @Param({"50", "500"})
+    public int limite;
+
+    private ConfigurableApplicationContext contexto;
+    private EmpresaRepository empresaRepository;
+    private SedeRepository sedeRepository;
+    private EmpresaMapper empresaMapper;
+    private SedeMapper sedeMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate lectura;
+    private Pageable pageable;
+
+    @Setup
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(GestionEmpresasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:proyecciones;DB_CLOSE_DELAY=-1",
+                        "spring.flyway.locations=classpath:db/migration",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.empresa.gestion=WARN")
+                .run();
+        empresaRepository = contexto.getBean(EmpresaRepository.class);
+        sedeRepository = contexto.getBean(SedeRepository.class);
+        empresaMapper = contexto.getBean(EmpresaMapper.class);
+        sedeMapper = contexto.getBean(SedeMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                contexto.getBean(EntityManagerFactory.class));
+
+        lectura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        lectura.setReadOnly(true);
+
+        contexto.getBean(ImportacionService.class).importar(datos().iterator());
+
+        pageable = new SolicitudPagina(0L, limite).toPageable();
+    }
+
+    @TearDown
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> empresasEntidades() {
+        return lectura.execute(estado -> empresaMapper.toDTOList(entityManager
+                .createQuery("SELECT e FROM Empresa e WHERE e.activo = true AND e.id > :afterId "
+                        + "ORDER BY e.id", Empresa.class)
+                .setParameter("afterId", 0L)
+                .setMaxResults(pageable.getPageSize())
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<EmpresaDTO> empresasProyeccion() {
+        return lectura.execute(estado -> empresaRepository.listarActivasDTO(0L, pageable));
+    }
+
+    @Benchmark
+    public List<SedeDTO> sedesEntidades() {
+        return lectura.execute(estado -> sedeMapper.toDTOList(entityManager
+                .createQuery("SELECT s FROM Sede s WHERE s.ciudadNormalizada = UPPER(:ciudad) "
+                        + "AND s.id > :afterId ORDER BY s.id", Sede.class)
+                .setParameter("ciudad", CIUDAD)
+                .setParameter("afterId", 0L)
+                .setMaxResults(pageable.getPageSize())
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<SedeDTO> sedesProyeccion() {
+        return lectura.execute(estado -> sedeRepository.buscarPorCiudadDTO(CIUDAD, 0L, pageable));
+    }
+
+    private static List<EmpresaDTO> datos() {
+        List<EmpresaDTO> empresas = new ArrayList<>(EMPRESAS);
+        for (long id = 1; id <= EMPRESAS; id++) {
+            EmpresaDTO empresa = new EmpresaDTO(null, "Empresa Proyección " + id + " S.L.",
+                    String.format("P%08d", id), "info" + id + "@benchmark.es", "910000000",
+                    "Tecnología", LocalDate.of(2020, 1, 15), true, 1500000.0 + id, 25, null);
+
+            List<SedeDTO> sedes = new ArrayList<>(SEDES_POR_EMPRESA);
+            for (int i = 0; i < SEDES_POR_EMPRESA; i++) {
+                sedes.add(new SedeDTO(null, "Sede " + id + "-" + i, "Calle Mayor " + i, CIUDAD,
+                        "Madrid", "28001", "España", "910000001", "sede" + id + "-" + i + "@benchmark.es",
+                        i == 0, 500.0, "L-V 8:00-18:00", null, null));
+            }
+            empresa.setSedes(sedes);
+            empresas.add(empresa);
+        }
+        return empresas;
+    }
+}
@@ -0,0 +1,68 @@
+package com.empresa.gestion.benchmark;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.mapper.SedeMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la serialización JSON de listas de EmpresaDTO
+ * 
+ * El ObjectMapper se configura como el de Spring Boot
+ * (Jackson2ObjectMapperBuilder, módulo JSR-310, fechas ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int empresas;
+
+    @Param({"0", "3"})
+    public int sedesPorEmpresa;
+
+    private ObjectWriter writer;
+    private List<EmpresaDTO> dtos;
+
+    @Setup
+    public void preparar() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, EmpresaDTO.class));
+
+        EmpresaMapper empresaMapper = new EmpresaMapper(new SedeMapper());
+        List<Empresa> entidades = DatosBenchmark.empresas(empresas, sedesPorEmpresa);
+        dtos = DatosBenchmark.dtosConSedes(empresaMapper, entidades,
+                DatosBenchmark.sedesPorEmpresa(entidades));
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dtos);
+    }
+}
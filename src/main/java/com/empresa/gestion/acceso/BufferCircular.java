@@ -0,0 +1,76 @@
+package com.empresa.gestion.acceso;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular acotado sin bloqueos: varios productores, un único consumidor
+ * 
+ * - Los productores reservan posición con CAS y nunca esperan: con el buffer lleno
+ *   ofrecer devuelve false
+ * - El consumidor vacía las ranuras en orden; una ranura reservada pero aún no
+ *   publicada detiene el vaciado hasta la siguiente pasada
+ */
+class BufferCircular<T> {
+
+    private final AtomicReferenceArray<T> ranuras;
+    private final int mascara;
+
+    private final AtomicLong escritura = new AtomicLong();
+    // Solo la escribe el consumidor
+    private volatile long lectura = 0;
+
+    BufferCircular(int capacidad) {
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.ranuras = new AtomicReferenceArray<>(tamano);
+        this.mascara = tamano - 1;
+    }
+
+    /**
+     * Añade un elemento; false si el buffer está lleno
+     */
+    boolean ofrecer(T elemento) {
+        long posicion;
+        do {
+            posicion = escritura.get();
+            if (posicion - lectura >= ranuras.length()) {
+                return false;
+            }
+        } while (!escritura.compareAndSet(posicion, posicion + 1));
+
+        ranuras.lazySet((int) (posicion & mascara), elemento);
+        return true;
+    }
+
+    /**
+     * Entrega al destino hasta maximo elementos en orden de llegada (solo desde el hilo consumidor)
+     * 
+     * @return elementos entregados
+     */
+    int drenar(Consumer<T> destino, int maximo) {
+        long posicion = lectura;
+        int entregados = 0;
+        while (entregados < maximo) {
+            int indice = (int) (posicion & mascara);
+            T elemento = ranuras.get(indice);
+            if (elemento == null) {
+                break;
+            }
+            ranuras.lazySet(indice, null);
+            posicion++;
+            entregados++;
+            destino.accept(elemento);
+        }
+        // Libera las ranuras para los productores (tras vaciarlas)
+        lectura = posicion;
+        return entregados;
+    }
+
+    /**
+     * Elementos reservados pendientes de vaciar (aproximado)
+     */
+    int pendientes() {
+        return (int) Math.max(0, escritura.get() - lectura);
+    }
+}
@@ -0,0 +1,103 @@
+package com.empresa.gestion.acceso;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escribe el registro de accesos desde un hilo propio
+ * 
+ * - Las peticiones solo encolan un RegistroAcceso en un buffer circular sin bloqueos
+ * - El hilo registro-acceso lo vacía por lotes: cada lote es un único evento del
+ *   logger "acceso" (una línea JSON por petición), que logback-spring.xml envía
+ *   a un fichero rotado por tamaño y día
+ * - Buffer lleno: el registro se descarta (gestion.acceso.descartados); la petición
+ *   nunca espera al disco
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EscritorAccesos implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscritorAccesos.class);
+    private static final Logger acceso = LoggerFactory.getLogger("acceso");
+
+    private final RegistroAccesoProperties properties;
+    private final BufferCircular<RegistroAcceso> buffer;
+    private final Counter descartados;
+    private final Thread hilo;
+
+    private volatile boolean activo = true;
+
+    public EscritorAccesos(RegistroAccesoProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.buffer = new BufferCircular<>(properties.getCapacidad());
+        this.descartados = Counter.builder("gestion.acceso.descartados")
+                .description("Registros de acceso descartados con el buffer lleno")
+                .register(registry);
+        Gauge.builder("gestion.acceso.pendientes", buffer, BufferCircular::pendientes)
+                .description("Registros de acceso pendientes de escribir")
+                .register(registry);
+
+        this.hilo = new Thread(this::escribirContinuamente, "registro-acceso");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Encola un registro sin bloquear (llamado desde el hilo de la petición)
+     */
+    void registrar(RegistroAcceso registro) {
+        if (!buffer.ofrecer(registro)) {
+            descartados.increment();
+        }
+    }
+
+    private void escribirContinuamente() {
+        long espera = TimeUnit.MILLISECONDS.toNanos(properties.getIntervaloMs());
+        while (activo) {
+            if (escribirLote() == 0) {
+                LockSupport.parkNanos(this, espera);
+            }
+        }
+        // Lo que quede al parar
+        int escritos;
+        do {
+            escritos = escribirLote();
+        } while (escritos > 0);
+    }
+
+    private int escribirLote() {
+        StringBuilder lineas = new StringBuilder(256);
+        int escritos = buffer.drenar(registro -> {
+            if (lineas.length() > 0) {
+                lineas.append('\n');
+            }
+            registro.escribir(lineas);
+        }, properties.getLote());
+
+        if (escritos > 0) {
+            try {
+                acceso.info(lineas.toString());
+            } catch (RuntimeException e) {
+                // El hilo no debe morir por un fallo del appender
+                logger.warn("No se pudo escribir el registro de accesos: {}", e.getMessage());
+            }
+        }
+        return escritos;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(hilo);
+        hilo.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,44 @@
+package com.empresa.gestion.acceso;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Anota en la petición cuántas filas devuelve el cuerpo (tamaño de la lista,
+ * 1 para un objeto) para el registro de accesos; el cuerpo no se modifica
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FilasRespuestaAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+
+        // Con ?fields= el cuerpo ya puede venir envuelto por FiltroCamposAdvice
+        Object valor = body instanceof MappingJacksonValue ? ((MappingJacksonValue) body).getValue() : body;
+        int filas = valor instanceof Collection ? ((Collection<?>) valor).size() : 1;
+        ((ServletServerHttpRequest) request).getServletRequest()
+                .setAttribute(RegistroAccesoFilter.ATRIBUTO_FILAS, filas);
+        return body;
+    }
+}
@@ -0,0 +1,60 @@
+package com.empresa.gestion.acceso;
+
+import java.time.Instant;
+
+/**
+ * Una petición HTTP registrada: se crea en el hilo de la petición y se
+ * serializa (JSON de una línea) en el hilo escritor
+ */
+final class RegistroAcceso {
+
+    private final long instante;
+    private final String metodo;
+    private final String ruta;
+    private final int estado;
+    private final long nanos;
+    private final int filas;
+    private final int consultas;
+
+    RegistroAcceso(long instante, String metodo, String ruta, int estado, long nanos, int filas, int consultas) {
+        this.instante = instante;
+        this.metodo = metodo;
+        this.ruta = ruta;
+        this.estado = estado;
+        this.nanos = nanos;
+        this.filas = filas;
+        this.consultas = consultas;
+    }
+
+    /**
+     * {"ts":...,"metodo":...,"ruta":...,"estado":...,"ms":...,"filas":...,"consultas":...}
+     * (filas y consultas se omiten si no se conocen)
+     */
+    void escribir(StringBuilder salida) {
+        salida.append("{\"ts\":\"").append(Instant.ofEpochMilli(instante)).append('"')
+                .append(",\"metodo\":\"").append(metodo).append('"')
+                .append(",\"ruta\":\"");
+        escapar(ruta, salida);
+        salida.append('"')
+                .append(",\"estado\":").append(estado)
+                .append(",\"ms\":").append(nanos / 1_000L / 1_000.0);
+        if (filas >= 0) {
+            salida.append(",\"filas\":").append(filas);
+        }
+        if (consultas >= 0) {
+            salida.append(",\"consultas\":").append(consultas);
+        }
+        salida.append('}');
+    }
+
+    private static void escapar(String texto, StringBuilder salida) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                salida.append('\\').append(c);
+            } else if (c >= 0x20) {
+                salida.append(c);
+            }
+        }
+    }
+}
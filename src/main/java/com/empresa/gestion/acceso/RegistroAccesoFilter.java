@@ -0,0 +1,112 @@
+package com.empresa.gestion.acceso;
+
+import com.empresa.gestion.metricas.ContadorConsultas;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registra cada petición /api/ en el registro de accesos (ver EscritorAccesos)
+ * 
+ * - Método, patrón de ruta (p.ej. /api/empresas/{id}), estado, latencia,
+ *   filas devueltas (FilasRespuestaAdvice) y sentencias SQL (ContadorConsultas)
+ * - Errores (>= 400), peticiones lentas (app.acceso.umbral-lento-ms) y escrituras
+ *   se registran siempre; las lecturas correctas según app.acceso.muestreo-lecturas
+ * - Con DeferredResult se registra al completar la respuesta
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RegistroAccesoFilter extends OncePerRequestFilter {
+
+    static final String ATRIBUTO_FILAS = RegistroAccesoFilter.class.getName() + ".filas";
+
+    private final EscritorAccesos escritor;
+    private final RegistroAccesoProperties properties;
+
+    public RegistroAccesoFilter(EscritorAccesos escritor, RegistroAccesoProperties properties) {
+        this.escritor = escritor;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isHabilitado() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            filterChain.doFilter(request, response);
+            fallo = false;
+        } finally {
+            if (!fallo && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, response.getStatus(), inicio);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // Excepción sin resolver: el contenedor responderá 500
+                registrar(request, fallo ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        inicio);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int estado, long inicio) {
+        long nanos = System.nanoTime() - inicio;
+        String metodo = request.getMethod();
+        if (!debeRegistrarse(metodo, estado, nanos)) {
+            return;
+        }
+
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object filas = request.getAttribute(ATRIBUTO_FILAS);
+        Object consultas = request.getAttribute(ContadorConsultas.ATRIBUTO);
+        escritor.registrar(new RegistroAcceso(System.currentTimeMillis(), metodo,
+                patron != null ? patron.toString() : "UNKNOWN",
+                estado,
+                nanos,
+                filas instanceof Integer ? (Integer) filas : -1,
+                consultas instanceof AtomicInteger ? ((AtomicInteger) consultas).get() : -1));
+    }
+
+    private boolean debeRegistrarse(String metodo, int estado, long nanos) {
+        if (estado >= 400 || nanos >= TimeUnit.MILLISECONDS.toNanos(properties.getUmbralLentoMs())) {
+            return true;
+        }
+        if (!"GET".equals(metodo) && !"HEAD".equals(metodo)) {
+            return true;
+        }
+        double muestreo = properties.getMuestreoLecturas();
+        return muestreo >= 1 || (muestreo > 0 && ThreadLocalRandom.current().nextDouble() < muestreo);
+    }
+}
@@ -0,0 +1,91 @@
+package com.empresa.gestion.acceso;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de accesos HTTP (prefijo app.acceso)
+ * 
+ * - habilitado: si es false no se registra ninguna petición
+ * - muestreo-lecturas: fracción (0..1) de lecturas correctas (GET/HEAD < 400) que se registran;
+ *   errores, peticiones lentas y escrituras se registran siempre
+ * - umbral-lento-ms: a partir de esta latencia la petición se registra siempre
+ * - capacidad: tamaño del buffer circular (se redondea a potencia de 2); si se llena
+ *   los registros se descartan y se cuentan en gestion.acceso.descartados
+ * - lote / intervalo-ms: registros por escritura y espera del hilo escritor con el buffer vacío
+ * - fichero: ruta del fichero rotado (la lee logback-spring.xml)
+ */
+@Component
+@ConfigurationProperties(prefix = "app.acceso")
+public class RegistroAccesoProperties {
+
+    private boolean habilitado = true;
+
+    private double muestreoLecturas = 0.01;
+
+    private long umbralLentoMs = 500;
+
+    private int capacidad = 8192;
+
+    private int lote = 512;
+
+    private long intervaloMs = 100;
+
+    private String fichero = "logs/acceso.log";
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public double getMuestreoLecturas() {
+        return muestreoLecturas;
+    }
+
+    public void setMuestreoLecturas(double muestreoLecturas) {
+        this.muestreoLecturas = muestreoLecturas;
+    }
+
+    public long getUmbralLentoMs() {
+        return umbralLentoMs;
+    }
+
+    public void setUmbralLentoMs(long umbralLentoMs) {
+        this.umbralLentoMs = umbralLentoMs;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public void setCapacidad(int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    public int getLote() {
+        return lote;
+    }
+
+    public void setLote(int lote) {
+        this.lote = lote;
+    }
+
+    public long getIntervaloMs() {
+        return intervaloMs;
+    }
+
+    public void setIntervaloMs(long intervaloMs) {
+        this.intervaloMs = intervaloMs;
+    }
+
+    public String getFichero() {
+        return fichero;
+    }
+
+    public void setFichero(String fichero) {
+        this.fichero = fichero;
+    }
+}
@@ -0,0 +1,111 @@
+package com.empresa.gestion.busqueda;
+
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Transacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Índices de búsqueda por texto de empresas (razón social) y sedes (nombre)
+ * 
+ * - Se reconstruyen al arrancar la aplicación
+ * - Los servicios los actualizan en sus escrituras, tras el commit
+ * - Mientras no estén listos, o si el texto contiene comodines de LIKE
+ *   (% _ \), la búsqueda se resuelve directamente en base de datos
+ */
+@Component
+public class IndiceBusqueda {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBusqueda.class);
+
+    private final IndiceTrigramas empresas = new IndiceTrigramas();
+    private final IndiceTrigramas sedes = new IndiceTrigramas();
+
+    private final EmpresaRepository empresaRepository;
+    private final SedeRepository sedeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean listo = false;
+
+    public IndiceBusqueda(EmpresaRepository empresaRepository,
+                          SedeRepository sedeRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.empresaRepository = empresaRepository;
+        this.sedeRepository = sedeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Reconstruir ambos índices desde la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            empresas.limpiar();
+            try (Stream<Object[]> filas = empresaRepository.streamTextosBusqueda()) {
+                filas.forEach(fila -> empresas.indexar((Long) fila[0], (String) fila[1]));
+            }
+
+            sedes.limpiar();
+            try (Stream<Object[]> filas = sedeRepository.streamTextosBusqueda()) {
+                filas.forEach(fila -> sedes.indexar((Long) fila[0], (String) fila[1]));
+            }
+        });
+
+        listo = true;
+        logger.info("Índices de búsqueda construidos: {} empresas, {} sedes en {} ms",
+                empresas.tamano(), sedes.tamano(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Indica si el índice puede resolver la búsqueda con el mismo resultado que LIKE
+     */
+    public boolean puedeResolver(String texto) {
+        return listo && texto != null
+                && texto.indexOf('%') < 0 && texto.indexOf('_') < 0 && texto.indexOf('\\') < 0;
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    public List<Long> buscarEmpresas(String texto, Long afterId, int maximo) {
+        return empresas.buscar(texto, afterId, maximo);
+    }
+
+    public List<Long> buscarSedes(String texto, Long afterId, int maximo) {
+        return sedes.buscar(texto, afterId, maximo);
+    }
+
+    // ========================================
+    // ACTUALIZACIONES (aplicadas tras el commit)
+    // ========================================
+
+    public void indexarEmpresa(Long id, String razonSocial) {
+        Transacciones.despuesDelCommit(() -> empresas.indexar(id, razonSocial));
+    }
+
+    public void eliminarEmpresa(Long id) {
+        Transacciones.despuesDelCommit(() -> empresas.eliminar(id));
+    }
+
+    public void indexarSede(Long id, String nombre) {
+        Transacciones.despuesDelCommit(() -> sedes.indexar(id, nombre));
+    }
+
+    public void eliminarSede(Long id) {
+        Transacciones.despuesDelCommit(() -> sedes.eliminar(id));
+    }
+}
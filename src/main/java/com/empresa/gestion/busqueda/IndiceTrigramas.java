@@ -0,0 +1,184 @@
+package com.empresa.gestion.busqueda;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice invertido de trigramas en memoria para búsquedas "contiene"
+ * 
+ * Equivale a LOWER(col) LIKE LOWER('%texto%'):
+ * - Los textos se normalizan con toLowerCase(Locale.ROOT), igual que LOWER en H2
+ *   (sin eliminar acentos: 'a' no coincide con 'á', como en la consulta SQL)
+ * - Cada texto se descompone en trigramas; un texto contiene la consulta solo si
+ *   contiene todos sus trigramas, así que la intersección de listas da los candidatos
+ * - Los candidatos se verifican con String.contains para descartar falsos positivos
+ * - Textos y listas están ordenados por ID: una página recorre solo los IDs mayores
+ *   que afterId y se detiene al reunir maximo, sin materializar todos los candidatos
+ * 
+ * Lecturas sin bloqueo; las escrituras se serializan por instancia.
+ */
+public class IndiceTrigramas {
+
+    private static final int N = 3;
+
+    // id -> texto normalizado, por ID ascendente
+    private final ConcurrentSkipListMap<Long, String> textos = new ConcurrentSkipListMap<>();
+
+    // trigrama -> ids cuyo texto lo contiene, por ID ascendente
+    private final Map<String, Lista> listas = new ConcurrentHashMap<>();
+
+    /**
+     * Normaliza un texto igual que LOWER(...) en la base de datos
+     */
+    public static String normalizar(String texto) {
+        return texto == null ? null : texto.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexa (o reindexa) el texto de un ID
+     */
+    public synchronized void indexar(Long id, String texto) {
+        eliminar(id);
+        if (texto == null) {
+            return;
+        }
+
+        String normalizado = normalizar(texto);
+        textos.put(id, normalizado);
+        for (String trigrama : trigramas(normalizado)) {
+            Lista lista = listas.computeIfAbsent(trigrama, t -> new Lista());
+            if (lista.ids.add(id)) {
+                lista.tamano++;
+            }
+        }
+    }
+
+    /**
+     * Elimina un ID del índice
+     */
+    public synchronized void eliminar(Long id) {
+        String anterior = textos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+
+        for (String trigrama : trigramas(anterior)) {
+            Lista lista = listas.get(trigrama);
+            if (lista != null && lista.ids.remove(id)) {
+                lista.tamano--;
+                if (lista.tamano == 0) {
+                    listas.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vacía el índice
+     */
+    public synchronized void limpiar() {
+        textos.clear();
+        listas.clear();
+    }
+
+    /**
+     * IDs cuyo texto contiene la consulta, mayores que afterId,
+     * ordenados ascendentemente y limitados a maximo
+     */
+    public List<Long> buscar(String consulta, Long afterId, int maximo) {
+        String normalizada = normalizar(consulta);
+        List<Long> resultado = new ArrayList<>();
+
+        if (normalizada.length() < N) {
+            // Consulta demasiado corta para trigramas: se recorren los textos en orden de ID
+            for (Map.Entry<Long, String> entrada : textos.tailMap(afterId, false).entrySet()) {
+                if (resultado.size() >= maximo) {
+                    break;
+                }
+                if (entrada.getValue().contains(normalizada)) {
+                    resultado.add(entrada.getKey());
+                }
+            }
+            return resultado;
+        }
+
+        List<Lista> conjuntos = listasDe(normalizada);
+        if (conjuntos.isEmpty()) {
+            return resultado;
+        }
+        // Se recorre la lista más corta a partir de afterId y se comprueba en las demás
+        List<Lista> resto = conjuntos.subList(1, conjuntos.size());
+        for (Long id : conjuntos.get(0).ids.tailSet(afterId, false)) {
+            if (resultado.size() >= maximo) {
+                break;
+            }
+            if (enTodas(resto, id)) {
+                String texto = textos.get(id);
+                if (texto != null && texto.contains(normalizada)) {
+                    resultado.add(id);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    public int tamano() {
+        return textos.size();
+    }
+
+    /**
+     * Listas de los trigramas de la consulta, de la más corta a la más larga;
+     * vacío si algún trigrama no aparece en ningún texto
+     */
+    private List<Lista> listasDe(String consulta) {
+        List<Lista> conjuntos = new ArrayList<>();
+        for (String trigrama : trigramas(consulta)) {
+            Lista lista = listas.get(trigrama);
+            if (lista == null) {
+                return Collections.emptyList();
+            }
+            conjuntos.add(lista);
+        }
+        conjuntos.sort(Comparator.comparingInt(lista -> lista.tamano));
+        return conjuntos;
+    }
+
+    private static boolean enTodas(List<Lista> conjuntos, Long id) {
+        for (Lista lista : conjuntos) {
+            if (!lista.ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    /**
+     * Lista de un trigrama: IDs en orden ascendente y su tamaño
+     * (size() de ConcurrentSkipListSet recorre la lista entera)
+     */
+    private static final class Lista {
+
+        final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+
+        // Solo se modifica con el monitor del índice
+        volatile int tamano;
+    }
+}
@@ -0,0 +1,73 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Campos escalares de EmpresaDTO seleccionables con ?fields=
+ * 
+ * Cada campo conoce su nombre JSON, su ruta JPQL (alias e) y cómo
+ * asignarse al DTO desde la columna leída. El orden de declaración es
+ * el orden canónico de la selección (y de las columnas del SELECT).
+ */
+public enum CampoEmpresa {
+
+    ID("id", "e.id", (dto, valor) -> dto.setId((Long) valor)),
+    // Siempre se lee (ETag de los listados); no se serializa
+    VERSION("version", "e.version", (dto, valor) -> dto.setVersion((Long) valor)),
+    RAZON_SOCIAL("razonSocial", "e.razonSocial", (dto, valor) -> dto.setRazonSocial((String) valor)),
+    CIF("cif", "e.cif", (dto, valor) -> dto.setCif((String) valor)),
+    EMAIL("email", "e.email", (dto, valor) -> dto.setEmail((String) valor)),
+    TELEFONO("telefono", "e.telefono", (dto, valor) -> dto.setTelefono((String) valor)),
+    SECTOR("sector", "e.sector", (dto, valor) -> dto.setSector((String) valor)),
+    FECHA_ALTA("fechaAlta", "e.fechaAlta", (dto, valor) -> dto.setFechaAlta((LocalDate) valor)),
+    ACTIVO("activo", "e.activo", (dto, valor) -> dto.setActivo((Boolean) valor)),
+    FACTURACION_ANUAL("facturacionAnual", "e.facturacionAnual",
+            (dto, valor) -> dto.setFacturacionAnual((Double) valor)),
+    NUMERO_EMPLEADOS("numeroEmpleados", "e.numeroEmpleados",
+            (dto, valor) -> dto.setNumeroEmpleados((Integer) valor));
+
+    /** Relación anidada: admite subselección, p.ej. sedes(id,ciudad) */
+    public static final String SEDES = "sedes";
+
+    private static final Map<String, CampoEmpresa> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (CampoEmpresa campo : values()) {
+            POR_NOMBRE.put(campo.nombre, campo);
+        }
+    }
+
+    private final String nombre;
+    private final String ruta;
+    private final BiConsumer<EmpresaDTO, Object> asignador;
+
+    CampoEmpresa(String nombre, String ruta, BiConsumer<EmpresaDTO, Object> asignador) {
+        this.nombre = nombre;
+        this.ruta = ruta;
+        this.asignador = asignador;
+    }
+
+    /**
+     * Campo por nombre JSON, o null si no existe
+     */
+    public static CampoEmpresa porNombre(String nombre) {
+        return POR_NOMBRE.get(nombre);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    public void asignar(EmpresaDTO dto, Object valor) {
+        asignador.accept(dto, valor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.SedeDTO;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Campos de SedeDTO seleccionables con ?fields= (ver CampoEmpresa)
+ * 
+ * empresaId se lee de la clave ajena (s.empresa.id), sin JOIN.
+ */
+public enum CampoSede {
+
+    ID("id", "s.id", (dto, valor) -> dto.setId((Long) valor)),
+    // Siempre se lee (ETag de los listados); no se serializa
+    VERSION("version", "s.version", (dto, valor) -> dto.setVersion((Long) valor)),
+    NOMBRE("nombre", "s.nombre", (dto, valor) -> dto.setNombre((String) valor)),
+    DIRECCION("direccion", "s.direccion", (dto, valor) -> dto.setDireccion((String) valor)),
+    CIUDAD("ciudad", "s.ciudad", (dto, valor) -> dto.setCiudad((String) valor)),
+    PROVINCIA("provincia", "s.provincia", (dto, valor) -> dto.setProvincia((String) valor)),
+    CODIGO_POSTAL("codigoPostal", "s.codigoPostal", (dto, valor) -> dto.setCodigoPostal((String) valor)),
+    PAIS("pais", "s.pais", (dto, valor) -> dto.setPais((String) valor)),
+    TELEFONO("telefono", "s.telefono", (dto, valor) -> dto.setTelefono((String) valor)),
+    EMAIL("email", "s.email", (dto, valor) -> dto.setEmail((String) valor)),
+    ES_PRINCIPAL("esPrincipal", "s.esPrincipal", (dto, valor) -> dto.setEsPrincipal((Boolean) valor)),
+    CAPACIDAD_ALMACENAMIENTO("capacidadAlmacenamiento", "s.capacidadAlmacenamiento",
+            (dto, valor) -> dto.setCapacidadAlmacenamiento((Double) valor)),
+    HORARIO_RECEPCION("horarioRecepcion", "s.horarioRecepcion",
+            (dto, valor) -> dto.setHorarioRecepcion((String) valor)),
+    EMPRESA_ID("empresaId", "s.empresa.id", (dto, valor) -> dto.setEmpresaId((Long) valor));
+
+    private static final Map<String, CampoSede> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (CampoSede campo : values()) {
+            POR_NOMBRE.put(campo.nombre, campo);
+        }
+    }
+
+    private final String nombre;
+    private final String ruta;
+    private final BiConsumer<SedeDTO, Object> asignador;
+
+    CampoSede(String nombre, String ruta, BiConsumer<SedeDTO, Object> asignador) {
+        this.nombre = nombre;
+        this.ruta = ruta;
+        this.asignador = asignador;
+    }
+
+    /**
+     * Campo por nombre JSON, o null si no existe
+     */
+    public static CampoSede porNombre(String nombre) {
+        return POR_NOMBRE.get(nombre);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    public void asignar(SedeDTO dto, Object valor) {
+        asignador.accept(dto, valor);
+    }
+}
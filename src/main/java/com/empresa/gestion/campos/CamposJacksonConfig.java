@@ -0,0 +1,33 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra el filtro de campos en el ObjectMapper de la aplicación
+ * 
+ * - Mixin con @JsonFilter para EmpresaDTO y SedeDTO (los DTOs no cambian y
+ *   otros ObjectMapper, p.ej. los de benchmarks, no se ven afectados)
+ * - Proveedor por defecto sin filtros que no falla: sin ?fields= la
+ *   serialización es la de siempre
+ */
+@Configuration
+public class CamposJacksonConfig {
+
+    @JsonFilter(FiltroCampos.ID)
+    interface FiltrableMixin {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtroCamposCustomizer() {
+        return builder -> builder
+                .mixIn(EmpresaDTO.class, FiltrableMixin.class)
+                .mixIn(SedeDTO.class, FiltrableMixin.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -0,0 +1,55 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Filtro Jackson que omite los campos no seleccionados con ?fields=
+ * 
+ * EmpresaDTO y SedeDTO llevan el id de filtro ID mediante mixin (CamposJacksonConfig).
+ * Sin filtro registrado para la respuesta se serializan todos los campos.
+ */
+public class FiltroCampos extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "campos";
+
+    private final SeleccionCampos seleccion;
+
+    public FiltroCampos(SeleccionCampos seleccion) {
+        this.seleccion = seleccion;
+    }
+
+    /**
+     * Proveedor de filtros para ObjectMapper.writer(...) / MappingJacksonValue
+     */
+    public static FilterProvider proveedor(SeleccionCampos seleccion) {
+        return new SimpleFilterProvider().addFilter(ID, new FiltroCampos(seleccion));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator generador, SerializerProvider proveedor,
+                                 PropertyWriter propiedad) throws Exception {
+        if (incluir(pojo, propiedad.getName())) {
+            propiedad.serializeAsField(pojo, generador, proveedor);
+        } else if (!generador.canOmitFields()) {
+            propiedad.serializeAsOmittedField(pojo, generador, proveedor);
+        }
+    }
+
+    private boolean incluir(Object pojo, String campo) {
+        if (pojo instanceof EmpresaDTO && seleccion.getTipo() == EmpresaDTO.class) {
+            return CampoEmpresa.SEDES.equals(campo) ? seleccion.incluyeSedes() : seleccion.incluye(campo);
+        }
+        if (pojo instanceof SedeDTO) {
+            SeleccionCampos campos = seleccion.getTipo() == SedeDTO.class ? seleccion : seleccion.getSedes();
+            return campos == null || campos.incluye(campo);
+        }
+        return true;
+    }
+}
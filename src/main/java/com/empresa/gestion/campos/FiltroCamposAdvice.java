@@ -0,0 +1,53 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.formatos.JacksonProtobufHttpMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Aplica a la respuesta (JSON, CBOR, Smile o Protobuf) la selección de ?fields= registrada por SelectorCampos
+ * 
+ * Solo actúa si la petición trae selección: el resto de respuestas se
+ * serializan sin envoltorio ni filtro. Funciona también con DeferredResult
+ * (el atributo sigue en la petición tras el despacho asíncrono).
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FiltroCamposAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                || JacksonProtobufHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+
+        Object seleccion = ((ServletServerHttpRequest) request).getServletRequest()
+                .getAttribute(SelectorCampos.ATRIBUTO);
+        if (!(seleccion instanceof SeleccionCampos)) {
+            return body;
+        }
+
+        MappingJacksonValue valor = body instanceof MappingJacksonValue
+                ? (MappingJacksonValue) body
+                : new MappingJacksonValue(body);
+        valor.setFilters(FiltroCampos.proveedor((SeleccionCampos) seleccion));
+        return valor;
+    }
+}
@@ -0,0 +1,88 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Campos solicitados con ?fields= para un tipo de DTO (inmutable)
+ * 
+ * - campos: nombres JSON en orden canónico; null = todos los campos
+ * - sedes: subselección de las sedes anidadas (solo empresas); null = sin sedes
+ * 
+ * El id y la versión se incluyen siempre (cursor de paginación, agrupación
+ * de sedes y ETag del listado).
+ */
+public final class SeleccionCampos {
+
+    private static final SeleccionCampos EMPRESAS = new SeleccionCampos(EmpresaDTO.class, null, null);
+    private static final SeleccionCampos SEDES = new SeleccionCampos(SedeDTO.class, null, null);
+    private static final SeleccionCampos EMPRESAS_CON_SEDES = new SeleccionCampos(EmpresaDTO.class, null, SEDES);
+
+    private final Class<?> tipo;
+    private final Set<String> campos;
+    private final SeleccionCampos sedes;
+    private final String clave;
+
+    SeleccionCampos(Class<?> tipo, Set<String> campos, SeleccionCampos sedes) {
+        this.tipo = tipo;
+        this.campos = campos == null ? null : Collections.unmodifiableSet(campos);
+        this.sedes = sedes;
+        this.clave = (campos == null ? "*" : String.join(",", campos))
+                + (sedes == null ? "" : "|" + CampoEmpresa.SEDES + "(" + sedes.clave + ")");
+    }
+
+    /**
+     * Todos los campos de empresa, con o sin sedes (sin ?fields=)
+     */
+    public static SeleccionCampos empresas(boolean incluirSedes) {
+        return incluirSedes ? EMPRESAS_CON_SEDES : EMPRESAS;
+    }
+
+    /**
+     * Todos los campos de sede (sin ?fields=)
+     */
+    public static SeleccionCampos sedes() {
+        return SEDES;
+    }
+
+    /**
+     * Tipo de DTO al que se aplica la selección
+     */
+    public Class<?> getTipo() {
+        return tipo;
+    }
+
+    /**
+     * true si no se restringen los campos escalares (se puede usar la proyección completa)
+     */
+    public boolean todosLosCampos() {
+        return campos == null;
+    }
+
+    public boolean incluye(String campo) {
+        return campos == null || campos.contains(campo);
+    }
+
+    public boolean incluyeSedes() {
+        return sedes != null;
+    }
+
+    public SeleccionCampos getSedes() {
+        return sedes;
+    }
+
+    /**
+     * Representación canónica: misma selección, misma clave (caché de consultas)
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    @Override
+    public String toString() {
+        return clave;
+    }
+}
@@ -0,0 +1,162 @@
+package com.empresa.gestion.campos;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interpreta el parámetro ?fields= de los GET de empresas y sedes
+ * 
+ * Sintaxis: lista separada por comas de nombres JSON; las empresas admiten
+ * sedes o sedes(campo,...) para incluir las sedes anidadas.
+ *   ?fields=id,cif,razonSocial
+ *   ?fields=razonSocial,sedes(id,ciudad)
+ * 
+ * - Un campo desconocido o una sintaxis incorrecta lanza IllegalArgumentException (400)
+ * - Las selecciones válidas se cachean por texto: en el camino caliente solo hay una búsqueda
+ * - La selección se registra en la petición para que FiltroCamposAdvice recorte el JSON
+ */
+@Component
+public class SelectorCampos {
+
+    static final String ATRIBUTO = SeleccionCampos.class.getName();
+
+    private static final int MAXIMO_SELECCIONES = 1000;
+
+    private final Cache<String, SeleccionCampos> empresas = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_SELECCIONES)
+            .build();
+    private final Cache<String, SeleccionCampos> sedes = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_SELECCIONES)
+            .build();
+
+    /**
+     * Selección para un GET de empresas
+     * Sin fields se devuelven todos los campos y las sedes según include=sedes
+     */
+    public SeleccionCampos empresas(String fields, boolean incluirSedes) {
+        if (fields == null) {
+            return SeleccionCampos.empresas(incluirSedes);
+        }
+        return registrar(empresas.get(fields, SelectorCampos::parsearEmpresas));
+    }
+
+    /**
+     * Selección para un GET de sedes
+     */
+    public SeleccionCampos sedes(String fields) {
+        if (fields == null) {
+            return SeleccionCampos.sedes();
+        }
+        return registrar(sedes.get(fields, SelectorCampos::parsearSedes));
+    }
+
+    /**
+     * Guarda la selección en la petición actual (hilo del servidor, antes de
+     * delegar en EjecutorPeticiones) para filtrar la respuesta al serializarla
+     */
+    private static SeleccionCampos registrar(SeleccionCampos seleccion) {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos != null) {
+            atributos.setAttribute(ATRIBUTO, seleccion, RequestAttributes.SCOPE_REQUEST);
+        }
+        return seleccion;
+    }
+
+    static SeleccionCampos parsearEmpresas(String fields) {
+        Set<String> nombres = new HashSet<>();
+        SeleccionCampos seleccionSedes = null;
+
+        for (String token : dividir(fields)) {
+            int parentesis = token.indexOf('(');
+            String nombre = parentesis < 0 ? token : token.substring(0, parentesis).trim();
+
+            if (CampoEmpresa.SEDES.equals(nombre)) {
+                seleccionSedes = parentesis < 0
+                        ? SeleccionCampos.sedes()
+                        : parsearSedes(token.substring(parentesis + 1, token.length() - 1));
+            } else if (parentesis >= 0) {
+                throw new IllegalArgumentException("Solo " + CampoEmpresa.SEDES + " admite subselección: " + token);
+            } else if (CampoEmpresa.porNombre(nombre) == null) {
+                throw new IllegalArgumentException("Campo de empresa desconocido: " + nombre);
+            } else {
+                nombres.add(nombre);
+            }
+        }
+
+        Set<String> campos = new LinkedHashSet<>();
+        for (CampoEmpresa campo : CampoEmpresa.values()) {
+            if (campo == CampoEmpresa.ID || campo == CampoEmpresa.VERSION || nombres.contains(campo.getNombre())) {
+                campos.add(campo.getNombre());
+            }
+        }
+        return new SeleccionCampos(EmpresaDTO.class, campos, seleccionSedes);
+    }
+
+    static SeleccionCampos parsearSedes(String fields) {
+        Set<String> nombres = new HashSet<>();
+
+        for (String token : dividir(fields)) {
+            if (token.indexOf('(') >= 0) {
+                throw new IllegalArgumentException("Los campos de sede no admiten subselección: " + token);
+            }
+            if (CampoSede.porNombre(token) == null) {
+                throw new IllegalArgumentException("Campo de sede desconocido: " + token);
+            }
+            nombres.add(token);
+        }
+
+        Set<String> campos = new LinkedHashSet<>();
+        for (CampoSede campo : CampoSede.values()) {
+            if (campo == CampoSede.ID || campo == CampoSede.VERSION || nombres.contains(campo.getNombre())) {
+                campos.add(campo.getNombre());
+            }
+        }
+        return new SeleccionCampos(SedeDTO.class, campos, null);
+    }
+
+    /**
+     * Divide por las comas de primer nivel (las de dentro de paréntesis se conservan)
+     */
+    private static List<String> dividir(String fields) {
+        List<String> tokens = new ArrayList<>();
+        int profundidad = 0;
+        int inicio = 0;
+
+        for (int i = 0; i <= fields.length(); i++) {
+            char c = i < fields.length() ? fields.charAt(i) : ',';
+            if (c == '(') {
+                profundidad++;
+            } else if (c == ')') {
+                profundidad--;
+                if (profundidad < 0) {
+                    throw new IllegalArgumentException("Paréntesis sin abrir en fields: " + fields);
+                }
+            } else if (c == ',' && profundidad == 0) {
+                String token = fields.substring(inicio, i).trim();
+                if (token.isEmpty()) {
+                    throw new IllegalArgumentException("Campo vacío en fields: " + fields);
+                }
+                if (token.indexOf('(') >= 0 && !token.endsWith(")")) {
+                    throw new IllegalArgumentException("Subselección mal formada en fields: " + token);
+                }
+                tokens.add(token);
+                inicio = i + 1;
+            }
+        }
+        if (profundidad != 0) {
+            throw new IllegalArgumentException("Paréntesis sin cerrar en fields: " + fields);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,133 @@
+package com.empresa.gestion.coalescencia;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Agrupa lecturas por clave concurrentes en una única consulta por lotes (estilo DataLoader)
+ * 
+ * - La primera lectura de un lote espera app.coalescencia.ventana-micros a que lleguen
+ *   otras y ejecuta la consulta en su propio hilo (sin hilos ni planificador adicionales)
+ * - El resto espera el resultado del lote; una clave repetida comparte la misma lectura
+ * - El lote se ejecuta antes si alcanza app.coalescencia.lote-maximo claves
+ * - Un error en la carga se propaga a todas las lecturas del lote
+ * - Métrica gestion.coalescencia.lote: claves resueltas por consulta
+ * 
+ * La carga recibe el conjunto de claves y devuelve los valores encontrados;
+ * una clave sin valor se resuelve como null.
+ */
+public class Coalescedor<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> carga;
+    private final long ventanaNanos;
+    private final int loteMaximo;
+    private final DistributionSummary tamanoLote;
+
+    // Lote que aún admite claves (protegido por this)
+    private Lote<K, V> abierto;
+
+    public Coalescedor(String nombre, Function<Set<K>, Map<K, V>> carga,
+                       CoalescenciaProperties properties, MeterRegistry registry) {
+        this.carga = carga;
+        this.ventanaNanos = TimeUnit.MICROSECONDS.toNanos(properties.getVentanaMicros());
+        this.loteMaximo = Math.max(1, properties.getLoteMaximo());
+        this.tamanoLote = DistributionSummary.builder("gestion.coalescencia.lote")
+                .description("Claves resueltas por cada consulta agrupada")
+                .tag("consulta", nombre)
+                .register(registry);
+    }
+
+    /**
+     * Valor de la clave (o null si no existe), leído junto con las lecturas concurrentes
+     */
+    public V cargar(K clave) {
+        if (ventanaNanos <= 0) {
+            tamanoLote.record(1);
+            return carga.apply(Collections.singleton(clave)).get(clave);
+        }
+
+        Lote<K, V> lote;
+        CompletableFuture<V> resultado;
+        boolean primera = false;
+        synchronized (this) {
+            if (abierto == null) {
+                abierto = new Lote<>();
+                primera = true;
+            }
+            lote = abierto;
+            resultado = lote.pendientes.computeIfAbsent(clave, k -> new CompletableFuture<>());
+            if (lote.pendientes.size() >= loteMaximo) {
+                abierto = null;
+                lote.lleno.countDown();
+            }
+        }
+
+        if (primera) {
+            esperarVentana(lote);
+            synchronized (this) {
+                if (abierto == lote) {
+                    abierto = null;
+                }
+            }
+            ejecutar(lote);
+        }
+        return esperar(resultado);
+    }
+
+    private void esperarVentana(Lote<K, V> lote) {
+        try {
+            lote.lleno.await(ventanaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // El lote se ejecuta igualmente: otras lecturas esperan su resultado
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ejecuta la consulta del lote ya cerrado y completa todas sus lecturas
+     */
+    private void ejecutar(Lote<K, V> lote) {
+        try {
+            Map<K, V> valores = carga.apply(Collections.unmodifiableSet(lote.pendientes.keySet()));
+            tamanoLote.record(lote.pendientes.size());
+            lote.pendientes.forEach((clave, resultado) -> resultado.complete(valores.get(clave)));
+        } catch (RuntimeException | Error e) {
+            lote.pendientes.values().forEach(resultado -> resultado.completeExceptionally(e));
+        }
+    }
+
+    private static <V> V esperar(CompletableFuture<V> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            // Se relanza el error original de la carga (p.ej. DataAccessException)
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Claves pendientes de una consulta; lleno se libera al alcanzar lote-maximo
+     */
+    private static final class Lote<K, V> {
+
+        final Map<K, CompletableFuture<V>> pendientes = new LinkedHashMap<>();
+        final CountDownLatch lleno = new CountDownLatch(1);
+    }
+}
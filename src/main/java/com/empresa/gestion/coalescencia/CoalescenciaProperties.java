@@ -0,0 +1,36 @@
+package com.empresa.gestion.coalescencia;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agrupación de lecturas puntuales concurrentes (prefijo app.coalescencia)
+ * 
+ * - ventana-micros: cuánto espera la primera lectura de un lote a que lleguen otras
+ *   (0 desactiva la agrupación: cada lectura hace su propia consulta)
+ * - lote-maximo: claves por consulta; al alcanzarlo el lote se ejecuta sin esperar
+ */
+@Component
+@ConfigurationProperties(prefix = "app.coalescencia")
+public class CoalescenciaProperties {
+
+    private long ventanaMicros = 200;
+
+    private int loteMaximo = 100;
+
+    public long getVentanaMicros() {
+        return ventanaMicros;
+    }
+
+    public void setVentanaMicros(long ventanaMicros) {
+        this.ventanaMicros = ventanaMicros;
+    }
+
+    public int getLoteMaximo() {
+        return loteMaximo;
+    }
+
+    public void setLoteMaximo(int loteMaximo) {
+        this.loteMaximo = loteMaximo;
+    }
+}
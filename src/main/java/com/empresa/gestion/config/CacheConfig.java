@@ -0,0 +1,26 @@
+package com.empresa.gestion.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuración de la caché en memoria (Caffeine) para las consultas puntuales
+ * 
+ * - Tamaño máximo, TTL y estadísticas: spring.cache.caffeine.spec
+ * - Métricas de aciertos/fallos/expulsiones: /actuator/metrics/cache.gets, cache.evictions...
+ * - La invalidación en escrituras la realiza InvalidadorCache tras el commit
+ * 
+ * El interceptor de caché se ordena por fuera del transaccional: un acierto
+ * no abre transacción ni pide conexión al pool.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String EMPRESAS_POR_ID = "empresasPorId";
+    public static final String EMPRESAS_POR_CIF = "empresasPorCif";
+    public static final String SEDES_POR_ID = "sedesPorId";
+    public static final String SEDES_PRINCIPALES = "sedesPrincipales";
+    public static final String ESTADISTICAS_SECTORES = "estadisticasSectores";
+}
@@ -0,0 +1,13 @@
+package com.empresa.gestion.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled), p.ej. la
+ * reconciliación periódica de los contadores de estadísticas
+ */
+@Configuration
+@EnableScheduling
+public class TareasConfig {
+}
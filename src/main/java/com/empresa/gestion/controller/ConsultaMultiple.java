@@ -0,0 +1,56 @@
+package com.empresa.gestion.controller;
+
+import com.empresa.gestion.dto.PaginaDTO;
+import com.empresa.gestion.dto.Versionado;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas múltiples por clave (?ids=1,2,3, ?cifs=..., ?empresaIds=...)
+ * 
+ * - Claves vacías se ignoran y las repetidas se devuelven una vez
+ * - Como máximo app.paginacion.limite-maximo claves por petición
+ * - El cuerpo es un array JSON, con ETag agregado como los listados
+ */
+final class ConsultaMultiple {
+
+    private ConsultaMultiple() {
+    }
+
+    /**
+     * Claves distintas en el orden recibido
+     * 
+     * @throws IllegalArgumentException si no hay ninguna o se supera el máximo
+     */
+    static <K> List<K> claves(List<K> valores, int maximo) {
+        // Spring ya separa por comas y recorta; "1,,2" deja elementos vacíos o null
+        Set<K> distintas = new LinkedHashSet<>();
+        for (K valor : valores) {
+            if (valor != null && !"".equals(valor)) {
+                distintas.add(valor);
+            }
+        }
+
+        if (distintas.isEmpty()) {
+            throw new IllegalArgumentException("Se debe indicar al menos una clave");
+        }
+        if (distintas.size() > maximo) {
+            throw new IllegalArgumentException("Se admiten como máximo " + maximo + " claves por consulta");
+        }
+        return new ArrayList<>(distintas);
+    }
+
+    /**
+     * 200 con ETag agregado, o 304 si coincide con If-None-Match
+     */
+    static <T extends Versionado> ResponseEntity<List<T>> ok(List<T> contenido, String ifNoneMatch) {
+        // Sin cursor: la URI de la petición no se usa
+        return RespuestaPaginada.ok(new PaginaDTO<>(contenido, null, contenido.size()),
+                UriComponentsBuilder.newInstance(), ifNoneMatch);
+    }
+}
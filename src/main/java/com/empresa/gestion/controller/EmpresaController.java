@@ -1,15 +1,46 @@
 package com.empresa.gestion.controller;
 
+import com.empresa.gestion.campos.FiltroCampos;
+import com.empresa.gestion.campos.SeleccionCampos;
+import com.empresa.gestion.campos.SelectorCampos;
 import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.EstadisticasSectorDTO;
+import com.empresa.gestion.dto.ResultadoImportacionDTO;
+import com.empresa.gestion.dto.ResultadoRegistroDTO;
+import com.empresa.gestion.dto.ResultadoSincronizacionDTO;
+import com.empresa.gestion.dto.TrabajoEliminacionDTO;
+import com.empresa.gestion.ejecucion.EjecutorPeticiones;
+import com.empresa.gestion.paginacion.PaginacionProperties;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import com.empresa.gestion.service.EliminacionService;
 import com.empresa.gestion.service.EmpresaService;
+import com.empresa.gestion.service.ImportacionService;
+import com.empresa.gestion.service.SincronizacionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -18,15 +49,39 @@ import java.util.List;
  * ENDPOINTS CRUD:
  * - GET    /api/empresas          -> Listar todas
  * - GET    /api/empresas/{id}     -> Obtener una por ID
+ * - GET    /api/empresas?ids=...  -> Obtener varias por ID (también ?cifs=...)
  * - POST   /api/empresas          -> Crear nueva
  * - PUT    /api/empresas/{id}     -> Actualizar existente
  * - DELETE /api/empresas/{id}     -> Eliminar
+ * - POST   /api/empresas/{id}/eliminacion -> Eliminar por lotes en segundo plano (202)
+ * - GET    /api/empresas/eliminaciones/{trabajoId} -> Estado de una eliminación por lotes
+ * - GET    /api/empresas/export   -> Exportar todo en streaming (NDJSON)
+ * - GET    /api/empresas/estadisticas/sectores -> Agregados por sector
+ * - PATCH  /api/empresas/activar|desactivar?ids=|sector=|facturacionMayorQue= -> Cambio de estado en bloque
+ * - POST   /api/empresas/bulk     -> Importación masiva (JSON array o NDJSON)
+ * - PUT    /api/empresas/cif/{cif} -> Crear o actualizar por CIF (upsert)
+ * - PUT    /api/empresas/cif      -> Upsert masivo por CIF (JSON array o NDJSON)
+ * 
+ * PAGINACIÓN:
+ * - Los listados aceptan after (cursor opaco) y limit (con tope en el servidor)
+ * - Los listados no incluyen sedes salvo con include=sedes
+ * 
+ * EJECUCIÓN:
+ * - Los handlers devuelven DeferredResult y delegan en EjecutorPeticiones
+ *   (lecturas puntuales, listados y escrituras en pools separados si app.ejecucion.asincrona=true)
+ * - Exportación, importación y upsert masivos se ejecutan en el hilo del servidor (streaming del cuerpo)
+ * 
+ * VERSIONES (ver Precondiciones):
+ * - GET por ID/CIF y listados devuelven ETag; con If-None-Match coincidente, 304
+ * - PUT/DELETE aceptan If-Match: 412 si la empresa ha cambiado, 409 si otra
+ *   escritura concurrente gana sin If-Match
  * 
  * JAVA 8 + SPRING BOOT 2.7:
  * - Sintaxis tradicional de Java 8
  * - javax.validation.* (Bean Validation estándar)
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/empresas")
 @Validated
 public class EmpresaController {
@@ -34,33 +89,189 @@ public class EmpresaController {
     private static final Logger logger = LoggerFactory.getLogger(EmpresaController.class);
 
     private final EmpresaService empresaService;
+    private final ImportacionService importacionService;
+    private final SincronizacionService sincronizacionService;
+    private final EliminacionService eliminacionService;
+    private final PaginacionProperties paginacion;
+    private final ObjectMapper objectMapper;
+    private final EjecutorPeticiones ejecutor;
+    private final SelectorCampos selectorCampos;
 
-    public EmpresaController(EmpresaService empresaService) {
+    public EmpresaController(EmpresaService empresaService,
+                             ImportacionService importacionService,
+                             SincronizacionService sincronizacionService,
+                             EliminacionService eliminacionService,
+                             PaginacionProperties paginacion,
+                             ObjectMapper objectMapper,
+                             EjecutorPeticiones ejecutor,
+                             SelectorCampos selectorCampos) {
         this.empresaService = empresaService;
+        this.importacionService = importacionService;
+        this.sincronizacionService = sincronizacionService;
+        this.eliminacionService = eliminacionService;
+        this.paginacion = paginacion;
+        this.objectMapper = objectMapper;
+        this.ejecutor = ejecutor;
+        this.selectorCampos = selectorCampos;
     }
 
     /**
      * Listar todas las empresas
-     * GET /api/empresas
+     * GET /api/empresas?after=...&limit=...&include=sedes
+     * 
+     * Paginado por cursor: la siguiente página se indica en las cabeceras Link / X-Next-Cursor
+     * Las sedes solo se incluyen con include=sedes (cargadas en bloque)
+     * Campos: ?fields=id,cif,razonSocial,sedes(id,ciudad) reduce columnas leídas y JSON
      */
     @GetMapping
-    public ResponseEntity<List<EmpresaDTO>> listarTodas() {
-        logger.info("GET /api/empresas - Listar todas las empresas");
-        List<EmpresaDTO> empresas = empresaService.obtenerTodas();
-        return ResponseEntity.ok(empresas);
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> listarTodas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/empresas - Listar todas las empresas");
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(empresaService.obtenerTodas(pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al listar empresas: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Obtener varias empresas por ID
+     * GET /api/empresas?ids=1,2,3&include=sedes&fields=...
+     * 
+     * Una única consulta IN en lugar de un GET por empresa: orden de la petición,
+     * IDs inexistentes omitidos, como máximo app.paginacion.limite-maximo IDs
+     */
+    @GetMapping(params = "ids")
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> obtenerPorIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) List<String> cifs,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/empresas?ids - Obtener {} empresas", ids.size());
+
+        SeleccionCampos campos;
+        List<Long> claves;
+        try {
+            if (cifs != null) {
+                throw new IllegalArgumentException("ids y cifs no se pueden combinar");
+            }
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+            claves = ConsultaMultiple.claves(ids, paginacion.getLimiteMaximo());
+        } catch (IllegalArgumentException e) {
+            logger.error("Consulta por IDs no válida: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.listado(() ->
+                ConsultaMultiple.ok(empresaService.obtenerPorIds(claves, campos), ifNoneMatch));
+    }
+
+    /**
+     * Obtener varias empresas por CIF
+     * GET /api/empresas?cifs=A1,B2&include=sedes&fields=...
+     * 
+     * Una única consulta IN (ver obtenerPorIds)
+     */
+    @GetMapping(params = {"cifs", "!ids"})
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> obtenerPorCifs(
+            @RequestParam List<String> cifs,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/empresas?cifs - Obtener {} empresas", cifs.size());
+
+        SeleccionCampos campos;
+        List<String> claves;
+        try {
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+            claves = ConsultaMultiple.claves(cifs, paginacion.getLimiteMaximo());
+        } catch (IllegalArgumentException e) {
+            logger.error("Consulta por CIFs no válida: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.listado(() ->
+                ConsultaMultiple.ok(empresaService.obtenerPorCifs(claves, campos), ifNoneMatch));
+    }
+
+    /**
+     * Exportar todas las empresas con sus sedes en streaming (NDJSON)
+     * GET /api/empresas/export
+     * 
+     * Cada empresa se escribe como una línea JSON en cuanto se lee,
+     * sin construir la lista completa en memoria.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportar(@RequestParam(required = false) String fields,
+                         HttpServletResponse response) throws IOException {
+        logger.debug("GET /api/empresas/export - Exportar empresas (NDJSON)");
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.empresas(fields, true);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        ObjectWriter escritor = fields == null
+                ? objectMapper.writer()
+                : objectMapper.writer(FiltroCampos.proveedor(campos));
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream salida = response.getOutputStream();
+        empresaService.exportar(campos.incluyeSedes(), empresa -> escribirLinea(salida, escritor, empresa));
+        salida.flush();
     }
 
     /**
      * Obtener una empresa por ID
      * GET /api/empresas/{id}
+     * 
+     * Con If-None-Match coincidente: 304 leyendo solo la versión
      */
     @GetMapping("/{id}")
-    public ResponseEntity<EmpresaDTO> obtenerPorId(@PathVariable Long id) {
-        logger.info("GET /api/empresas/{} - Obtener empresa", id);
+    public DeferredResult<ResponseEntity<EmpresaDTO>> obtenerPorId(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /api/empresas/{} - Obtener empresa", id);
         
-        return empresaService.obtenerPorId(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        // Respuesta cacheada completa: fields solo recorta el JSON
+        try {
+            selectorCampos.empresas(fields, true);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.lecturaPuntual(() -> Precondiciones.lectura(ifNoneMatch,
+                () -> empresaService.obtenerVersion(id),
+                () -> empresaService.obtenerPorId(id)));
     }
 
     /**
@@ -70,53 +281,213 @@ public class EmpresaController {
      * Validación: @Valid con javax.validation
      */
     @PostMapping
-    public ResponseEntity<EmpresaDTO> crear(@Valid @RequestBody EmpresaDTO empresaDTO) {
-        logger.info("POST /api/empresas - Crear empresa: {}", empresaDTO.getRazonSocial());
+    public DeferredResult<ResponseEntity<EmpresaDTO>> crear(@Valid @RequestBody EmpresaDTO empresaDTO) {
+        logger.debug("POST /api/empresas - Crear empresa: {}", empresaDTO.getRazonSocial());
         
-        try {
-            EmpresaDTO empresaCreada = empresaService.crear(empresaDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(empresaCreada);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al crear empresa: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
+        return ejecutor.escritura(() -> {
+            try {
+                EmpresaDTO empresaCreada = empresaService.crear(empresaDTO);
+                return Precondiciones.respuesta(HttpStatus.CREATED, empresaCreada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al crear empresa: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Importación masiva de empresas con sus sedes embebidas
+     * POST /api/empresas/bulk  (array JSON)
+     * 
+     * Devuelve un resumen con el resultado de cada registro y filas/segundo
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoImportacionDTO> importar(@RequestBody List<EmpresaDTO> empresas) {
+        logger.debug("POST /api/empresas/bulk - Importar {} empresas", empresas.size());
+        return ResponseEntity.ok(importacionService.importar(empresas.iterator()));
+    }
+
+    /**
+     * Importación masiva en streaming
+     * POST /api/empresas/bulk  (application/x-ndjson, una empresa por línea)
+     * 
+     * Los registros se leen del cuerpo a medida que se importa cada lote
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResultadoImportacionDTO> importarNdjson(HttpServletRequest request) throws IOException {
+        logger.debug("POST /api/empresas/bulk - Importar empresas (NDJSON)");
+
+        try (MappingIterator<EmpresaDTO> registros = objectMapper.readerFor(EmpresaDTO.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok(importacionService.importar(registros));
+        }
+    }
+
+    /**
+     * Crear o actualizar una empresa por su CIF (upsert idempotente)
+     * PUT /api/empresas/cif/{cif}
+     * 
+     * - 201 si se ha creado, 200 si se ha actualizado o ya tenía esos datos
+     *   (estado CREADA / ACTUALIZADA / SIN_CAMBIOS en el cuerpo)
+     * - 400 si el CIF del cuerpo no coincide con el de la ruta
+     * - 409 si otra escritura concurrente modifica la empresa
+     */
+    @PutMapping("/cif/{cif}")
+    public DeferredResult<ResponseEntity<ResultadoRegistroDTO>> sincronizar(
+            @PathVariable String cif,
+            @Valid @RequestBody EmpresaDTO empresaDTO) {
+        logger.debug("PUT /api/empresas/cif/{} - Sincronizar empresa", cif);
+
+        return ejecutor.escritura(() -> {
+            try {
+                ResultadoRegistroDTO resultado = sincronizacionService.sincronizar(cif, empresaDTO);
+                HttpStatus estado = resultado.getEstado() == ResultadoRegistroDTO.Estado.CREADA
+                        ? HttpStatus.CREATED
+                        : HttpStatus.OK;
+                return ResponseEntity.status(estado).body(resultado);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al sincronizar empresa: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al sincronizar empresa {}: {}", cif, e.getMessage());
+                return Precondiciones.conflicto(null);
+            }
+        });
+    }
+
+    /**
+     * Upsert masivo por CIF
+     * PUT /api/empresas/cif  (array JSON)
+     * 
+     * Un MERGE por lote; devuelve el estado de cada registro
+     */
+    @PutMapping(value = "/cif", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoSincronizacionDTO> sincronizarLote(@RequestBody List<EmpresaDTO> empresas) {
+        logger.debug("PUT /api/empresas/cif - Sincronizar {} empresas", empresas.size());
+        return ResponseEntity.ok(sincronizacionService.sincronizar(empresas.iterator()));
+    }
+
+    /**
+     * Upsert masivo por CIF en streaming
+     * PUT /api/empresas/cif  (application/x-ndjson, una empresa por línea)
+     */
+    @PutMapping(value = "/cif", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResultadoSincronizacionDTO> sincronizarNdjson(HttpServletRequest request)
+            throws IOException {
+        logger.debug("PUT /api/empresas/cif - Sincronizar empresas (NDJSON)");
+
+        try (MappingIterator<EmpresaDTO> registros = objectMapper.readerFor(EmpresaDTO.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok(sincronizacionService.sincronizar(registros));
         }
     }
 
     /**
      * Actualizar una empresa existente
      * PUT /api/empresas/{id}
+     * 
+     * If-Match: ETag obtenido en el GET; 412 si la empresa ha cambiado desde entonces
      */
     @PutMapping("/{id}")
-    public ResponseEntity<EmpresaDTO> actualizar(
+    public DeferredResult<ResponseEntity<EmpresaDTO>> actualizar(
             @PathVariable Long id,
-            @Valid @RequestBody EmpresaDTO empresaDTO) {
+            @Valid @RequestBody EmpresaDTO empresaDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
-        logger.info("PUT /api/empresas/{} - Actualizar empresa", id);
+        logger.debug("PUT /api/empresas/{} - Actualizar empresa", id);
         
-        try {
-            EmpresaDTO empresaActualizada = empresaService.actualizar(id, empresaDTO);
-            return ResponseEntity.ok(empresaActualizada);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al actualizar empresa: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+        Long versionEsperada = Precondiciones.versionEsperada(ifMatch);
+        return ejecutor.escritura(() -> {
+            try {
+                EmpresaDTO empresaActualizada = empresaService.actualizar(id, empresaDTO, versionEsperada);
+                return Precondiciones.respuesta(HttpStatus.OK, empresaActualizada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al actualizar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al actualizar empresa {}: {}", id, e.getMessage());
+                return Precondiciones.conflicto(ifMatch);
+            }
+        });
     }
 
     /**
      * Eliminar una empresa
      * DELETE /api/empresas/{id}
+     * 
+     * If-Match: ETag obtenido en el GET; 412 si la empresa ha cambiado desde entonces
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> eliminar(@PathVariable Long id) {
-        logger.info("DELETE /api/empresas/{} - Eliminar empresa", id);
+    public DeferredResult<ResponseEntity<Void>> eliminar(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("DELETE /api/empresas/{} - Eliminar empresa", id);
         
-        try {
-            empresaService.eliminar(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al eliminar empresa: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+        Long versionEsperada = Precondiciones.versionEsperada(ifMatch);
+        return ejecutor.escritura(() -> {
+            try {
+                empresaService.eliminar(id, versionEsperada);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al eliminar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al eliminar empresa {}: {}", id, e.getMessage());
+                return Precondiciones.conflicto(ifMatch);
+            }
+        });
+    }
+
+    /**
+     * Eliminar una empresa con muchas sedes en segundo plano
+     * POST /api/empresas/{id}/eliminacion
+     * 
+     * Las sedes se borran por lotes, cada uno en su transacción, y la empresa con el último
+     * (ver EliminacionService). 202 con Location al estado del trabajo; si ya hay una
+     * eliminación en curso para la empresa se devuelve esa.
+     * If-Match como en DELETE; 503 si la cola de eliminaciones está llena
+     */
+    @PostMapping("/{id}/eliminacion")
+    public DeferredResult<ResponseEntity<TrabajoEliminacionDTO>> eliminarPorLotes(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("POST /api/empresas/{}/eliminacion - Eliminar empresa por lotes", id);
+
+        Long versionEsperada = Precondiciones.versionEsperada(ifMatch);
+        // El contexto de la petición no está disponible en los hilos del pool
+        UriComponentsBuilder base = ServletUriComponentsBuilder.fromCurrentContextPath();
+        return ejecutor.escritura(() -> {
+            try {
+                TrabajoEliminacionDTO trabajo = eliminacionService.iniciar(id, versionEsperada);
+                return ResponseEntity.accepted()
+                        .location(base.path("/api/empresas/eliminaciones/{trabajoId}")
+                                .buildAndExpand(trabajo.getId()).toUri())
+                        .body(trabajo);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al eliminar empresa por lotes: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al eliminar empresa {} por lotes: {}", id, e.getMessage());
+                return Precondiciones.conflicto(ifMatch);
+            } catch (TaskRejectedException e) {
+                logger.warn("Cola de eliminaciones llena: empresa {} rechazada", id);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+        });
+    }
+
+    /**
+     * Estado de una eliminación por lotes
+     * GET /api/empresas/eliminaciones/{trabajoId}
+     * 
+     * 404 si el trabajo no existe o ya se ha descartado (app.eliminacion.retencion-minutos)
+     */
+    @GetMapping("/eliminaciones/{trabajoId}")
+    public DeferredResult<ResponseEntity<TrabajoEliminacionDTO>> obtenerEliminacion(@PathVariable String trabajoId) {
+        logger.debug("GET /api/empresas/eliminaciones/{} - Estado de eliminación", trabajoId);
+        return ejecutor.inmediato(eliminacionService.obtener(trabajoId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     /**
@@ -124,23 +495,59 @@ public class EmpresaController {
      * GET /api/empresas/activas
      */
     @GetMapping("/activas")
-    public ResponseEntity<List<EmpresaDTO>> listarActivas() {
-        logger.info("GET /api/empresas/activas - Listar empresas activas");
-        List<EmpresaDTO> empresas = empresaService.obtenerActivas();
-        return ResponseEntity.ok(empresas);
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> listarActivas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/empresas/activas - Listar empresas activas");
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(empresaService.obtenerActivas(pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al listar empresas activas: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
      * Buscar por CIF
      * GET /api/empresas/cif/{cif}
+     * 
+     * Con If-None-Match coincidente: 304 leyendo solo la versión
      */
     @GetMapping("/cif/{cif}")
-    public ResponseEntity<EmpresaDTO> buscarPorCif(@PathVariable String cif) {
-        logger.info("GET /api/empresas/cif/{} - Buscar por CIF", cif);
+    public DeferredResult<ResponseEntity<EmpresaDTO>> buscarPorCif(
+            @PathVariable String cif,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /api/empresas/cif/{} - Buscar por CIF", cif);
         
-        return empresaService.obtenerPorCif(cif)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        // Respuesta cacheada completa: fields solo recorta el JSON
+        try {
+            selectorCampos.empresas(fields, true);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.lecturaPuntual(() -> Precondiciones.lectura(ifNoneMatch,
+                () -> empresaService.obtenerVersionPorCif(cif),
+                () -> empresaService.obtenerPorCif(cif)));
     }
 
     /**
@@ -148,10 +555,34 @@ public class EmpresaController {
      * GET /api/empresas/sector/{sector}
      */
     @GetMapping("/sector/{sector}")
-    public ResponseEntity<List<EmpresaDTO>> buscarPorSector(@PathVariable String sector) {
-        logger.info("GET /api/empresas/sector/{} - Buscar por sector", sector);
-        List<EmpresaDTO> empresas = empresaService.buscarPorSector(sector);
-        return ResponseEntity.ok(empresas);
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> buscarPorSector(
+            @PathVariable String sector,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/empresas/sector/{} - Buscar por sector", sector);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(empresaService.buscarPorSector(sector, pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al buscar empresas por sector: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -159,12 +590,35 @@ public class EmpresaController {
      * GET /api/empresas/buscar?texto=...
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<EmpresaDTO>> buscarPorRazonSocial(
-            @RequestParam String texto) {
+    public DeferredResult<ResponseEntity<List<EmpresaDTO>>> buscarPorRazonSocial(
+            @RequestParam String texto,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        logger.info("GET /api/empresas/buscar?texto={}", texto);
-        List<EmpresaDTO> empresas = empresaService.buscarPorRazonSocial(texto);
-        return ResponseEntity.ok(empresas);
+        logger.debug("GET /api/empresas/buscar?texto={}", texto);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.empresas(fields, incluyeSedes(include));
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(empresaService.buscarPorRazonSocial(texto, pagina, campos),
+                        uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al buscar empresas por razón social: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -172,16 +626,18 @@ public class EmpresaController {
      * PATCH /api/empresas/{id}/desactivar
      */
     @PatchMapping("/{id}/desactivar")
-    public ResponseEntity<Void> desactivar(@PathVariable Long id) {
-        logger.info("PATCH /api/empresas/{}/desactivar", id);
+    public DeferredResult<ResponseEntity<Void>> desactivar(@PathVariable Long id) {
+        logger.debug("PATCH /api/empresas/{}/desactivar", id);
         
-        try {
-            empresaService.desactivar(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al desactivar empresa: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+        return ejecutor.escritura(() -> {
+            try {
+                empresaService.desactivar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al desactivar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     /**
@@ -189,16 +645,80 @@ public class EmpresaController {
      * PATCH /api/empresas/{id}/activar
      */
     @PatchMapping("/{id}/activar")
-    public ResponseEntity<Void> activar(@PathVariable Long id) {
-        logger.info("PATCH /api/empresas/{}/activar", id);
+    public DeferredResult<ResponseEntity<Void>> activar(@PathVariable Long id) {
+        logger.debug("PATCH /api/empresas/{}/activar", id);
         
+        return ejecutor.escritura(() -> {
+            try {
+                empresaService.activar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al activar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Activar empresas en bloque
+     * PATCH /api/empresas/activar?ids=1,2,3 | ?sector=... | ?facturacionMayorQue=...
+     * 
+     * Un único UPDATE sin cargar las empresas; devuelve cuántas han cambiado de estado
+     */
+    @PatchMapping("/activar")
+    public DeferredResult<ResponseEntity<Integer>> activarEnBloque(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String sector,
+            @RequestParam(required = false) Double facturacionMayorQue) {
+        logger.debug("PATCH /api/empresas/activar - Activar en bloque");
+        return cambiarActivoEnBloque(ids, sector, facturacionMayorQue, true);
+    }
+
+    /**
+     * Desactivar empresas en bloque
+     * PATCH /api/empresas/desactivar?ids=1,2,3 | ?sector=... | ?facturacionMayorQue=...
+     */
+    @PatchMapping("/desactivar")
+    public DeferredResult<ResponseEntity<Integer>> desactivarEnBloque(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String sector,
+            @RequestParam(required = false) Double facturacionMayorQue) {
+        logger.debug("PATCH /api/empresas/desactivar - Desactivar en bloque");
+        return cambiarActivoEnBloque(ids, sector, facturacionMayorQue, false);
+    }
+
+    /**
+     * Exactamente un criterio; ids con el mismo tope que las consultas múltiples
+     */
+    private DeferredResult<ResponseEntity<Integer>> cambiarActivoEnBloque(List<Long> ids, String sector,
+                                                                         Double facturacionMayorQue,
+                                                                         boolean activo) {
+        int criterios = (ids != null ? 1 : 0) + (sector != null ? 1 : 0) + (facturacionMayorQue != null ? 1 : 0);
+        List<Long> claves;
         try {
-            empresaService.activar(id);
-            return ResponseEntity.noContent().build();
+            if (criterios != 1) {
+                throw new IllegalArgumentException("Se debe indicar uno de ids, sector o facturacionMayorQue");
+            }
+            if (sector != null && sector.trim().isEmpty()) {
+                throw new IllegalArgumentException("El sector no puede estar vacío");
+            }
+            claves = ids != null ? ConsultaMultiple.claves(ids, paginacion.getLimiteMaximo()) : null;
         } catch (IllegalArgumentException e) {
-            logger.error("Error al activar empresa: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
+            logger.error("Cambio de estado en bloque no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
         }
+
+        return ejecutor.escritura(() -> {
+            int afectadas;
+            if (claves != null) {
+                afectadas = empresaService.cambiarActivoPorIds(claves, activo);
+            } else if (sector != null) {
+                afectadas = empresaService.cambiarActivoPorSector(sector, activo);
+            } else {
+                afectadas = empresaService.cambiarActivoPorFacturacion(facturacionMayorQue, activo);
+            }
+            return ResponseEntity.ok(afectadas);
+        });
     }
 
     /**
@@ -206,10 +726,51 @@ public class EmpresaController {
      * GET /api/empresas/estadisticas/activas
      */
     @GetMapping("/estadisticas/activas")
-    public ResponseEntity<Long> contarActivas() {
-        logger.info("GET /api/empresas/estadisticas/activas");
-        long count = empresaService.contarEmpresasActivas();
-        return ResponseEntity.ok(count);
+    public DeferredResult<ResponseEntity<Long>> contarActivas() {
+        logger.debug("GET /api/empresas/estadisticas/activas");
+        return ejecutor.lecturaPuntual(() -> {
+            long count = empresaService.contarEmpresasActivas();
+            return ResponseEntity.ok(count);
+        });
+    }
+
+    /**
+     * Estadísticas por sector
+     * GET /api/empresas/estadisticas/sectores
+     * 
+     * Recuento, activas, facturación (suma/media/mínimo/máximo), empleados y sedes
+     * de cada sector; cacheadas hasta la siguiente escritura
+     */
+    @GetMapping("/estadisticas/sectores")
+    public DeferredResult<ResponseEntity<List<EstadisticasSectorDTO>>> estadisticasPorSector() {
+        logger.debug("GET /api/empresas/estadisticas/sectores");
+        return ejecutor.lecturaPuntual(() -> ResponseEntity.ok(empresaService.estadisticasPorSector()));
+    }
+
+    /**
+     * Escribe un DTO como una línea NDJSON
+     */
+    private static void escribirLinea(OutputStream salida, ObjectWriter escritor, EmpresaDTO empresa) {
+        try {
+            salida.write(escritor.writeValueAsBytes(empresa));
+            salida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
 
+    /**
+     * Indica si el parámetro include (lista separada por comas) solicita las sedes
+     */
+    private static boolean incluyeSedes(String include) {
+        if (include == null) {
+            return false;
+        }
+        for (String valor : include.split(",")) {
+            if ("sedes".equalsIgnoreCase(valor.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package com.empresa.gestion.controller;
+
+import com.empresa.gestion.dto.PaginaDTO;
+import com.empresa.gestion.dto.Versionado;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * ETags y peticiones condicionales
+ * 
+ * - Recurso individual: ETag débil con su versión (W/"7"); la versión de una
+ *   empresa se incrementa también con los cambios en sus sedes
+ * - Listado: ETag débil con una huella de los pares (id, versión) de la página
+ *   y de si hay página siguiente; cambia si se modifica, entra o sale una fila
+ * - If-None-Match coincidente en un GET: 304 sin cuerpo
+ * - If-Match en PUT/DELETE: una única ETag de recurso o *; si no coincide con
+ *   la versión actual, 412
+ * 
+ * La ETag identifica la versión, no los bytes: la misma versión se sirve en JSON,
+ * CBOR, Smile o Protobuf y con o sin gzip, así que es débil (una ETag fuerte exige
+ * representaciones idénticas byte a byte). If-Match compara por versión y acepta
+ * la ETag débil que devuelve el GET (también la forma fuerte "7"). Las respuestas
+ * llevan Vary: Accept para que las cachés separen los formatos.
+ */
+final class Precondiciones {
+
+    /** Versión que no coincide con ninguna: If-Match de listado o mal formado */
+    static final long VERSION_INVALIDA = -1L;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private Precondiciones() {
+    }
+
+    static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * ETag de una página: W/"l-" + huella FNV-1a de 64 bits de sus (id, versión)
+     */
+    static <T extends Versionado> String etag(PaginaDTO<T> pagina) {
+        long huella = FNV_OFFSET;
+        for (T elemento : pagina.getContenido()) {
+            huella = mezclar(huella, elemento.getId());
+            huella = mezclar(huella, elemento.getVersion());
+        }
+        huella = mezclar(huella, pagina.getSiguienteCursor() != null ? 1L : 0L);
+        return "W/\"l-" + Long.toHexString(huella) + "\"";
+    }
+
+    /**
+     * true si alguna ETag de If-None-Match coincide (comparación débil, admite *)
+     */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaca = sinPrefijoDebil(etag);
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = sinPrefijoDebil(candidata.trim());
+            if ("*".equals(valor) || valor.equals(opaca)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versión exigida por If-Match: null sin cabecera o con *,
+     * VERSION_INVALIDA si no es una ETag de recurso (W/"7" o "7")
+     */
+    static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String valor = sinPrefijoDebil(ifMatch.trim());
+        if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"') {
+            return VERSION_INVALIDA;
+        }
+        try {
+            return Long.parseLong(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return VERSION_INVALIDA;
+        }
+    }
+
+    /**
+     * GET de un recurso individual con If-None-Match
+     * 
+     * Si la versión actual (solo la columna version o el DTO cacheado) coincide
+     * se responde 304 sin leer la entidad ni serializar; si no, la lectura normal.
+     */
+    static <T extends Versionado> ResponseEntity<T> lectura(String ifNoneMatch,
+                                                           Supplier<Optional<Long>> versionActual,
+                                                           Supplier<Optional<T>> lectura) {
+        if (ifNoneMatch != null) {
+            Optional<Long> version = versionActual.get();
+            if (version.isPresent() && coincide(ifNoneMatch, etag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag(version.get()))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
+        return lectura.get()
+                .map(dto -> respuesta(HttpStatus.OK, dto))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Respuesta con el DTO y su versión como ETag
+     */
+    static <T extends Versionado> ResponseEntity<T> respuesta(HttpStatus estado, T dto) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(estado);
+        if (dto.getVersion() != null) {
+            respuesta.eTag(etag(dto.getVersion())).varyBy(HttpHeaders.ACCEPT);
+        }
+        return respuesta.body(dto);
+    }
+
+    /**
+     * Conflicto de versión en una escritura: 412 si el cliente envió If-Match;
+     * si no (otra transacción concurrente ganó), 409
+     */
+    static <T> ResponseEntity<T> conflicto(String ifMatch) {
+        return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                .build();
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static long mezclar(long huella, Long valor) {
+        long v = valor != null ? valor : VERSION_INVALIDA;
+        for (int i = 0; i < Long.BYTES; i++) {
+            huella ^= (v >>> (i * 8)) & 0xff;
+            huella *= FNV_PRIMO;
+        }
+        return huella;
+    }
+}
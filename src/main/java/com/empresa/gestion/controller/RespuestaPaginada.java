@@ -0,0 +1,71 @@
+package com.empresa.gestion.controller;
+
+import com.empresa.gestion.dto.PaginaDTO;
+import com.empresa.gestion.dto.Versionado;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Construye respuestas HTTP para listados paginados por cursor
+ * 
+ * El cuerpo sigue siendo un array JSON (contrato existente) y la
+ * paginación se publica en cabeceras:
+ * - Link: <...?after=CURSOR&limit=N>; rel="next"
+ * - X-Next-Cursor: CURSOR
+ * - ETag: versión agregada de la página (ver Precondiciones)
+ */
+final class RespuestaPaginada {
+
+    static final String CABECERA_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    private RespuestaPaginada() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(PaginaDTO<T> pagina) {
+        return ok(pagina, ServletUriComponentsBuilder.fromCurrentRequest());
+    }
+
+    /**
+     * Variante para ejecución fuera del hilo de la petición: la URI se
+     * captura antes (ServletUriComponentsBuilder.fromCurrentRequest())
+     */
+    static <T> ResponseEntity<List<T>> ok(PaginaDTO<T> pagina, UriComponentsBuilder peticion) {
+        HttpHeaders headers = new HttpHeaders();
+
+        if (pagina.getSiguienteCursor() != null) {
+            String siguiente = peticion.cloneBuilder()
+                    .replaceQueryParam("after", pagina.getSiguienteCursor())
+                    .replaceQueryParam("limit", pagina.getLimite())
+                    .build()
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+            headers.add(CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+
+        return ResponseEntity.ok().headers(headers).body(pagina.getContenido());
+    }
+
+    /**
+     * Variante con ETag agregado: si coincide con If-None-Match se responde
+     * 304 sin serializar la página
+     */
+    static <T extends Versionado> ResponseEntity<List<T>> ok(PaginaDTO<T> pagina, UriComponentsBuilder peticion,
+                                                            String ifNoneMatch) {
+        String etag = Precondiciones.etag(pagina);
+        if (Precondiciones.coincide(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        ResponseEntity<List<T>> respuesta = ok(pagina, peticion);
+        return ResponseEntity.ok()
+                .headers(respuesta.getHeaders())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(respuesta.getBody());
+    }
+}
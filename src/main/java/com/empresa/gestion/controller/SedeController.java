@@ -1,16 +1,30 @@
 package com.empresa.gestion.controller;
 
+import com.empresa.gestion.campos.SeleccionCampos;
+import com.empresa.gestion.campos.SelectorCampos;
+import com.empresa.gestion.dto.EstadisticasUbicacionDTO;
 import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.ejecucion.EjecutorPeticiones;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos;
+import com.empresa.gestion.paginacion.PaginacionProperties;
+import com.empresa.gestion.paginacion.SolicitudPagina;
 import com.empresa.gestion.service.SedeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Controlador REST para gestión de Sedes
@@ -18,14 +32,27 @@ import java.util.List;
  * ENDPOINTS CRUD:
  * - GET    /api/sedes             -> Listar todas
  * - GET    /api/sedes/{id}        -> Obtener una por ID
+ * - GET    /api/sedes?empresaIds= -> Sedes de varias empresas
+ * - GET    /api/sedes/estadisticas -> Sedes y capacidad por provincia/ciudad
  * - POST   /api/sedes             -> Crear nueva
  * - PUT    /api/sedes/{id}        -> Actualizar existente
  * - DELETE /api/sedes/{id}        -> Eliminar
  * 
+ * PAGINACIÓN:
+ * - Los listados aceptan after (cursor opaco) y limit (con tope en el servidor)
+ * 
+ * EJECUCIÓN:
+ * - Los handlers devuelven DeferredResult y delegan en EjecutorPeticiones
+ * 
+ * VERSIONES (ver Precondiciones):
+ * - GET por ID, sede principal y listados devuelven ETag; con If-None-Match coincidente, 304
+ * - PUT/DELETE aceptan If-Match: 412 si la sede ha cambiado
+ * 
  * JAVA 8 + SPRING BOOT 2.7:
  * - javax.validation.* (Bean Validation estándar)
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/sedes")
 @Validated
 public class SedeController {
@@ -33,33 +60,136 @@ public class SedeController {
     private static final Logger logger = LoggerFactory.getLogger(SedeController.class);
 
     private final SedeService sedeService;
+    private final PaginacionProperties paginacion;
+    private final EjecutorPeticiones ejecutor;
+    private final SelectorCampos selectorCampos;
 
-    public SedeController(SedeService sedeService) {
+    public SedeController(SedeService sedeService,
+                          PaginacionProperties paginacion,
+                          EjecutorPeticiones ejecutor,
+                          SelectorCampos selectorCampos) {
         this.sedeService = sedeService;
+        this.paginacion = paginacion;
+        this.ejecutor = ejecutor;
+        this.selectorCampos = selectorCampos;
     }
 
     /**
      * Listar todas las sedes
-     * GET /api/sedes
+     * GET /api/sedes?after=...&limit=...&fields=...
+     * 
+     * Paginado por cursor: la siguiente página se indica en las cabeceras Link / X-Next-Cursor
+     * Campos: ?fields=id,nombre,ciudad reduce columnas leídas y JSON
      */
     @GetMapping
-    public ResponseEntity<List<SedeDTO>> listarTodas() {
-        logger.info("GET /api/sedes - Listar todas las sedes");
-        List<SedeDTO> sedes = sedeService.obtenerTodas();
-        return ResponseEntity.ok(sedes);
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> listarTodas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes - Listar todas las sedes");
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(sedeService.obtenerTodas(pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al listar sedes: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Obtener las sedes de varias empresas
+     * GET /api/sedes?empresaIds=1,2,3&fields=...
+     * 
+     * Una única consulta IN en lugar de un GET por empresa: sin paginar, agrupadas
+     * por empresa en el orden pedido, como máximo app.paginacion.limite-maximo empresas
+     */
+    @GetMapping(params = "empresaIds")
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> listarPorEmpresas(
+            @RequestParam List<Long> empresaIds,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes?empresaIds - Listar sedes de {} empresas", empresaIds.size());
+
+        SeleccionCampos campos;
+        List<Long> claves;
+        try {
+            campos = selectorCampos.sedes(fields);
+            claves = ConsultaMultiple.claves(empresaIds, paginacion.getLimiteMaximo());
+        } catch (IllegalArgumentException e) {
+            logger.error("Consulta por empresas no válida: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.listado(() ->
+                ConsultaMultiple.ok(sedeService.obtenerPorEmpresas(claves, campos), ifNoneMatch));
+    }
+
+    /**
+     * Estadísticas geográficas de sedes
+     * GET /api/sedes/estadisticas?agrupar=provincia|ciudad&empresaId=...&esPrincipal=true|false
+     * 
+     * Número de sedes y capacidad total por provincia (por defecto) o ciudad,
+     * desde agregados en memoria mantenidos en cada escritura
+     */
+    @GetMapping("/estadisticas")
+    public DeferredResult<ResponseEntity<List<EstadisticasUbicacionDTO>>> estadisticasPorUbicacion(
+            @RequestParam(defaultValue = "provincia") String agrupar,
+            @RequestParam(required = false) Long empresaId,
+            @RequestParam(required = false) Boolean esPrincipal) {
+
+        logger.debug("GET /api/sedes/estadisticas?agrupar={}", agrupar);
+
+        AgregadosGeograficos.Nivel nivel;
+        try {
+            nivel = AgregadosGeograficos.Nivel.valueOf(agrupar.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro agrupar no válido: {}", agrupar);
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.lecturaPuntual(() ->
+                ResponseEntity.ok(sedeService.estadisticasPorUbicacion(nivel, empresaId, esPrincipal)));
     }
 
     /**
      * Obtener una sede por ID
      * GET /api/sedes/{id}
+     * 
+     * Con If-None-Match coincidente: 304 leyendo solo la versión
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SedeDTO> obtenerPorId(@PathVariable Long id) {
-        logger.info("GET /api/sedes/{} - Obtener sede", id);
+    public DeferredResult<ResponseEntity<SedeDTO>> obtenerPorId(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /api/sedes/{} - Obtener sede", id);
         
-        return sedeService.obtenerPorId(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        // Respuesta cacheada completa: fields solo recorta el JSON
+        try {
+            selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        return ejecutor.lecturaPuntual(() -> Precondiciones.lectura(ifNoneMatch,
+                () -> sedeService.obtenerVersion(id),
+                () -> sedeService.obtenerPorId(id)));
     }
 
     /**
@@ -67,53 +197,77 @@ public class SedeController {
      * POST /api/sedes
      */
     @PostMapping
-    public ResponseEntity<SedeDTO> crear(@Valid @RequestBody SedeDTO sedeDTO) {
-        logger.info("POST /api/sedes - Crear sede: {}", sedeDTO.getNombre());
+    public DeferredResult<ResponseEntity<SedeDTO>> crear(@Valid @RequestBody SedeDTO sedeDTO) {
+        logger.debug("POST /api/sedes - Crear sede: {}", sedeDTO.getNombre());
         
-        try {
-            SedeDTO sedeCreada = sedeService.crear(sedeDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(sedeCreada);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al crear sede: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+        return ejecutor.escritura(() -> {
+            try {
+                SedeDTO sedeCreada = sedeService.crear(sedeDTO);
+                return Precondiciones.respuesta(HttpStatus.CREATED, sedeCreada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al crear sede: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al crear sede: {}", e.getMessage());
+                return Precondiciones.conflicto(null);
+            }
+        });
     }
 
     /**
      * Actualizar una sede existente
      * PUT /api/sedes/{id}
+     * 
+     * If-Match: ETag obtenido en el GET; 412 si la sede ha cambiado desde entonces
      */
     @PutMapping("/{id}")
-    public ResponseEntity<SedeDTO> actualizar(
+    public DeferredResult<ResponseEntity<SedeDTO>> actualizar(
             @PathVariable Long id,
-            @Valid @RequestBody SedeDTO sedeDTO) {
+            @Valid @RequestBody SedeDTO sedeDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
-        logger.info("PUT /api/sedes/{} - Actualizar sede", id);
+        logger.debug("PUT /api/sedes/{} - Actualizar sede", id);
         
-        try {
-            SedeDTO sedeActualizada = sedeService.actualizar(id, sedeDTO);
-            return ResponseEntity.ok(sedeActualizada);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al actualizar sede: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+        Long versionEsperada = Precondiciones.versionEsperada(ifMatch);
+        return ejecutor.escritura(() -> {
+            try {
+                SedeDTO sedeActualizada = sedeService.actualizar(id, sedeDTO, versionEsperada);
+                return Precondiciones.respuesta(HttpStatus.OK, sedeActualizada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al actualizar sede: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al actualizar sede {}: {}", id, e.getMessage());
+                return Precondiciones.conflicto(ifMatch);
+            }
+        });
     }
 
     /**
      * Eliminar una sede
      * DELETE /api/sedes/{id}
+     * 
+     * If-Match: ETag obtenido en el GET; 412 si la sede ha cambiado desde entonces
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> eliminar(@PathVariable Long id) {
-        logger.info("DELETE /api/sedes/{} - Eliminar sede", id);
+    public DeferredResult<ResponseEntity<Void>> eliminar(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("DELETE /api/sedes/{} - Eliminar sede", id);
         
-        try {
-            sedeService.eliminar(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            logger.error("Error al eliminar sede: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+        Long versionEsperada = Precondiciones.versionEsperada(ifMatch);
+        return ejecutor.escritura(() -> {
+            try {
+                sedeService.eliminar(id, versionEsperada);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al eliminar sede: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Conflicto de versión al eliminar sede {}: {}", id, e.getMessage());
+                return Precondiciones.conflicto(ifMatch);
+            }
+        });
     }
 
     /**
@@ -121,10 +275,33 @@ public class SedeController {
      * GET /api/sedes/empresa/{empresaId}
      */
     @GetMapping("/empresa/{empresaId}")
-    public ResponseEntity<List<SedeDTO>> listarPorEmpresa(@PathVariable Long empresaId) {
-        logger.info("GET /api/sedes/empresa/{} - Listar sedes de empresa", empresaId);
-        List<SedeDTO> sedes = sedeService.obtenerPorEmpresa(empresaId);
-        return ResponseEntity.ok(sedes);
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> listarPorEmpresa(
+            @PathVariable Long empresaId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes/empresa/{} - Listar sedes de empresa", empresaId);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(sedeService.obtenerPorEmpresa(empresaId, pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al listar sedes de empresa: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -132,10 +309,33 @@ public class SedeController {
      * GET /api/sedes/ciudad/{ciudad}
      */
     @GetMapping("/ciudad/{ciudad}")
-    public ResponseEntity<List<SedeDTO>> buscarPorCiudad(@PathVariable String ciudad) {
-        logger.info("GET /api/sedes/ciudad/{} - Buscar por ciudad", ciudad);
-        List<SedeDTO> sedes = sedeService.buscarPorCiudad(ciudad);
-        return ResponseEntity.ok(sedes);
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> buscarPorCiudad(
+            @PathVariable String ciudad,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes/ciudad/{} - Buscar por ciudad", ciudad);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(sedeService.buscarPorCiudad(ciudad, pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al buscar sedes por ciudad: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -143,10 +343,33 @@ public class SedeController {
      * GET /api/sedes/provincia/{provincia}
      */
     @GetMapping("/provincia/{provincia}")
-    public ResponseEntity<List<SedeDTO>> buscarPorProvincia(@PathVariable String provincia) {
-        logger.info("GET /api/sedes/provincia/{} - Buscar por provincia", provincia);
-        List<SedeDTO> sedes = sedeService.buscarPorProvincia(provincia);
-        return ResponseEntity.ok(sedes);
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> buscarPorProvincia(
+            @PathVariable String provincia,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes/provincia/{} - Buscar por provincia", provincia);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(sedeService.buscarPorProvincia(provincia, pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al buscar sedes por provincia: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -154,12 +377,24 @@ public class SedeController {
      * GET /api/sedes/empresa/{empresaId}/principal
      */
     @GetMapping("/empresa/{empresaId}/principal")
-    public ResponseEntity<SedeDTO> obtenerSedePrincipal(@PathVariable Long empresaId) {
-        logger.info("GET /api/sedes/empresa/{}/principal - Obtener sede principal", empresaId);
+    public DeferredResult<ResponseEntity<SedeDTO>> obtenerSedePrincipal(
+            @PathVariable Long empresaId,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /api/sedes/empresa/{}/principal - Obtener sede principal", empresaId);
         
-        return sedeService.obtenerSedePrincipal(empresaId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        // Respuesta cacheada completa: fields solo recorta el JSON
+        try {
+            selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        // Lectura cacheada: la versión sale del propio DTO
+        return ejecutor.lecturaPuntual(() -> Precondiciones.lectura(ifNoneMatch,
+                () -> sedeService.obtenerSedePrincipal(empresaId).map(SedeDTO::getVersion),
+                () -> sedeService.obtenerSedePrincipal(empresaId)));
     }
 
     /**
@@ -167,10 +402,33 @@ public class SedeController {
      * GET /api/sedes/buscar?texto=...
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<SedeDTO>> buscarPorNombre(@RequestParam String texto) {
-        logger.info("GET /api/sedes/buscar?texto={}", texto);
-        List<SedeDTO> sedes = sedeService.buscarPorNombre(texto);
-        return ResponseEntity.ok(sedes);
+    public DeferredResult<ResponseEntity<List<SedeDTO>>> buscarPorNombre(
+            @RequestParam String texto,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        logger.debug("GET /api/sedes/buscar?texto={}", texto);
+
+        SeleccionCampos campos;
+        try {
+            campos = selectorCampos.sedes(fields);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parámetro fields no válido: {}", e.getMessage());
+            return ejecutor.inmediato(ResponseEntity.badRequest().build());
+        }
+
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        return ejecutor.listado(() -> {
+            try {
+                SolicitudPagina pagina = SolicitudPagina.de(after, limit, paginacion);
+                return RespuestaPaginada.ok(sedeService.buscarPorNombre(texto, pagina, campos), uri, ifNoneMatch);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al buscar sedes por nombre: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -178,10 +436,12 @@ public class SedeController {
      * GET /api/sedes/empresa/{empresaId}/count
      */
     @GetMapping("/empresa/{empresaId}/count")
-    public ResponseEntity<Long> contarSedesPorEmpresa(@PathVariable Long empresaId) {
-        logger.info("GET /api/sedes/empresa/{}/count", empresaId);
-        long count = sedeService.contarSedesPorEmpresa(empresaId);
-        return ResponseEntity.ok(count);
+    public DeferredResult<ResponseEntity<Long>> contarSedesPorEmpresa(@PathVariable Long empresaId) {
+        logger.debug("GET /api/sedes/empresa/{}/count", empresaId);
+        return ejecutor.lecturaPuntual(() -> {
+            long count = sedeService.contarSedesPorEmpresa(empresaId);
+            return ResponseEntity.ok(count);
+        });
     }
 }
 
@@ -1,5 +1,7 @@
 package com.empresa.gestion.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -14,10 +16,14 @@ import java.util.List;
  * - Clase tradicional con getters/setters
  * - javax.validation.constraints.* (Bean Validation estándar)
  */
-public class EmpresaDTO {
+public class EmpresaDTO implements Versionado {
 
     private Long id;
 
+    // Versión del agregado (empresa + sedes): se publica como ETag, no en el JSON
+    @JsonIgnore
+    private Long version;
+
     @NotBlank(message = "La razón social es obligatoria")
     @Size(max = 200, message = "La razón social no puede superar 200 caracteres")
     private String razonSocial;
@@ -56,6 +62,26 @@ public class EmpresaDTO {
         this.cif = cif;
     }
 
+    /**
+     * Constructor completo (sin sedes) para proyecciones JPQL
+     * SELECT new com.empresa.gestion.dto.EmpresaDTO(...), ver EmpresaRepository
+     */
+    public EmpresaDTO(Long id, String razonSocial, String cif, String email, String telefono,
+                      String sector, LocalDate fechaAlta, Boolean activo,
+                      Double facturacionAnual, Integer numeroEmpleados, Long version) {
+        this.id = id;
+        this.razonSocial = razonSocial;
+        this.cif = cif;
+        this.email = email;
+        this.telefono = telefono;
+        this.sector = sector;
+        this.fechaAlta = fechaAlta;
+        this.activo = activo;
+        this.facturacionAnual = facturacionAnual;
+        this.numeroEmpleados = numeroEmpleados;
+        this.version = version;
+    }
+
     // Getters y Setters
     public Long getId() {
         return id;
@@ -65,6 +91,14 @@ public class EmpresaDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getRazonSocial() {
         return razonSocial;
     }
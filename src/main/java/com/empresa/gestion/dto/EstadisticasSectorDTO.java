@@ -0,0 +1,122 @@
+package com.empresa.gestion.dto;
+
+/**
+ * Agregados de un sector (GET /api/empresas/estadisticas/sectores)
+ * 
+ * - sector: valor normalizado (mayúsculas); null agrupa las empresas sin sector
+ * - Las métricas de facturación ignoran las empresas sin facturación informada
+ *   (null si ninguna la tiene)
+ */
+public class EstadisticasSectorDTO {
+
+    private String sector;
+
+    private long empresas;
+
+    private long empresasActivas;
+
+    private Double facturacionTotal;
+
+    private Double facturacionMedia;
+
+    private Double facturacionMinima;
+
+    private Double facturacionMaxima;
+
+    private long empleados;
+
+    private long sedes;
+
+    // Constructores
+    public EstadisticasSectorDTO() {
+    }
+
+    /**
+     * Constructor de la proyección GROUP BY de EmpresaRepository (las sedes se añaden después)
+     */
+    public EstadisticasSectorDTO(String sector, Long empresas, Long empresasActivas,
+                                 Double facturacionTotal, Double facturacionMedia,
+                                 Double facturacionMinima, Double facturacionMaxima, Long empleados) {
+        this.sector = sector;
+        this.empresas = empresas != null ? empresas : 0;
+        this.empresasActivas = empresasActivas != null ? empresasActivas : 0;
+        this.facturacionTotal = facturacionTotal;
+        this.facturacionMedia = facturacionMedia;
+        this.facturacionMinima = facturacionMinima;
+        this.facturacionMaxima = facturacionMaxima;
+        this.empleados = empleados != null ? empleados : 0;
+    }
+
+    // Getters y Setters
+    public String getSector() {
+        return sector;
+    }
+
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+
+    public long getEmpresas() {
+        return empresas;
+    }
+
+    public void setEmpresas(long empresas) {
+        this.empresas = empresas;
+    }
+
+    public long getEmpresasActivas() {
+        return empresasActivas;
+    }
+
+    public void setEmpresasActivas(long empresasActivas) {
+        this.empresasActivas = empresasActivas;
+    }
+
+    public Double getFacturacionTotal() {
+        return facturacionTotal;
+    }
+
+    public void setFacturacionTotal(Double facturacionTotal) {
+        this.facturacionTotal = facturacionTotal;
+    }
+
+    public Double getFacturacionMedia() {
+        return facturacionMedia;
+    }
+
+    public void setFacturacionMedia(Double facturacionMedia) {
+        this.facturacionMedia = facturacionMedia;
+    }
+
+    public Double getFacturacionMinima() {
+        return facturacionMinima;
+    }
+
+    public void setFacturacionMinima(Double facturacionMinima) {
+        this.facturacionMinima = facturacionMinima;
+    }
+
+    public Double getFacturacionMaxima() {
+        return facturacionMaxima;
+    }
+
+    public void setFacturacionMaxima(Double facturacionMaxima) {
+        this.facturacionMaxima = facturacionMaxima;
+    }
+
+    public long getEmpleados() {
+        return empleados;
+    }
+
+    public void setEmpleados(long empleados) {
+        this.empleados = empleados;
+    }
+
+    public long getSedes() {
+        return sedes;
+    }
+
+    public void setSedes(long sedes) {
+        this.sedes = sedes;
+    }
+}
@@ -0,0 +1,62 @@
+package com.empresa.gestion.dto;
+
+/**
+ * Agregado de sedes de una provincia o ciudad (GET /api/sedes/estadisticas)
+ * 
+ * - provincia / ciudad: valores normalizados (mayúsculas); ciudad es null al agrupar por provincia
+ * - capacidadTotal: suma de capacidadAlmacenamiento (m²), sin contar las sedes que no la informan
+ */
+public class EstadisticasUbicacionDTO {
+
+    private String provincia;
+
+    private String ciudad;
+
+    private long sedes;
+
+    private double capacidadTotal;
+
+    // Constructores
+    public EstadisticasUbicacionDTO() {
+    }
+
+    public EstadisticasUbicacionDTO(String provincia, String ciudad, long sedes, double capacidadTotal) {
+        this.provincia = provincia;
+        this.ciudad = ciudad;
+        this.sedes = sedes;
+        this.capacidadTotal = capacidadTotal;
+    }
+
+    // Getters y Setters
+    public String getProvincia() {
+        return provincia;
+    }
+
+    public void setProvincia(String provincia) {
+        this.provincia = provincia;
+    }
+
+    public String getCiudad() {
+        return ciudad;
+    }
+
+    public void setCiudad(String ciudad) {
+        this.ciudad = ciudad;
+    }
+
+    public long getSedes() {
+        return sedes;
+    }
+
+    public void setSedes(long sedes) {
+        this.sedes = sedes;
+    }
+
+    public double getCapacidadTotal() {
+        return capacidadTotal;
+    }
+
+    public void setCapacidadTotal(double capacidadTotal) {
+        this.capacidadTotal = capacidadTotal;
+    }
+}
@@ -0,0 +1,71 @@
+package com.empresa.gestion.dto;
+
+import com.empresa.gestion.paginacion.CursorCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados con cursor a la página siguiente
+ * 
+ * El contenido se serializa como cuerpo de la respuesta y el cursor
+ * se publica en las cabeceras Link / X-Next-Cursor.
+ */
+public class PaginaDTO<T> {
+
+    private List<T> contenido = new ArrayList<>();
+
+    private String siguienteCursor;
+
+    private int limite;
+
+    // Constructores
+    public PaginaDTO() {
+    }
+
+    public PaginaDTO(List<T> contenido, String siguienteCursor, int limite) {
+        this.contenido = contenido;
+        this.siguienteCursor = siguienteCursor;
+        this.limite = limite;
+    }
+
+    /**
+     * Construye la página a partir de las filas leídas (limite + 1 como máximo).
+     * Si hay una fila extra existe página siguiente y se descarta.
+     */
+    public static <T> PaginaDTO<T> de(List<T> filas, int limite, Function<T, Long> obtenerId) {
+        if (filas.size() <= limite) {
+            return new PaginaDTO<>(filas, null, limite);
+        }
+
+        List<T> contenido = new ArrayList<>(filas.subList(0, limite));
+        Long ultimoId = obtenerId.apply(contenido.get(contenido.size() - 1));
+        return new PaginaDTO<>(contenido, CursorCodec.codificar(ultimoId), limite);
+    }
+
+    // Getters y Setters
+    public List<T> getContenido() {
+        return contenido;
+    }
+
+    public void setContenido(List<T> contenido) {
+        this.contenido = contenido;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+}
@@ -0,0 +1,92 @@
+package com.empresa.gestion.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de empresas con sus sedes
+ */
+public class ResultadoImportacionDTO {
+
+    private int total;
+
+    private int creadas;
+
+    private int rechazadas;
+
+    private int errores;
+
+    private int sedesCreadas;
+
+    private long duracionMs;
+
+    // Filas insertadas (empresas + sedes) por segundo
+    private double filasPorSegundo;
+
+    private List<ResultadoRegistroDTO> resultados = new ArrayList<>();
+
+    // Getters y Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreadas() {
+        return creadas;
+    }
+
+    public void setCreadas(int creadas) {
+        this.creadas = creadas;
+    }
+
+    public int getRechazadas() {
+        return rechazadas;
+    }
+
+    public void setRechazadas(int rechazadas) {
+        this.rechazadas = rechazadas;
+    }
+
+    public int getErrores() {
+        return errores;
+    }
+
+    public void setErrores(int errores) {
+        this.errores = errores;
+    }
+
+    public int getSedesCreadas() {
+        return sedesCreadas;
+    }
+
+    public void setSedesCreadas(int sedesCreadas) {
+        this.sedesCreadas = sedesCreadas;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    public double getFilasPorSegundo() {
+        return filasPorSegundo;
+    }
+
+    public void setFilasPorSegundo(double filasPorSegundo) {
+        this.filasPorSegundo = filasPorSegundo;
+    }
+
+    public List<ResultadoRegistroDTO> getResultados() {
+        return resultados;
+    }
+
+    public void setResultados(List<ResultadoRegistroDTO> resultados) {
+        this.resultados = resultados;
+    }
+}
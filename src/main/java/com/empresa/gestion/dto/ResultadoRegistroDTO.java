@@ -0,0 +1,83 @@
+package com.empresa.gestion.dto;
+
+/**
+ * Resultado de un registro dentro de una importación o sincronización masiva
+ */
+public class ResultadoRegistroDTO {
+
+    /**
+     * Estado final del registro
+     */
+    public enum Estado {
+        CREADA,
+        /** Sincronización: la empresa existía y se ha sobrescrito */
+        ACTUALIZADA,
+        /** Sincronización: la empresa ya tenía esos datos, no se ha escrito */
+        SIN_CAMBIOS,
+        RECHAZADA,
+        ERROR
+    }
+
+    private int indice;
+
+    private String cif;
+
+    private Estado estado;
+
+    private Long id;
+
+    private String mensaje;
+
+    // Constructores
+    public ResultadoRegistroDTO() {
+    }
+
+    public ResultadoRegistroDTO(int indice, String cif, Estado estado, Long id, String mensaje) {
+        this.indice = indice;
+        this.cif = cif;
+        this.estado = estado;
+        this.id = id;
+        this.mensaje = mensaje;
+    }
+
+    // Getters y Setters
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getCif() {
+        return cif;
+    }
+
+    public void setCif(String cif) {
+        this.cif = cif;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
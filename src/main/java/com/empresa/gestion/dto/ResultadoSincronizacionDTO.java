@@ -0,0 +1,91 @@
+package com.empresa.gestion.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una sincronización masiva de empresas por CIF
+ */
+public class ResultadoSincronizacionDTO {
+
+    private int total;
+
+    private int creadas;
+
+    private int actualizadas;
+
+    private int sinCambios;
+
+    private int rechazadas;
+
+    private int errores;
+
+    private long duracionMs;
+
+    private List<ResultadoRegistroDTO> resultados = new ArrayList<>();
+
+    // Getters y Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreadas() {
+        return creadas;
+    }
+
+    public void setCreadas(int creadas) {
+        this.creadas = creadas;
+    }
+
+    public int getActualizadas() {
+        return actualizadas;
+    }
+
+    public void setActualizadas(int actualizadas) {
+        this.actualizadas = actualizadas;
+    }
+
+    public int getSinCambios() {
+        return sinCambios;
+    }
+
+    public void setSinCambios(int sinCambios) {
+        this.sinCambios = sinCambios;
+    }
+
+    public int getRechazadas() {
+        return rechazadas;
+    }
+
+    public void setRechazadas(int rechazadas) {
+        this.rechazadas = rechazadas;
+    }
+
+    public int getErrores() {
+        return errores;
+    }
+
+    public void setErrores(int errores) {
+        this.errores = errores;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    public List<ResultadoRegistroDTO> getResultados() {
+        return resultados;
+    }
+
+    public void setResultados(List<ResultadoRegistroDTO> resultados) {
+        this.resultados = resultados;
+    }
+}
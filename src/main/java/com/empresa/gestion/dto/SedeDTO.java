@@ -1,5 +1,7 @@
 package com.empresa.gestion.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -12,10 +14,14 @@ import javax.validation.constraints.Size;
  * - Clase con getters/setters
  * - javax.validation.constraints.* (Bean Validation estándar)
  */
-public class SedeDTO {
+public class SedeDTO implements Versionado {
 
     private Long id;
 
+    // Se publica como ETag, no en el JSON
+    @JsonIgnore
+    private Long version;
+
     @NotBlank(message = "El nombre de la sede es obligatorio")
     @Size(max = 150)
     private String nombre;
@@ -64,6 +70,30 @@ public class SedeDTO {
         this.ciudad = ciudad;
     }
 
+    /**
+     * Constructor completo para proyecciones JPQL
+     * SELECT new com.empresa.gestion.dto.SedeDTO(...), ver SedeRepository
+     */
+    public SedeDTO(Long id, String nombre, String direccion, String ciudad, String provincia,
+                   String codigoPostal, String pais, String telefono, String email,
+                   Boolean esPrincipal, Double capacidadAlmacenamiento, String horarioRecepcion,
+                   Long empresaId, Long version) {
+        this.id = id;
+        this.nombre = nombre;
+        this.direccion = direccion;
+        this.ciudad = ciudad;
+        this.provincia = provincia;
+        this.codigoPostal = codigoPostal;
+        this.pais = pais;
+        this.telefono = telefono;
+        this.email = email;
+        this.esPrincipal = esPrincipal;
+        this.capacidadAlmacenamiento = capacidadAlmacenamiento;
+        this.horarioRecepcion = horarioRecepcion;
+        this.empresaId = empresaId;
+        this.version = version;
+    }
+
     // Getters y Setters
     public Long getId() {
         return id;
@@ -73,6 +103,14 @@ public class SedeDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNombre() {
         return nombre;
     }
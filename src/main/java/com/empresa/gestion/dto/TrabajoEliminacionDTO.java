@@ -0,0 +1,86 @@
+package com.empresa.gestion.dto;
+
+/**
+ * Estado de una eliminación por lotes de una empresa (GET /api/empresas/eliminaciones/{id})
+ * 
+ * - sedesEliminadas / lotes: progreso hasta el momento de la consulta
+ * - mensaje: motivo del fallo (o aviso si la empresa ya no existía)
+ * - duracionMs: desde que el trabajo empezó a ejecutarse; 0 mientras está PENDIENTE
+ */
+public class TrabajoEliminacionDTO {
+
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETADO, FALLIDO
+    }
+
+    private String id;
+
+    private Long empresaId;
+
+    private Estado estado;
+
+    private long sedesEliminadas;
+
+    private int lotes;
+
+    private String mensaje;
+
+    private long duracionMs;
+
+    // Getters y Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getEmpresaId() {
+        return empresaId;
+    }
+
+    public void setEmpresaId(Long empresaId) {
+        this.empresaId = empresaId;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    public long getSedesEliminadas() {
+        return sedesEliminadas;
+    }
+
+    public void setSedesEliminadas(long sedesEliminadas) {
+        this.sedesEliminadas = sedesEliminadas;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public void setLotes(int lotes) {
+        this.lotes = lotes;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+}
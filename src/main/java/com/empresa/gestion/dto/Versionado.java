@@ -0,0 +1,13 @@
+package com.empresa.gestion.dto;
+
+/**
+ * DTO con identificador y versión (@Version de la entidad)
+ * 
+ * La versión no se serializa: se publica como ETag de la respuesta.
+ */
+public interface Versionado {
+
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,95 @@
+package com.empresa.gestion.ejecucion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de la ejecución de los controladores (app.ejecucion.*)
+ * 
+ * - asincrona: si es false, los handlers se ejecutan en el hilo del servidor
+ * - timeout-ms: tiempo máximo de espera de una petición (cola + ejecución) antes de responder 503
+ * - lecturas-puntuales / listados / escrituras: hilos y capacidad de cola de cada pool
+ */
+@Component
+@ConfigurationProperties(prefix = "app.ejecucion")
+public class EjecucionProperties {
+
+    private boolean asincrona = false;
+    private long timeoutMs = 10_000;
+    private Pool lecturasPuntuales = new Pool(16, 200);
+    private Pool listados = new Pool(8, 32);
+    private Pool escrituras = new Pool(8, 64);
+
+    public boolean isAsincrona() {
+        return asincrona;
+    }
+
+    public void setAsincrona(boolean asincrona) {
+        this.asincrona = asincrona;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public Pool getLecturasPuntuales() {
+        return lecturasPuntuales;
+    }
+
+    public void setLecturasPuntuales(Pool lecturasPuntuales) {
+        this.lecturasPuntuales = lecturasPuntuales;
+    }
+
+    public Pool getListados() {
+        return listados;
+    }
+
+    public void setListados(Pool listados) {
+        this.listados = listados;
+    }
+
+    public Pool getEscrituras() {
+        return escrituras;
+    }
+
+    public void setEscrituras(Pool escrituras) {
+        this.escrituras = escrituras;
+    }
+
+    /**
+     * Tamaño de un pool: hilos fijos y cola acotada (al llenarse se rechaza con 503)
+     */
+    public static class Pool {
+
+        private int hilos;
+        private int cola;
+
+        public Pool() {
+        }
+
+        public Pool(int hilos, int cola) {
+            this.hilos = hilos;
+            this.cola = cola;
+        }
+
+        public int getHilos() {
+            return hilos;
+        }
+
+        public void setHilos(int hilos) {
+            this.hilos = hilos;
+        }
+
+        public int getCola() {
+            return cola;
+        }
+
+        public void setCola(int cola) {
+            this.cola = cola;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.empresa.gestion.ejecucion;
+
+import com.empresa.gestion.metricas.ContadorConsultas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta el trabajo de los controladores en pools acotados por tipo de operación
+ * 
+ * - Lecturas puntuales, listados/búsquedas y escrituras tienen hilos y cola propios:
+ *   una ráfaga de listados lentos no bloquea las consultas por ID
+ * - Cola llena: 503 inmediato con Retry-After
+ * - Sin respuesta en app.ejecucion.timeout-ms (cola + ejecución):
+ *   - Tarea aún en cola: se descarta (no llegará a ejecutarse) y se responde 503
+ *     con Retry-After, en cualquier pool
+ *   - Lectura ya empezada: 503 con Retry-After; repetirla es inocuo
+ *   - Escritura ya empezada: termina igualmente y se responde 504 sin Retry-After,
+ *     porque su resultado es desconocido para el cliente y reintentarla a ciegas
+ *     podría aplicarla dos veces
+ * - Métricas por pool: executor.* (hilos activos, cola, completadas) y
+ *   gestion.ejecucion.espera / rechazadas / timeouts
+ * 
+ * Con app.ejecucion.asincrona=false el trabajo se ejecuta en el hilo del servidor
+ * (el DeferredResult se devuelve ya resuelto).
+ */
+@Component
+public class EjecutorPeticiones implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EjecutorPeticiones.class);
+
+    private static final String RETRY_AFTER_SEGUNDOS = "1";
+
+    enum TipoOperacion {
+        LECTURAS_PUNTUALES("lecturas-puntuales"),
+        LISTADOS("listados"),
+        ESCRITURAS("escrituras");
+
+        private final String nombre;
+
+        TipoOperacion(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    private final EjecucionProperties properties;
+    private final Map<TipoOperacion, Pool> pools = new EnumMap<>(TipoOperacion.class);
+
+    public EjecutorPeticiones(EjecucionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        if (properties.isAsincrona()) {
+            crearPool(TipoOperacion.LECTURAS_PUNTUALES, properties.getLecturasPuntuales(), registry);
+            crearPool(TipoOperacion.LISTADOS, properties.getListados(), registry);
+            crearPool(TipoOperacion.ESCRITURAS, properties.getEscrituras(), registry);
+            logger.info("Ejecución asíncrona de controladores habilitada (timeout {} ms)",
+                    properties.getTimeoutMs());
+        }
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> lecturaPuntual(Supplier<ResponseEntity<T>> tarea) {
+        return ejecutar(TipoOperacion.LECTURAS_PUNTUALES, tarea);
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> listado(Supplier<ResponseEntity<T>> tarea) {
+        return ejecutar(TipoOperacion.LISTADOS, tarea);
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> escritura(Supplier<ResponseEntity<T>> tarea) {
+        return ejecutar(TipoOperacion.ESCRITURAS, tarea);
+    }
+
+    /**
+     * Resultado ya resuelto, sin pasar por los pools (p.ej. parámetros no válidos)
+     */
+    public <T> DeferredResult<ResponseEntity<T>> inmediato(ResponseEntity<T> respuesta) {
+        DeferredResult<ResponseEntity<T>> resultado = new DeferredResult<>();
+        resultado.setResult(respuesta);
+        return resultado;
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> ejecutar(TipoOperacion tipo, Supplier<ResponseEntity<T>> tarea) {
+        if (!properties.isAsincrona()) {
+            DeferredResult<ResponseEntity<T>> resultado = new DeferredResult<>();
+            completar(resultado, tarea);
+            return resultado;
+        }
+
+        Pool pool = pools.get(tipo);
+        // La tarea y el timeout compiten por ella: quien llega primero decide si se ejecuta
+        AtomicBoolean tomada = new AtomicBoolean();
+        DeferredResult<ResponseEntity<T>> resultado =
+                new DeferredResult<>(properties.getTimeoutMs(), () -> respuestaTimeout(tipo, tomada));
+        resultado.onTimeout(() -> {
+            pool.timeouts.increment();
+            logger.warn("Timeout de {} ms en el pool {}", properties.getTimeoutMs(), tipo.nombre);
+        });
+
+        // La cuenta de consultas SQL de la petición sigue al trabajo al pool
+        AtomicInteger consultas = ContadorConsultas.actual();
+        long encolada = System.nanoTime();
+        try {
+            pool.ejecutor.execute(() -> {
+                pool.espera.record(System.nanoTime() - encolada, TimeUnit.NANOSECONDS);
+                if (!tomada.compareAndSet(false, true)) {
+                    return;
+                }
+                ContadorConsultas.asociar(consultas);
+                try {
+                    completar(resultado, tarea);
+                } finally {
+                    ContadorConsultas.detener();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pool.rechazadas.increment();
+            logger.warn("Cola llena en el pool {}: petición rechazada", tipo.nombre);
+            resultado.setResult(servicioNoDisponible());
+        }
+        return resultado;
+    }
+
+    private static <T> void completar(DeferredResult<ResponseEntity<T>> resultado,
+                                      Supplier<ResponseEntity<T>> tarea) {
+        try {
+            resultado.setResult(tarea.get());
+        } catch (RuntimeException e) {
+            // Se propaga a la resolución de excepciones de Spring MVC
+            resultado.setErrorResult(e);
+        }
+    }
+
+    private static <T> ResponseEntity<T> servicioNoDisponible() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS)
+                .build();
+    }
+
+    /**
+     * Respuesta al agotar el timeout: 503 si la tarea seguía en cola (queda descartada)
+     * o es una lectura; 504 si es una escritura que ya está en curso
+     */
+    private static <T> ResponseEntity<T> respuestaTimeout(TipoOperacion tipo, AtomicBoolean tomada) {
+        boolean enCola = tomada.compareAndSet(false, true);
+        if (enCola || tipo != TipoOperacion.ESCRITURAS) {
+            return servicioNoDisponible();
+        }
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+
+    private void crearPool(TipoOperacion tipo, EjecucionProperties.Pool configuracion, MeterRegistry registry) {
+        ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(configuracion.getHilos());
+        ejecutor.setMaxPoolSize(configuracion.getHilos());
+        ejecutor.setQueueCapacity(configuracion.getCola());
+        ejecutor.setThreadNamePrefix(tipo.nombre + "-");
+        ejecutor.initialize();
+
+        new ExecutorServiceMetrics(ejecutor.getThreadPoolExecutor(), tipo.nombre, Tags.empty()).bindTo(registry);
+
+        Pool pool = new Pool(ejecutor,
+                Timer.builder("gestion.ejecucion.espera")
+                        .description("Tiempo en cola antes de ejecutar el handler")
+                        .tag("pool", tipo.nombre)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                Counter.builder("gestion.ejecucion.rechazadas")
+                        .description("Peticiones rechazadas con 503 por cola llena")
+                        .tag("pool", tipo.nombre)
+                        .register(registry),
+                Counter.builder("gestion.ejecucion.timeouts")
+                        .description("Peticiones respondidas con 503/504 por timeout")
+                        .tag("pool", tipo.nombre)
+                        .register(registry));
+        pools.put(tipo, pool);
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> pool.ejecutor.shutdown());
+    }
+
+    /**
+     * Pool de hilos de un tipo de operación con sus métricas
+     */
+    private static final class Pool {
+
+        final ThreadPoolTaskExecutor ejecutor;
+        final Timer espera;
+        final Counter rechazadas;
+        final Counter timeouts;
+
+        Pool(ThreadPoolTaskExecutor ejecutor, Timer espera, Counter rechazadas, Counter timeouts) {
+            this.ejecutor = ejecutor;
+            this.espera = espera;
+            this.rechazadas = rechazadas;
+            this.timeouts = timeouts;
+        }
+    }
+}
@@ -18,8 +18,12 @@ import java.util.Objects;
 @Table(name = "empresas")
 public class Empresa {
 
+    // Secuencia con optimizador pooled (allocationSize > 1): Hibernate reserva bloques
+    // de IDs y puede agrupar los INSERT en lotes JDBC (IDENTITY lo impide).
+    // initialValue deja hueco para los IDs explícitos de los datos de ejemplo.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empresasSeq")
+    @SequenceGenerator(name = "empresasSeq", sequenceName = "empresas_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(name = "razon_social", nullable = false, length = 200)
@@ -49,6 +53,15 @@ public class Empresa {
     @Column(name = "numero_empleados")
     private Integer numeroEmpleados;
 
+    // Columna calculada en BD (UPPER(sector)), indexada; solo lectura
+    @Column(name = "sector_normalizado", insertable = false, updatable = false, length = 100)
+    private String sectorNormalizado;
+
+    // Bloqueo optimista; también se incrementa con cada cambio en sus sedes (ver SedeService)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Relación 1-N: Una empresa puede tener múltiples sedes
     @OneToMany(mappedBy = "empresa", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Sede> sedes = new ArrayList<>();
@@ -157,6 +170,18 @@ public class Empresa {
         this.numeroEmpleados = numeroEmpleados;
     }
 
+    public String getSectorNormalizado() {
+        return sectorNormalizado;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Sede> getSedes() {
         return sedes;
     }
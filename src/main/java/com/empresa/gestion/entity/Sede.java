@@ -14,8 +14,10 @@ import java.util.Objects;
 @Table(name = "sedes")
 public class Sede {
 
+    // Misma estrategia que Empresa: secuencia pooled para permitir INSERT por lotes
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sedesSeq")
+    @SequenceGenerator(name = "sedesSeq", sequenceName = "sedes_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre", nullable = false, length = 150)
@@ -51,6 +53,18 @@ public class Sede {
     @Column(name = "horario_recepcion", length = 100)
     private String horarioRecepcion;
 
+    // Columnas calculadas en BD (UPPER(...)), indexadas; solo lectura
+    @Column(name = "ciudad_normalizada", insertable = false, updatable = false, length = 100)
+    private String ciudadNormalizada;
+
+    @Column(name = "provincia_normalizada", insertable = false, updatable = false, length = 100)
+    private String provinciaNormalizada;
+
+    // Bloqueo optimista
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Relación N-1: Muchas sedes pertenecen a una empresa
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "empresa_id", nullable = false)
@@ -166,6 +180,22 @@ public class Sede {
         this.horarioRecepcion = horarioRecepcion;
     }
 
+    public String getCiudadNormalizada() {
+        return ciudadNormalizada;
+    }
+
+    public String getProvinciaNormalizada() {
+        return provinciaNormalizada;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Empresa getEmpresa() {
         return empresa;
     }
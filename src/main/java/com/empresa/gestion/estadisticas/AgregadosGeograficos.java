@@ -0,0 +1,375 @@
+package com.empresa.gestion.estadisticas;
+
+import com.empresa.gestion.dto.EstadisticasUbicacionDTO;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Transacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregados en memoria de sedes por ubicación (provincia / ciudad)
+ * 
+ * - Una celda por (provincia, ciudad, principal) con número de sedes y capacidad total,
+ *   globales y por empresa: una consulta recorre las ubicaciones distintas, nunca las filas
+ * - Se inicializan desde la base de datos al arrancar (GROUP BY)
+ * - Los servicios los actualizan tras el commit de cada alta, cambio o baja de sede
+ * - La tarea de reconciliación (app.estadisticas.reconciliacion-ms) los compara con el
+ *   GROUP BY y aplica la desviación
+ * 
+ * Mientras no estén inicializados, las consultas se calculan con el GROUP BY.
+ */
+@Component
+public class AgregadosGeograficos {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgregadosGeograficos.class);
+
+    // Por debajo, la diferencia de capacidad es error de redondeo de las sumas
+    private static final double TOLERANCIA_CAPACIDAD = 1e-6;
+
+    /**
+     * Nivel de agrupación de la consulta
+     */
+    public enum Nivel {
+        PROVINCIA,
+        CIUDAD
+    }
+
+    private final Celdas celdas = new Celdas();
+
+    private final SedeRepository sedeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean listo = false;
+
+    public AgregadosGeograficos(SedeRepository sedeRepository, PlatformTransactionManager transactionManager) {
+        this.sedeRepository = sedeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Inicializar los agregados al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        int correcciones = reconciliar();
+        listo = true;
+        logger.info("Agregados geográficos inicializados ({} ubicaciones cargadas)", correcciones);
+    }
+
+    /**
+     * Comparar las celdas con la base de datos y corregir la desviación
+     * 
+     * Como en ContadoresEstadisticas, se aplica la diferencia para no perder
+     * actualizaciones concurrentes.
+     * 
+     * @return número de celdas corregidas
+     */
+    @Scheduled(initialDelayString = "${app.estadisticas.reconciliacion-ms:60000}",
+               fixedDelayString = "${app.estadisticas.reconciliacion-ms:60000}")
+    public int reconciliar() {
+        Celdas reales = leer();
+        int corregidas = 0;
+
+        for (Map.Entry<Long, ConcurrentMap<Ubicacion, Celda>> empresa : reales.porEmpresa.entrySet()) {
+            Map<Ubicacion, Celda> actuales = celdas.empresa(empresa.getKey());
+            for (Map.Entry<Ubicacion, Celda> entrada : empresa.getValue().entrySet()) {
+                Celda actual = actuales.get(entrada.getKey());
+                long sedes = entrada.getValue().sedes() - (actual != null ? actual.sedes() : 0);
+                double capacidad = entrada.getValue().capacidad() - (actual != null ? actual.capacidad() : 0);
+                if (sedes != 0 || Math.abs(capacidad) > TOLERANCIA_CAPACIDAD) {
+                    celdas.sumar(empresa.getKey(), entrada.getKey(), sedes, capacidad);
+                    corregidas++;
+                }
+            }
+        }
+
+        // Ubicaciones (o empresas) sin sedes en la base de datos que aún tienen valor
+        for (Map.Entry<Long, ConcurrentMap<Ubicacion, Celda>> empresa : celdas.porEmpresa.entrySet()) {
+            Map<Ubicacion, Celda> realesEmpresa = reales.empresa(empresa.getKey());
+            for (Map.Entry<Ubicacion, Celda> entrada : empresa.getValue().entrySet()) {
+                Celda actual = entrada.getValue();
+                if (!realesEmpresa.containsKey(entrada.getKey()) && !actual.vacia()) {
+                    celdas.sumar(empresa.getKey(), entrada.getKey(), -actual.sedes(), -actual.capacidad());
+                    corregidas++;
+                }
+            }
+        }
+        celdas.descartarVacias();
+
+        if (listo && corregidas > 0) {
+            logger.warn("Reconciliación de agregados geográficos: {} celdas corregidas", corregidas);
+        }
+        return corregidas;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // ========================================
+    // LECTURAS
+    // ========================================
+
+    /**
+     * Sedes y capacidad por provincia o ciudad, opcionalmente de una empresa
+     * y/o solo sedes principales (o no principales)
+     */
+    public List<EstadisticasUbicacionDTO> agrupar(Nivel nivel, Long empresaId, Boolean principal) {
+        Celdas origen = listo ? celdas : leer();
+        return origen.agrupar(nivel, empresaId, principal);
+    }
+
+    // ========================================
+    // ACTUALIZACIONES (aplicadas tras el commit)
+    // ========================================
+
+    public void sedeCreada(Sede sede) {
+        Aportacion nueva = Aportacion.de(sede);
+        Transacciones.despuesDelCommit(() -> nueva.sumar(celdas, 1));
+    }
+
+    /**
+     * Sede modificada: anterior se captura antes de aplicar los cambios a la entidad
+     */
+    public void sedeActualizada(Aportacion anterior, Sede sede) {
+        Aportacion nueva = Aportacion.de(sede);
+        if (nueva.equals(anterior)) {
+            return;
+        }
+        Transacciones.despuesDelCommit(() -> {
+            anterior.sumar(celdas, -1);
+            nueva.sumar(celdas, 1);
+        });
+    }
+
+    public void sedeEliminada(Sede sede) {
+        sedeEliminada(Aportacion.de(sede));
+    }
+
+    /**
+     * Sede eliminada sin cargar la entidad (borrado por lotes, ver EliminacionService)
+     */
+    public void sedeEliminada(Aportacion anterior) {
+        Transacciones.despuesDelCommit(() -> anterior.sumar(celdas, -1));
+    }
+
+    private Celdas leer() {
+        return transactionTemplate.execute(status -> {
+            Celdas leidas = new Celdas();
+            for (Object[] fila : sedeRepository.agregarPorUbicacion()) {
+                Ubicacion ubicacion = new Ubicacion((String) fila[1], (String) fila[2], (Boolean) fila[3]);
+                Double capacidad = (Double) fila[5];
+                leidas.sumar((Long) fila[0], ubicacion, (Long) fila[4], capacidad != null ? capacidad : 0);
+            }
+            return leidas;
+        });
+    }
+
+    /**
+     * Lo que una sede suma a su celda: empresa, ubicación y capacidad
+     */
+    public static final class Aportacion {
+
+        private final Long empresaId;
+        private final Ubicacion ubicacion;
+        private final double capacidad;
+
+        private Aportacion(Long empresaId, Ubicacion ubicacion, double capacidad) {
+            this.empresaId = empresaId;
+            this.ubicacion = ubicacion;
+            this.capacidad = capacidad;
+        }
+
+        public static Aportacion de(Sede sede) {
+            Double capacidad = sede.getCapacidadAlmacenamiento();
+            return new Aportacion(sede.getEmpresa().getId(),
+                    new Ubicacion(sede.getProvincia(), sede.getCiudad(), sede.getEsPrincipal()),
+                    capacidad != null ? capacidad : 0);
+        }
+
+        /**
+         * Aportación a partir de las columnas de la fila (p.ej. una proyección);
+         * provincia y ciudad pueden venir ya normalizadas
+         */
+        public static Aportacion de(Long empresaId, String provincia, String ciudad, Boolean esPrincipal,
+                                    Double capacidad) {
+            return new Aportacion(empresaId, new Ubicacion(provincia, ciudad, esPrincipal),
+                    capacidad != null ? capacidad : 0);
+        }
+
+        private void sumar(Celdas celdas, int signo) {
+            celdas.sumar(empresaId, ubicacion, signo, signo * capacidad);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Aportacion)) {
+                return false;
+            }
+            Aportacion otra = (Aportacion) o;
+            return Double.compare(capacidad, otra.capacidad) == 0
+                    && Objects.equals(empresaId, otra.empresaId)
+                    && ubicacion.equals(otra.ubicacion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(empresaId, ubicacion, capacidad);
+        }
+    }
+
+    /**
+     * Provincia y ciudad normalizadas (como las columnas *_normalizada) y si es sede principal
+     */
+    private static final class Ubicacion {
+
+        private static final Comparator<Ubicacion> ORDEN = Comparator
+                .comparing((Ubicacion u) -> u.provincia, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(u -> u.ciudad, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+        private final String provincia;
+        private final String ciudad;
+        private final boolean principal;
+
+        private Ubicacion(String provincia, String ciudad, Boolean principal) {
+            this.provincia = normalizar(provincia);
+            this.ciudad = normalizar(ciudad);
+            this.principal = Boolean.TRUE.equals(principal);
+        }
+
+        private static String normalizar(String valor) {
+            return valor != null ? valor.toUpperCase(Locale.ROOT) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Ubicacion)) {
+                return false;
+            }
+            Ubicacion otra = (Ubicacion) o;
+            return principal == otra.principal
+                    && Objects.equals(provincia, otra.provincia)
+                    && Objects.equals(ciudad, otra.ciudad);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provincia, ciudad, principal);
+        }
+    }
+
+    /**
+     * Número de sedes y capacidad total de una celda
+     */
+    private static final class Celda {
+
+        private final LongAdder sedes = new LongAdder();
+        private final DoubleAdder capacidad = new DoubleAdder();
+
+        void sumar(long numero, double metros) {
+            sedes.add(numero);
+            capacidad.add(metros);
+        }
+
+        long sedes() {
+            return sedes.sum();
+        }
+
+        double capacidad() {
+            return capacidad.sum();
+        }
+
+        boolean vacia() {
+            return sedes() == 0 && Math.abs(capacidad()) <= TOLERANCIA_CAPACIDAD;
+        }
+    }
+
+    /**
+     * Celdas globales y por empresa; se actualizan siempre a la vez
+     */
+    private static final class Celdas {
+
+        private final ConcurrentMap<Ubicacion, Celda> globales = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, ConcurrentMap<Ubicacion, Celda>> porEmpresa = new ConcurrentHashMap<>();
+
+        void sumar(Long empresaId, Ubicacion ubicacion, long sedes, double capacidad) {
+            globales.computeIfAbsent(ubicacion, u -> new Celda()).sumar(sedes, capacidad);
+            porEmpresa.computeIfAbsent(empresaId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(ubicacion, u -> new Celda())
+                    .sumar(sedes, capacidad);
+        }
+
+        /**
+         * Celdas de una empresa (vacío si no tiene sedes)
+         */
+        Map<Ubicacion, Celda> empresa(Long empresaId) {
+            Map<Ubicacion, Celda> celdasEmpresa = porEmpresa.get(empresaId);
+            return celdasEmpresa != null ? celdasEmpresa : Collections.emptyMap();
+        }
+
+        /**
+         * Elimina celdas y empresas sin sedes (una actualización concurrente con la
+         * limpieza puede perderse; la siguiente reconciliación la recupera)
+         */
+        void descartarVacias() {
+            globales.values().removeIf(Celda::vacia);
+            for (ConcurrentMap<Ubicacion, Celda> empresa : porEmpresa.values()) {
+                empresa.values().removeIf(Celda::vacia);
+            }
+            porEmpresa.values().removeIf(Map::isEmpty);
+        }
+
+        List<EstadisticasUbicacionDTO> agrupar(Nivel nivel, Long empresaId, Boolean principal) {
+            Map<Ubicacion, Celda> origen = empresaId == null ? globales : empresa(empresaId);
+
+            Map<Ubicacion, EstadisticasUbicacionDTO> grupos = new TreeMap<>(Ubicacion.ORDEN);
+            for (Map.Entry<Ubicacion, Celda> entrada : origen.entrySet()) {
+                Ubicacion ubicacion = entrada.getKey();
+                if (principal != null && ubicacion.principal != principal) {
+                    continue;
+                }
+                String ciudad = nivel == Nivel.CIUDAD ? ubicacion.ciudad : null;
+                EstadisticasUbicacionDTO grupo = grupos.computeIfAbsent(
+                        new Ubicacion(ubicacion.provincia, ciudad, false),
+                        clave -> new EstadisticasUbicacionDTO(clave.provincia, clave.ciudad, 0, 0));
+                grupo.setSedes(grupo.getSedes() + entrada.getValue().sedes());
+                grupo.setCapacidadTotal(grupo.getCapacidadTotal() + entrada.getValue().capacidad());
+            }
+
+            List<EstadisticasUbicacionDTO> resultado = new ArrayList<>(grupos.size());
+            for (EstadisticasUbicacionDTO grupo : grupos.values()) {
+                if (grupo.getSedes() > 0) {
+                    resultado.add(grupo);
+                }
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.empresa.gestion.estadisticas;
+
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Transacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria para los endpoints de estadísticas
+ * 
+ * - Empresas activas y sedes por empresa, con LongAdder (sin contención entre hilos)
+ * - Se inicializan desde la base de datos al arrancar
+ * - Los servicios los actualizan tras el commit de cada escritura
+ * - Una tarea periódica los compara con COUNT(...) y corrige cualquier desviación
+ * 
+ * Mientras no estén inicializados, los servicios consultan la base de datos.
+ */
+@Component
+public class ContadoresEstadisticas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadoresEstadisticas.class);
+
+    private final LongAdder empresasActivas = new LongAdder();
+    private final Map<Long, LongAdder> sedesPorEmpresa = new ConcurrentHashMap<>();
+
+    private final EmpresaRepository empresaRepository;
+    private final SedeRepository sedeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean listo = false;
+
+    public ContadoresEstadisticas(EmpresaRepository empresaRepository,
+                                  SedeRepository sedeRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.empresaRepository = empresaRepository;
+        this.sedeRepository = sedeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Inicializar los contadores al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        int correcciones = reconciliar();
+        listo = true;
+        logger.info("Contadores de estadísticas inicializados ({} valores cargados)", correcciones);
+    }
+
+    /**
+     * Comparar los contadores con la base de datos y corregir la desviación
+     * 
+     * Se aplica la diferencia (no se sobrescribe el valor) para no perder
+     * incrementos concurrentes. Un incremento pendiente de aplicar tras un commit
+     * puede producir una desviación transitoria que se corrige en la siguiente pasada.
+     * 
+     * @return número de contadores corregidos
+     */
+    @Scheduled(initialDelayString = "${app.estadisticas.reconciliacion-ms:60000}",
+               fixedDelayString = "${app.estadisticas.reconciliacion-ms:60000}")
+    public int reconciliar() {
+        Integer correcciones = transactionTemplate.execute(status -> {
+            int corregidos = 0;
+
+            long activasReales = empresaRepository.countByActivoTrue();
+            long diferencia = activasReales - empresasActivas.sum();
+            if (diferencia != 0) {
+                empresasActivas.add(diferencia);
+                corregidos++;
+            }
+
+            Map<Long, Long> reales = new HashMap<>();
+            List<Object[]> filas = sedeRepository.contarSedesAgrupadasPorEmpresa();
+            for (Object[] fila : filas) {
+                reales.put((Long) fila[0], (Long) fila[1]);
+            }
+
+            for (Map.Entry<Long, Long> entrada : reales.entrySet()) {
+                LongAdder contador = sedesPorEmpresa.computeIfAbsent(entrada.getKey(), id -> new LongAdder());
+                long desviacion = entrada.getValue() - contador.sum();
+                if (desviacion != 0) {
+                    contador.add(desviacion);
+                    corregidos++;
+                }
+            }
+
+            // Empresas sin sedes (o eliminadas) que aún tienen contador
+            for (Map.Entry<Long, LongAdder> entrada : sedesPorEmpresa.entrySet()) {
+                if (!reales.containsKey(entrada.getKey()) && entrada.getValue().sum() != 0) {
+                    entrada.getValue().reset();
+                    corregidos++;
+                }
+            }
+            sedesPorEmpresa.entrySet().removeIf(entrada ->
+                    !reales.containsKey(entrada.getKey()) && entrada.getValue().sum() == 0);
+
+            return corregidos;
+        });
+
+        int total = correcciones != null ? correcciones : 0;
+        if (listo && total > 0) {
+            logger.warn("Reconciliación de estadísticas: {} contadores corregidos", total);
+        }
+        return total;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // ========================================
+    // LECTURAS
+    // ========================================
+
+    public long contarEmpresasActivas() {
+        return empresasActivas.sum();
+    }
+
+    public long contarSedes(Long empresaId) {
+        LongAdder contador = sedesPorEmpresa.get(empresaId);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    // ========================================
+    // ACTUALIZACIONES (aplicadas tras el commit)
+    // ========================================
+
+    public void empresaActivada() {
+        Transacciones.despuesDelCommit(empresasActivas::increment);
+    }
+
+    public void empresaDesactivada() {
+        Transacciones.despuesDelCommit(empresasActivas::decrement);
+    }
+
+    /**
+     * Activación/desactivación masiva: variación de empresas activas (positiva o negativa)
+     */
+    public void empresasActivasCambiadas(long variacion) {
+        Transacciones.despuesDelCommit(() -> empresasActivas.add(variacion));
+    }
+
+    /**
+     * Empresa eliminada junto con sus sedes
+     */
+    public void empresaEliminada(Long empresaId, boolean estabaActiva) {
+        Transacciones.despuesDelCommit(() -> {
+            if (estabaActiva) {
+                empresasActivas.decrement();
+            }
+            sedesPorEmpresa.remove(empresaId);
+        });
+    }
+
+    public void sedesCreadas(Long empresaId, int cantidad) {
+        Transacciones.despuesDelCommit(() ->
+                sedesPorEmpresa.computeIfAbsent(empresaId, id -> new LongAdder()).add(cantidad));
+    }
+
+    public void sedesEliminadas(Long empresaId, int cantidad) {
+        Transacciones.despuesDelCommit(() ->
+                sedesPorEmpresa.computeIfAbsent(empresaId, id -> new LongAdder()).add(-cantidad));
+    }
+
+    public void sedeEliminada(Long empresaId) {
+        Transacciones.despuesDelCommit(() ->
+                sedesPorEmpresa.computeIfAbsent(empresaId, id -> new LongAdder()).decrement());
+    }
+}
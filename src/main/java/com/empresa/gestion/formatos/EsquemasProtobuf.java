@@ -0,0 +1,113 @@
+package com.empresa.gestion.formatos;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schemagen.ProtobufSchemaGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Esquemas protobuf generados a partir de los DTOs (EmpresaDTO, SedeDTO...)
+ * 
+ * - El esquema de cada tipo se genera con Jackson la primera vez y se cachea
+ *   junto con su ObjectWriter/ObjectReader
+ * - Listas y escalares se envuelven en ValorProtobuf (protobuf exige un mensaje en la raíz)
+ * - Los tipos sin representación protobuf (p.ej. Map) no se admiten: el
+ *   conversor no se ofrece para ellos y la negociación responde 406
+ */
+public class EsquemasProtobuf {
+
+    private static final Logger logger = LoggerFactory.getLogger(EsquemasProtobuf.class);
+
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<JavaType, Optional<Raiz>> raices = new ConcurrentHashMap<>();
+
+    public EsquemasProtobuf(ObjectMapper mapper) {
+        Assert.isInstanceOf(ProtobufFactory.class, mapper.getFactory(), "Se requiere un ObjectMapper protobuf");
+        this.mapper = mapper;
+    }
+
+    public JavaType tipo(Type type) {
+        return mapper.getTypeFactory().constructType(type);
+    }
+
+    /**
+     * true si el tipo tiene esquema protobuf
+     */
+    public boolean admite(JavaType tipo) {
+        return raiz(tipo).isPresent();
+    }
+
+    public void escribir(Object valor, JavaType tipo, FilterProvider filtros, OutputStream salida) throws IOException {
+        Raiz raiz = raiz(tipo).orElseThrow(() -> new IllegalArgumentException("Tipo sin esquema protobuf: " + tipo));
+        ObjectWriter escritor = filtros != null ? raiz.escritor.with(filtros) : raiz.escritor;
+        escritor.writeValue(salida, raiz.envuelto ? new ValorProtobuf<>(valor) : valor);
+    }
+
+    public Object leer(JavaType tipo, InputStream entrada) throws IOException {
+        Raiz raiz = raiz(tipo).orElseThrow(() -> new IllegalArgumentException("Tipo sin esquema protobuf: " + tipo));
+        Object valor = raiz.lector.readValue(entrada);
+        return raiz.envuelto ? ((ValorProtobuf<?>) valor).getValor() : valor;
+    }
+
+    private Optional<Raiz> raiz(JavaType tipo) {
+        return raices.computeIfAbsent(tipo, this::generar);
+    }
+
+    private Optional<Raiz> generar(JavaType tipo) {
+        boolean envuelto = requiereEnvoltorio(tipo);
+        JavaType tipoRaiz = envuelto
+                ? mapper.getTypeFactory().constructParametricType(ValorProtobuf.class, tipo)
+                : tipo;
+        try {
+            ProtobufSchemaGenerator generador = new ProtobufSchemaGenerator();
+            mapper.acceptJsonFormatVisitor(tipoRaiz, generador);
+            ProtobufSchema esquema = generador.getGeneratedSchema();
+            logger.debug("Esquema protobuf generado para {}", tipo);
+            return Optional.of(new Raiz(envuelto,
+                    mapper.writerFor(tipoRaiz).with(esquema),
+                    mapper.readerFor(tipoRaiz).with(esquema)));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Sin esquema protobuf para {}: {}", tipo, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Listas, mapas, primitivos y tipos del JDK no pueden ser mensaje raíz
+     */
+    private static boolean requiereEnvoltorio(JavaType tipo) {
+        return tipo.isContainerType() || tipo.isPrimitive() || tipo.isEnumType()
+                || tipo.getRawClass().getName().startsWith("java.");
+    }
+
+    /**
+     * Esquema de un tipo raíz con su escritor y lector ya configurados
+     */
+    private static final class Raiz {
+
+        final boolean envuelto;
+        final ObjectWriter escritor;
+        final ObjectReader lector;
+
+        Raiz(boolean envuelto, ObjectWriter escritor, ObjectReader lector) {
+            this.envuelto = envuelto;
+            this.escritor = escritor;
+            this.lector = lector;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.empresa.gestion.formatos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * ObjectMapper de los formatos binarios a partir del builder de la aplicación
+ * 
+ * Cada mapper hereda la configuración del JSON (módulos, fechas ISO-8601,
+ * mixin de ?fields=...) y solo cambia el JsonFactory. El builder queda
+ * modificado: se necesita uno nuevo por formato.
+ */
+public final class FormatosBinarios {
+
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private FormatosBinarios() {
+    }
+
+    public static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    public static ObjectMapper smile(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+
+    /**
+     * El generador de esquemas recorre los filtros de @JsonFilter: el proveedor
+     * por defecto debe devolver uno (serializeAll) en lugar de null
+     */
+    public static ObjectMapper protobuf(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new ProtobufFactory())
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+    }
+}
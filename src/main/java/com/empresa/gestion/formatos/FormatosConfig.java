@@ -0,0 +1,46 @@
+package com.empresa.gestion.formatos;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Negociación de formato por Accept en todos los endpoints MVC
+ * 
+ * - application/json (por defecto, primero en la lista), application/cbor,
+ *   application/x-jackson-smile y application/x-protobuf
+ * - CBOR y Smile usan la misma configuración de Jackson que el JSON (sustituyen
+ *   a los conversores por defecto de Spring, que no la aplican)
+ * - Los binarios se añaden al final: sin Accept explícito se sigue respondiendo JSON
+ * - gzip para JSON/NDJSON con Accept-Encoding (server.compression.*); Tomcat comprime
+ *   también las respuestas con ETag porque son débiles (ver Precondiciones)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FormatosConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public FormatosConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+
+        // El builder es prototype: uno nuevo por formato
+        converters.add(new MappingJackson2CborHttpMessageConverter(FormatosBinarios.cbor(builders.getObject())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(FormatosBinarios.smile(builders.getObject())));
+        converters.add(new JacksonProtobufHttpMessageConverter(
+                new EsquemasProtobuf(FormatosBinarios.protobuf(builders.getObject()))));
+    }
+}
@@ -0,0 +1,99 @@
+package com.empresa.gestion.formatos;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * application/x-protobuf con esquemas generados por Jackson a partir de los DTOs
+ * 
+ * No necesita clases generadas con protoc: el esquema sale del propio DTO
+ * (ver EsquemasProtobuf). Admite MappingJacksonValue para aplicar ?fields=
+ * (los campos no seleccionados simplemente no se emiten).
+ */
+public class JacksonProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final EsquemasProtobuf esquemas;
+
+    public JacksonProtobufHttpMessageConverter(EsquemasProtobuf esquemas) {
+        super(FormatosBinarios.APPLICATION_PROTOBUF);
+        this.esquemas = esquemas;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return canRead(mediaType) && esquemas.admite(esquemas.tipo(clazz));
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return canRead(mediaType) && esquemas.admite(tipo(type, contextClass));
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return canWrite(mediaType) && esquemas.admite(esquemas.tipo(clazz));
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return canWrite(mediaType) && esquemas.admite(esquemas.tipo(type != null ? type : clazz));
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return leer(tipo(type, contextClass), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return leer(esquemas.tipo(clazz), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Object valor = object;
+        FilterProvider filtros = null;
+        if (object instanceof MappingJacksonValue) {
+            valor = ((MappingJacksonValue) object).getValue();
+            filtros = ((MappingJacksonValue) object).getFilters();
+        }
+
+        JavaType tipo = esquemas.tipo(type != null ? type : valor.getClass());
+        try {
+            esquemas.escribir(valor, tipo, filtros, outputMessage.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException("No se pudo escribir protobuf: " + e.getMessage(), e);
+        }
+    }
+
+    private Object leer(JavaType tipo, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return esquemas.leer(tipo, inputMessage.getBody());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Protobuf no válido: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    private JavaType tipo(Type type, @Nullable Class<?> contextClass) {
+        return esquemas.tipo(GenericTypeResolver.resolveType(type, contextClass));
+    }
+}
@@ -0,0 +1,23 @@
+package com.empresa.gestion.formatos;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Mensaje raíz para los valores que protobuf no admite en la raíz
+ * (listas y escalares). Para List<EmpresaDTO>:
+ *   message ValorProtobuf { repeated EmpresaDTO valor = 1; }
+ */
+public final class ValorProtobuf<T> {
+
+    private final T valor;
+
+    @JsonCreator
+    public ValorProtobuf(@JsonProperty("valor") T valor) {
+        this.valor = valor;
+    }
+
+    public T getValor() {
+        return valor;
+    }
+}
@@ -2,6 +2,7 @@ package com.empresa.gestion.mapper;
 
 import com.empresa.gestion.dto.EmpresaDTO;
 import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -25,19 +26,53 @@ public class EmpresaMapper {
     }
 
     /**
-     * Convierte Entity a DTO
+     * Convierte Entity a DTO incluyendo sus sedes
      * 
      * JAVA 8 vs JAVA 10+:
      * Java 8:  List<SedeDTO> sedesDTO = entity.getSedes()...
      * Java 10+: var sedesDTO = entity.getSedes()...
+     * 
+     * IMPORTANTE: recorre la colección LAZY de sedes (una consulta adicional).
+     * Para listados usar toDTOList, que nunca toca la colección.
      */
     public EmpresaDTO toDTO(Empresa entity) {
+        EmpresaDTO dto = toDTOSinSedes(entity);
+
+        // Convertir sedes
+        if (dto != null && entity.getSedes() != null && !entity.getSedes().isEmpty()) {
+            dto.setSedes(entity.getSedes().stream()
+                    .map(sedeMapper::toDTO)
+                    .collect(Collectors.toList()));
+        }
+
+        return dto;
+    }
+
+    /**
+     * Convierte Entity a DTO con sedes ya cargadas por separado
+     * (no accede a la colección LAZY de la entidad)
+     */
+    public EmpresaDTO toDTO(Empresa entity, List<Sede> sedes) {
+        EmpresaDTO dto = toDTOSinSedes(entity);
+
+        if (dto != null && sedes != null && !sedes.isEmpty()) {
+            dto.setSedes(sedeMapper.toDTOList(sedes));
+        }
+
+        return dto;
+    }
+
+    /**
+     * Convierte Entity a DTO sin acceder a la colección de sedes
+     */
+    public EmpresaDTO toDTOSinSedes(Empresa entity) {
         if (entity == null) {
             return null;
         }
 
         EmpresaDTO dto = new EmpresaDTO();
         dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setRazonSocial(entity.getRazonSocial());
         dto.setCif(entity.getCif());
         dto.setEmail(entity.getEmail());
@@ -48,13 +83,6 @@ public class EmpresaMapper {
         dto.setFacturacionAnual(entity.getFacturacionAnual());
         dto.setNumeroEmpleados(entity.getNumeroEmpleados());
 
-        // Convertir sedes
-        if (entity.getSedes() != null && !entity.getSedes().isEmpty()) {
-            dto.setSedes(entity.getSedes().stream()
-                    .map(sedeMapper::toDTO)
-                    .collect(Collectors.toList()));
-        }
-
         return dto;
     }
 
@@ -101,6 +129,7 @@ public class EmpresaMapper {
 
     /**
      * Convierte una lista de entities a DTOs usando streams
+     * (sin sedes: no se accede a la colección LAZY, evitando N+1)
      */
     public List<EmpresaDTO> toDTOList(List<Empresa> entities) {
         if (entities == null) {
@@ -108,7 +137,7 @@ public class EmpresaMapper {
         }
 
         return entities.stream()
-                .map(this::toDTO)
+                .map(this::toDTOSinSedes)
                 .collect(Collectors.toList());
     }
 }
@@ -27,6 +27,7 @@ public class SedeMapper {
 
         SedeDTO dto = new SedeDTO();
         dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setNombre(entity.getNombre());
         dto.setDireccion(entity.getDireccion());
         dto.setCiudad(entity.getCiudad());
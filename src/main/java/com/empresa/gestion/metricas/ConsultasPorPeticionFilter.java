@@ -0,0 +1,88 @@
+package com.empresa.gestion.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publica el número de sentencias SQL por petición HTTP
+ * 
+ * Métrica gestion.http.consultas etiquetada por método y patrón de URI
+ * (p.ej. GET /api/empresas/{id}): un N+1 aparece como un aumento de la media
+ * o del máximo de consultas del endpoint afectado.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConsultasPorPeticionFilter extends OncePerRequestFilter {
+
+    static final String METRICA = "gestion.http.consultas";
+
+    private final MeterRegistry registry;
+
+    public ConsultasPorPeticionFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AtomicInteger consultas = ContadorConsultas.iniciar();
+        request.setAttribute(ContadorConsultas.ATRIBUTO, consultas);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContadorConsultas.detener();
+            if (request.isAsyncStarted()) {
+                // Handler en otro hilo (DeferredResult): se publica al completar la respuesta
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, consultas.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrar(request, consultas.get());
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int consultas) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRICA)
+                .description("Sentencias SQL ejecutadas por petición")
+                .baseUnit("consultas")
+                .tag("metodo", request.getMethod())
+                .tag("uri", patron != null ? patron.toString() : "UNKNOWN")
+                .register(registry)
+                .record(consultas);
+    }
+}
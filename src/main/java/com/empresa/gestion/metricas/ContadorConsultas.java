@@ -0,0 +1,66 @@
+package com.empresa.gestion.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuenta las sentencias SQL preparadas por Hibernate en el hilo actual
+ * 
+ * Se registra como hibernate.session_factory.statement_inspector (Hibernate
+ * lo instancia por reflexión, de ahí el estado estático). ConsultasPorPeticionFilter
+ * abre y cierra la cuenta en cada petición HTTP; cuando el handler se ejecuta en
+ * otro hilo (EjecutorPeticiones) la misma cuenta se asocia a ese hilo.
+ */
+public class ContadorConsultas implements StatementInspector {
+
+    /**
+     * Atributo de la petición con la cuenta (AtomicInteger), para el registro de accesos
+     */
+    public static final String ATRIBUTO = ContadorConsultas.class.getName();
+
+    private static final ThreadLocal<AtomicInteger> CONTADOR = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger contador = CONTADOR.get();
+        if (contador != null) {
+            contador.incrementAndGet();
+        }
+        return sql;
+    }
+
+    /**
+     * Empezar a contar en el hilo actual
+     */
+    public static AtomicInteger iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        CONTADOR.set(contador);
+        return contador;
+    }
+
+    /**
+     * Cuenta activa en el hilo actual (null si no hay)
+     */
+    public static AtomicInteger actual() {
+        return CONTADOR.get();
+    }
+
+    /**
+     * Continuar en el hilo actual una cuenta iniciada en otro hilo
+     */
+    public static void asociar(AtomicInteger contador) {
+        if (contador != null) {
+            CONTADOR.set(contador);
+        }
+    }
+
+    /**
+     * Dejar de contar en el hilo actual y devolver las sentencias contadas
+     */
+    public static int detener() {
+        AtomicInteger contador = CONTADOR.get();
+        CONTADOR.remove();
+        return contador == null ? 0 : contador.get();
+    }
+}
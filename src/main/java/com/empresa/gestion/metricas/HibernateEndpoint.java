@@ -0,0 +1,97 @@
+package com.empresa.gestion.metricas;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Endpoint de actuator con las estadísticas de Hibernate
+ * GET /actuator/hibernate
+ * 
+ * Las mismas cifras se publican como métricas hibernate.* (etiquetadas por
+ * entityManagerFactory) al activar hibernate.generate_statistics.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateEndpoint {
+
+    private static final int CONSULTAS_MAS_LENTAS = 10;
+
+    private final Statistics statistics;
+
+    public HibernateEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("habilitadas", statistics.isStatisticsEnabled());
+        resultado.put("desde", statistics.getStartTime());
+
+        Map<String, Object> consultas = new LinkedHashMap<>();
+        consultas.put("ejecuciones", statistics.getQueryExecutionCount());
+        consultas.put("sentenciasPreparadas", statistics.getPrepareStatementCount());
+        consultas.put("tiempoMaximoMs", statistics.getQueryExecutionMaxTime());
+        consultas.put("consultaMasLenta", statistics.getQueryExecutionMaxTimeQueryString());
+        consultas.put("masLentas", consultasMasLentas());
+        resultado.put("consultas", consultas);
+
+        Map<String, Object> entidades = new LinkedHashMap<>();
+        entidades.put("cargas", statistics.getEntityLoadCount());
+        entidades.put("fetches", statistics.getEntityFetchCount());
+        entidades.put("inserciones", statistics.getEntityInsertCount());
+        entidades.put("actualizaciones", statistics.getEntityUpdateCount());
+        entidades.put("borrados", statistics.getEntityDeleteCount());
+        entidades.put("coleccionesCargadas", statistics.getCollectionLoadCount());
+        entidades.put("coleccionesFetch", statistics.getCollectionFetchCount());
+        resultado.put("entidades", entidades);
+
+        Map<String, Object> segundoNivel = new LinkedHashMap<>();
+        segundoNivel.put("aciertos", statistics.getSecondLevelCacheHitCount());
+        segundoNivel.put("fallos", statistics.getSecondLevelCacheMissCount());
+        segundoNivel.put("escrituras", statistics.getSecondLevelCachePutCount());
+        resultado.put("cacheSegundoNivel", segundoNivel);
+
+        Map<String, Object> sesiones = new LinkedHashMap<>();
+        sesiones.put("abiertas", statistics.getSessionOpenCount());
+        sesiones.put("cerradas", statistics.getSessionCloseCount());
+        sesiones.put("flushes", statistics.getFlushCount());
+        sesiones.put("transacciones", statistics.getTransactionCount());
+        sesiones.put("conexionesObtenidas", statistics.getConnectCount());
+        resultado.put("sesiones", sesiones);
+
+        return resultado;
+    }
+
+    private List<Map<String, Object>> consultasMasLentas() {
+        return Arrays.stream(statistics.getQueries())
+                .map(hql -> new SimpleEntry<>(hql, statistics.getQueryStatistics(hql)))
+                .sorted(Comparator.comparingLong(
+                        (SimpleEntry<String, QueryStatistics> e) -> e.getValue().getExecutionMaxTime()).reversed())
+                .limit(CONSULTAS_MAS_LENTAS)
+                .map(e -> {
+                    QueryStatistics stats = e.getValue();
+                    Map<String, Object> consulta = new LinkedHashMap<>();
+                    consulta.put("consulta", e.getKey());
+                    consulta.put("ejecuciones", stats.getExecutionCount());
+                    consulta.put("tiempoMedioMs", stats.getExecutionAvgTime());
+                    consulta.put("tiempoMaximoMs", stats.getExecutionMaxTime());
+                    consulta.put("filas", stats.getExecutionRowCount());
+                    return consulta;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.empresa.gestion.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizadores Micrometer de servicios y repositorios
+ * 
+ * - gestion.servicio: cada método público de EmpresaService y SedeService
+ * - gestion.repositorio: cada método de EmpresaRepository y SedeRepository
+ *   (incluidos los heredados de JpaRepository) y de ProyeccionRepository
+ * 
+ * Etiquetas: clase, metodo y excepcion ("none" si termina bien).
+ * Publican histograma de percentiles (p50/p95/p99 en /actuator/metrics).
+ */
+@Aspect
+@Component
+public class MetricasAspect {
+
+    static final String TIMER_SERVICIO = "gestion.servicio";
+    static final String TIMER_REPOSITORIO = "gestion.repositorio";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> nombresRepositorio = new ConcurrentHashMap<>();
+
+    public MetricasAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.empresa.gestion.service.EmpresaService.*(..))"
+            + " || execution(public * com.empresa.gestion.service.SedeService.*(..))")
+    public Object medirServicio(ProceedingJoinPoint punto) throws Throwable {
+        return medir(punto, TIMER_SERVICIO, punto.getSignature().getDeclaringType().getSimpleName());
+    }
+
+    @Around("execution(public * *(..)) && target(repositorio)"
+            + " && (target(com.empresa.gestion.repository.EmpresaRepository)"
+            + " || target(com.empresa.gestion.repository.SedeRepository)"
+            + " || target(com.empresa.gestion.repository.ProyeccionRepository))")
+    public Object medirRepositorio(ProceedingJoinPoint punto, Object repositorio) throws Throwable {
+        return medir(punto, TIMER_REPOSITORIO, nombreRepositorio(repositorio.getClass()));
+    }
+
+    private Object medir(ProceedingJoinPoint punto, String nombre, String clase) throws Throwable {
+        String metodo = punto.getSignature().getName();
+        long inicio = System.nanoTime();
+        String excepcion = "none";
+        try {
+            return punto.proceed();
+        } catch (Throwable e) {
+            excepcion = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(nombre, clase, metodo, excepcion).record(System.nanoTime() - inicio,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String nombre, String clase, String metodo, String excepcion) {
+        String clave = nombre + '|' + clase + '|' + metodo + '|' + excepcion;
+        return timers.computeIfAbsent(clave, k -> Timer.builder(nombre)
+                .tag("clase", clase)
+                .tag("metodo", metodo)
+                .tag("excepcion", excepcion)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+
+    /**
+     * El target es un proxy de Spring Data: se etiqueta con la interfaz del repositorio
+     */
+    private String nombreRepositorio(Class<?> clase) {
+        return nombresRepositorio.computeIfAbsent(clase, c -> {
+            for (Class<?> interfaz : c.getInterfaces()) {
+                if (interfaz.getPackage() != null
+                        && interfaz.getPackage().getName().startsWith("com.empresa.gestion.repository")) {
+                    return interfaz.getSimpleName();
+                }
+            }
+            return c.getSimpleName();
+        });
+    }
+}
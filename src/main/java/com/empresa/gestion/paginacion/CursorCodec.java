@@ -0,0 +1,50 @@
+package com.empresa.gestion.paginacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores opacos de paginación
+ * 
+ * El cursor contiene el último ID devuelto en la página anterior,
+ * codificado en Base64 URL-safe para que el cliente no dependa
+ * de su formato interno.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIJO = "id:";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Genera el cursor a partir del último ID de la página
+     */
+    public static String codificar(Long id) {
+        String valor = PREFIJO + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtiene el ID contenido en el cursor
+     * 
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static Long decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+            long id = Long.parseLong(valor.substring(PREFIJO.length()));
+            if (id < 0) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException y errores de Base64 también son IllegalArgumentException
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+}
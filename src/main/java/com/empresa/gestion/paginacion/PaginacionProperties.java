@@ -0,0 +1,35 @@
+package com.empresa.gestion.paginacion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Límites de paginación configurables (prefijo app.paginacion)
+ * 
+ * - limite-defecto: tamaño de página si el cliente no indica limit
+ * - limite-maximo: tope duro, ninguna petición puede superarlo
+ */
+@Component
+@ConfigurationProperties(prefix = "app.paginacion")
+public class PaginacionProperties {
+
+    private int limiteDefecto = 50;
+
+    private int limiteMaximo = 500;
+
+    public int getLimiteDefecto() {
+        return limiteDefecto;
+    }
+
+    public void setLimiteDefecto(int limiteDefecto) {
+        this.limiteDefecto = limiteDefecto;
+    }
+
+    public int getLimiteMaximo() {
+        return limiteMaximo;
+    }
+
+    public void setLimiteMaximo(int limiteMaximo) {
+        this.limiteMaximo = limiteMaximo;
+    }
+}
@@ -0,0 +1,57 @@
+package com.empresa.gestion.paginacion;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Parámetros de una petición paginada por cursor (keyset)
+ * 
+ * En lugar de OFFSET se filtra por id > afterId y se ordena por id,
+ * de modo que el coste de cada página no depende de su posición.
+ */
+public class SolicitudPagina {
+
+    private final Long afterId;
+    private final int limite;
+
+    public SolicitudPagina(Long afterId, int limite) {
+        this.afterId = afterId;
+        this.limite = limite;
+    }
+
+    /**
+     * Construye la solicitud a partir de los parámetros HTTP
+     * 
+     * - after: cursor opaco (opcional, primera página si es nulo)
+     * - limit: tamaño de página (opcional, se recorta al máximo permitido)
+     * 
+     * @throws IllegalArgumentException si el cursor o el límite no son válidos
+     */
+    public static SolicitudPagina de(String after, Integer limit, PaginacionProperties propiedades) {
+        Long afterId = (after == null || after.isEmpty()) ? 0L : CursorCodec.decodificar(after);
+
+        int limite = limit != null ? limit : propiedades.getLimiteDefecto();
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que 0");
+        }
+
+        return new SolicitudPagina(afterId, Math.min(limite, propiedades.getLimiteMaximo()));
+    }
+
+    /**
+     * Pageable para el repositorio: se pide un elemento extra
+     * para saber si existe una página siguiente
+     */
+    public Pageable toPageable() {
+        return PageRequest.of(0, limite + 1, Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+}
@@ -1,13 +1,21 @@
 package com.empresa.gestion.repository;
 
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.EstadisticasSectorDTO;
 import com.empresa.gestion.entity.Empresa;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Empresa
@@ -21,12 +29,31 @@ import java.util.Optional;
 @Repository
 public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
 
+    /**
+     * Proyección de todas las columnas de Empresa (sin sedes) directamente a EmpresaDTO
+     */
+    String SELECT_DTO = "SELECT new com.empresa.gestion.dto.EmpresaDTO(e.id, e.razonSocial, e.cif, "
+            + "e.email, e.telefono, e.sector, e.fechaAlta, e.activo, e.facturacionAnual, "
+            + "e.numeroEmpleados, e.version) FROM Empresa e ";
+
     /**
      * Buscar empresa por CIF (consulta derivada del nombre del método)
      * Spring Data JPA genera automáticamente la implementación
      */
     Optional<Empresa> findByCif(String cif);
 
+    /**
+     * Versión de una empresa, sin cargar la entidad (If-None-Match)
+     */
+    @Query("SELECT e.version FROM Empresa e WHERE e.id = :id")
+    Optional<Long> buscarVersion(@Param("id") Long id);
+
+    /**
+     * Versión de una empresa por CIF, sin cargar la entidad (If-None-Match)
+     */
+    @Query("SELECT e.version FROM Empresa e WHERE e.cif = :cif")
+    Optional<Long> buscarVersionPorCif(@Param("cif") String cif);
+
     /**
      * Buscar empresas activas
      */
@@ -44,16 +71,125 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
     @Query("SELECT e FROM Empresa e WHERE LOWER(e.razonSocial) LIKE LOWER(CONCAT('%', :texto, '%'))")
     List<Empresa> buscarPorRazonSocial(@Param("texto") String texto);
 
+    // ========================================
+    // PROYECCIONES A DTO (listados de solo lectura)
+    // ========================================
+    // Todas reciben el último ID de la página anterior (afterId) y un Pageable
+    // ordenado por id con tamaño limite + 1 (ver SolicitudPagina).
+    // Sin entidades gestionadas:
+    // no pasan por el contexto de persistencia ni guardan snapshots para
+    // dirty checking, y no se copian campo a campo en EmpresaMapper
+
+    /**
+     * Página de todas las empresas (proyección)
+     */
+    @Query(SELECT_DTO + "WHERE e.id > :afterId")
+    List<EmpresaDTO> listarDTO(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Página de empresas activas (proyección)
+     */
+    @Query(SELECT_DTO + "WHERE e.activo = true AND e.id > :afterId")
+    List<EmpresaDTO> listarActivasDTO(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Página de empresas de un sector (proyección, columna sector_normalizado)
+     */
+    @Query(SELECT_DTO + "WHERE e.sectorNormalizado = UPPER(:sector) AND e.id > :afterId")
+    List<EmpresaDTO> buscarPorSectorDTO(@Param("sector") String sector,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Página de empresas por razón social (proyección, búsqueda parcial)
+     */
+    @Query(SELECT_DTO + "WHERE e.id > :afterId "
+            + "AND LOWER(e.razonSocial) LIKE LOWER(CONCAT('%', :texto, '%'))")
+    List<EmpresaDTO> buscarPorRazonSocialDTO(@Param("texto") String texto,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    /**
+     * Proyección de una lista de IDs ordenados (resultado del índice de búsqueda)
+     */
+    @Query(SELECT_DTO + "WHERE e.id IN :ids ORDER BY e.id")
+    List<EmpresaDTO> buscarDTOPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Proyección de una lista de CIFs (GET /api/empresas?cifs=..., índice único por CIF)
+     */
+    @Query(SELECT_DTO + "WHERE e.cif IN :cifs ORDER BY e.id")
+    List<EmpresaDTO> buscarDTOPorCifs(@Param("cifs") Collection<String> cifs);
+
+    /**
+     * Agregados por sector en una sola pasada (GROUP BY sobre la columna normalizada)
+     */
+    @Query("SELECT new com.empresa.gestion.dto.EstadisticasSectorDTO(e.sectorNormalizado, COUNT(e), "
+            + "SUM(CASE WHEN e.activo = true THEN 1 ELSE 0 END), SUM(e.facturacionAnual), "
+            + "AVG(e.facturacionAnual), MIN(e.facturacionAnual), MAX(e.facturacionAnual), "
+            + "SUM(e.numeroEmpleados)) "
+            + "FROM Empresa e GROUP BY e.sectorNormalizado ORDER BY e.sectorNormalizado")
+    List<EstadisticasSectorDTO> agregarPorSector();
+
     /**
      * Verificar si existe una empresa con un CIF específico
      */
     boolean existsByCif(String cif);
 
+    /**
+     * Devolver, de una lista de CIFs, los que ya existen (una sola consulta IN)
+     * Usado por la importación masiva en lugar de existsByCif por registro
+     */
+    @Query("SELECT e.cif FROM Empresa e WHERE e.cif IN :cifs")
+    List<String> findCifsExistentes(@Param("cifs") Collection<String> cifs);
+
     /**
      * Buscar empresas con facturación mayor a un valor
      */
     List<Empresa> findByFacturacionAnualGreaterThan(Double facturacion);
 
+    /**
+     * Condición de las actualizaciones masivas de activo: solo las filas que cambian
+     * de estado (activo null cuenta como inactiva), de modo que las filas afectadas
+     * son la variación exacta de empresas activas
+     */
+    String CAMBIA_ACTIVO = "((:activo = true AND (e.activo IS NULL OR e.activo = false)) "
+            + "OR (:activo = false AND e.activo = true))";
+
+    /**
+     * Activar/desactivar varias empresas por ID en un único UPDATE
+     * (incrementa la versión igual que @Version; sin cargar entidades)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Empresa e SET e.activo = :activo, e.version = e.version + 1 "
+            + "WHERE e.id IN :ids AND " + CAMBIA_ACTIVO)
+    int cambiarActivoPorIds(@Param("ids") Collection<Long> ids, @Param("activo") boolean activo);
+
+    /**
+     * Activar/desactivar todas las empresas de un sector (columna sector_normalizado)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Empresa e SET e.activo = :activo, e.version = e.version + 1 "
+            + "WHERE e.sectorNormalizado = UPPER(:sector) AND " + CAMBIA_ACTIVO)
+    int cambiarActivoPorSector(@Param("sector") String sector, @Param("activo") boolean activo);
+
+    /**
+     * Activar/desactivar las empresas con facturación mayor a un valor
+     * (mismo criterio que findByFacturacionAnualGreaterThan)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Empresa e SET e.activo = :activo, e.version = e.version + 1 "
+            + "WHERE e.facturacionAnual > :facturacion AND " + CAMBIA_ACTIVO)
+    int cambiarActivoPorFacturacion(@Param("facturacion") Double facturacion, @Param("activo") boolean activo);
+
+    /**
+     * Incrementar la versión (ETag) de una empresa cuyas sedes se han modificado con
+     * sentencias masivas, que no pasan por @Version
+     */
+    @Modifying
+    @Query("UPDATE Empresa e SET e.version = e.version + 1 WHERE e.id = :id")
+    int incrementarVersion(@Param("id") Long id);
+
     /**
      * Contar empresas activas
      */
@@ -64,5 +200,26 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
      * Ejemplo de consulta con múltiples condiciones
      */
     List<Empresa> findBySectorAndActivoTrue(String sector);
-}
 
+    /**
+     * Recorrer todas las empresas ordenadas por ID sin cargarlas en memoria
+     * 
+     * - Stream respaldado por un cursor JDBC (ScrollableResults)
+     * - fetchSize controla cuántas filas trae el driver por viaje
+     * - readOnly evita guardar snapshots para dirty checking
+     * - Debe consumirse dentro de una transacción y cerrarse (try-with-resources)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT e FROM Empresa e ORDER BY e.id")
+    Stream<Empresa> streamTodasOrdenadas();
+
+    /**
+     * Recorrer (id, razonSocial) de todas las filas para construir el índice de búsqueda
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT e.id, e.razonSocial FROM Empresa e")
+    Stream<Object[]> streamTextosBusqueda();
+}
@@ -0,0 +1,223 @@
+package com.empresa.gestion.repository;
+
+import com.empresa.gestion.campos.CampoEmpresa;
+import com.empresa.gestion.campos.CampoSede;
+import com.empresa.gestion.campos.SeleccionCampos;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consultas de listado que solo leen las columnas pedidas con ?fields=
+ * 
+ * - El SELECT se genera a partir de la selección (CampoEmpresa / CampoSede)
+ *   y se cachea por (consulta, selección) junto con el orden de columnas
+ * - Misma cadena JPQL para la misma selección: Hibernate reutiliza el plan
+ *   compilado de su QueryPlanCache
+ * - Las filas se asignan a DTOs no gestionados (sin contexto de persistencia)
+ * 
+ * Con todos los campos se usan las proyecciones fijas de EmpresaRepository /
+ * SedeRepository; esta clase solo atiende selecciones parciales.
+ */
+@Repository
+public class ProyeccionRepository {
+
+    private static final int MAXIMO_CONSULTAS = 1000;
+
+    /**
+     * Listados de empresas: condición JPQL y columna adicional que necesita el servicio
+     */
+    public enum ConsultaEmpresa {
+        TODAS("e.id > :afterId", null),
+        ACTIVAS("e.activo = true AND e.id > :afterId", null),
+        SECTOR("e.sectorNormalizado = UPPER(:valor) AND e.id > :afterId", null),
+        RAZON_SOCIAL("e.id > :afterId AND LOWER(e.razonSocial) LIKE LOWER(CONCAT('%', :valor, '%'))", null),
+        /** IDs del índice de búsqueda: la razón social se lee para volver a comprobarla */
+        IDS("e.id IN :valor", CampoEmpresa.RAZON_SOCIAL),
+        /** Consulta múltiple por CIF: el CIF se lee para ordenar según la petición */
+        CIFS("e.cif IN :valor", CampoEmpresa.CIF);
+
+        private final String condicion;
+        private final CampoEmpresa adicional;
+
+        ConsultaEmpresa(String condicion, CampoEmpresa adicional) {
+            this.condicion = condicion;
+            this.adicional = adicional;
+        }
+    }
+
+    /**
+     * Listados de sedes: condición JPQL y columna adicional que necesita el servicio
+     */
+    public enum ConsultaSede {
+        TODAS("s.id > :afterId", null),
+        EMPRESA("s.empresa.id = :valor AND s.id > :afterId", null),
+        CIUDAD("s.ciudadNormalizada = UPPER(:valor) AND s.id > :afterId", null),
+        PROVINCIA("s.provinciaNormalizada = UPPER(:valor) AND s.id > :afterId", null),
+        NOMBRE("s.id > :afterId AND LOWER(s.nombre) LIKE LOWER(CONCAT('%', :valor, '%'))", null),
+        /** IDs del índice de búsqueda: el nombre se lee para volver a comprobarlo */
+        IDS("s.id IN :valor", CampoSede.NOMBRE),
+        /** Sedes anidadas de una página de empresas: empresaId para agruparlas */
+        EMPRESA_IDS("s.empresa.id IN :valor", CampoSede.EMPRESA_ID);
+
+        private final String condicion;
+        private final CampoSede adicional;
+
+        ConsultaSede(String condicion, CampoSede adicional) {
+            this.condicion = condicion;
+            this.adicional = adicional;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<String, ConsultaPreparada<CampoEmpresa>> consultasEmpresa = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_CONSULTAS)
+            .build();
+    private final Cache<String, ConsultaPreparada<CampoSede>> consultasSede = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_CONSULTAS)
+            .build();
+
+    /**
+     * Página de empresas (limite + 1 filas según el Pageable) con las columnas seleccionadas
+     */
+    public List<EmpresaDTO> empresas(ConsultaEmpresa consulta, Object valor, SeleccionCampos campos,
+                                     Long afterId, Pageable pageable) {
+        ConsultaPreparada<CampoEmpresa> preparada = consultasEmpresa.get(
+                consulta.name() + "|" + campos.getClave(), clave -> prepararEmpresas(consulta, campos));
+
+        TypedQuery<Tuple> query = entityManager.createQuery(preparada.jpql, Tuple.class);
+        parametros(query, consulta.condicion, valor, afterId, pageable);
+
+        List<Tuple> filas = query.getResultList();
+        List<EmpresaDTO> empresas = new ArrayList<>(filas.size());
+        for (Tuple fila : filas) {
+            EmpresaDTO dto = new EmpresaDTO();
+            for (int i = 0; i < preparada.columnas.size(); i++) {
+                preparada.columnas.get(i).asignar(dto, fila.get(i));
+            }
+            empresas.add(dto);
+        }
+        return empresas;
+    }
+
+    /**
+     * Empresas por lista de IDs (resultado del índice de búsqueda)
+     */
+    public List<EmpresaDTO> empresasPorIds(SeleccionCampos campos, Collection<Long> ids) {
+        return empresas(ConsultaEmpresa.IDS, ids, campos, null, null);
+    }
+
+    /**
+     * Empresas por lista de CIFs (consulta múltiple)
+     */
+    public List<EmpresaDTO> empresasPorCifs(SeleccionCampos campos, Collection<String> cifs) {
+        return empresas(ConsultaEmpresa.CIFS, cifs, campos, null, null);
+    }
+
+    /**
+     * Página de sedes (limite + 1 filas según el Pageable) con las columnas seleccionadas
+     */
+    public List<SedeDTO> sedes(ConsultaSede consulta, Object valor, SeleccionCampos campos,
+                               Long afterId, Pageable pageable) {
+        ConsultaPreparada<CampoSede> preparada = consultasSede.get(
+                consulta.name() + "|" + campos.getClave(), clave -> prepararSedes(consulta, campos));
+
+        TypedQuery<Tuple> query = entityManager.createQuery(preparada.jpql, Tuple.class);
+        parametros(query, consulta.condicion, valor, afterId, pageable);
+
+        List<Tuple> filas = query.getResultList();
+        List<SedeDTO> sedes = new ArrayList<>(filas.size());
+        for (Tuple fila : filas) {
+            SedeDTO dto = new SedeDTO();
+            for (int i = 0; i < preparada.columnas.size(); i++) {
+                preparada.columnas.get(i).asignar(dto, fila.get(i));
+            }
+            sedes.add(dto);
+        }
+        return sedes;
+    }
+
+    /**
+     * Sedes por lista de IDs (resultado del índice de búsqueda)
+     */
+    public List<SedeDTO> sedesPorIds(SeleccionCampos campos, Collection<Long> ids) {
+        return sedes(ConsultaSede.IDS, ids, campos, null, null);
+    }
+
+    /**
+     * Sedes de un bloque de empresas (una consulta IN), con empresaId siempre leído
+     */
+    public List<SedeDTO> sedesPorEmpresas(SeleccionCampos campos, Collection<Long> empresaIds) {
+        return sedes(ConsultaSede.EMPRESA_IDS, empresaIds, campos, null, null);
+    }
+
+    private static ConsultaPreparada<CampoEmpresa> prepararEmpresas(ConsultaEmpresa consulta,
+                                                                    SeleccionCampos campos) {
+        List<CampoEmpresa> columnas = new ArrayList<>();
+        List<String> rutas = new ArrayList<>();
+        for (CampoEmpresa campo : CampoEmpresa.values()) {
+            if (campos.incluye(campo.getNombre()) || campo == consulta.adicional) {
+                columnas.add(campo);
+                rutas.add(campo.getRuta());
+            }
+        }
+        return new ConsultaPreparada<>(jpql(rutas, "Empresa e", consulta.condicion, "e.id"), columnas);
+    }
+
+    private static ConsultaPreparada<CampoSede> prepararSedes(ConsultaSede consulta, SeleccionCampos campos) {
+        List<CampoSede> columnas = new ArrayList<>();
+        List<String> rutas = new ArrayList<>();
+        for (CampoSede campo : CampoSede.values()) {
+            if (campos.incluye(campo.getNombre()) || campo == consulta.adicional) {
+                columnas.add(campo);
+                rutas.add(campo.getRuta());
+            }
+        }
+        return new ConsultaPreparada<>(jpql(rutas, "Sede s", consulta.condicion, "s.id"), columnas);
+    }
+
+    private static String jpql(List<String> rutas, String entidad, String condicion, String orden) {
+        return "SELECT " + String.join(", ", rutas) + " FROM " + entidad
+                + " WHERE " + condicion + " ORDER BY " + orden;
+    }
+
+    private static void parametros(TypedQuery<Tuple> query, String condicion, Object valor,
+                                   Long afterId, Pageable pageable) {
+        if (condicion.contains(":valor")) {
+            query.setParameter("valor", valor);
+        }
+        if (condicion.contains(":afterId")) {
+            query.setParameter("afterId", afterId);
+        }
+        if (pageable != null) {
+            query.setMaxResults(pageable.getPageSize());
+        }
+    }
+
+    /**
+     * JPQL generado y columnas del SELECT en el mismo orden
+     */
+    private static final class ConsultaPreparada<C> {
+
+        private final String jpql;
+        private final List<C> columnas;
+
+        private ConsultaPreparada(String jpql, List<C> columnas) {
+            this.jpql = jpql;
+            this.columnas = columnas;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.empresa.gestion.repository;
 
+import com.empresa.gestion.dto.SedeDTO;
 import com.empresa.gestion.entity.Sede;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Sede
@@ -20,6 +27,14 @@ import java.util.Optional;
 @Repository
 public interface SedeRepository extends JpaRepository<Sede, Long> {
 
+    /**
+     * Proyección de todas las columnas de Sede directamente a SedeDTO
+     * s.empresa.id se resuelve con la clave ajena empresa_id (sin JOIN ni proxy)
+     */
+    String SELECT_DTO = "SELECT new com.empresa.gestion.dto.SedeDTO(s.id, s.nombre, s.direccion, "
+            + "s.ciudad, s.provincia, s.codigoPostal, s.pais, s.telefono, s.email, s.esPrincipal, "
+            + "s.capacidadAlmacenamiento, s.horarioRecepcion, s.empresa.id, s.version) FROM Sede s ";
+
     /**
      * Buscar todas las sedes de una empresa específica
      */
@@ -40,6 +55,12 @@ public interface SedeRepository extends JpaRepository<Sede, Long> {
      */
     Optional<Sede> findByEmpresaIdAndEsPrincipalTrue(Long empresaId);
 
+    /**
+     * Versión de una sede, sin cargar la entidad (If-None-Match)
+     */
+    @Query("SELECT s.version FROM Sede s WHERE s.id = :id")
+    Optional<Long> buscarVersion(@Param("id") Long id);
+
     /**
      * Buscar sedes por ciudad y empresa
      */
@@ -50,6 +71,29 @@ public interface SedeRepository extends JpaRepository<Sede, Long> {
      */
     long countByEmpresaId(Long empresaId);
 
+    /**
+     * Contar sedes agrupadas por empresa: filas [empresaId, total]
+     * (inicialización y reconciliación de ContadoresEstadisticas)
+     */
+    @Query("SELECT s.empresa.id, COUNT(s) FROM Sede s GROUP BY s.empresa.id")
+    List<Object[]> contarSedesAgrupadasPorEmpresa();
+
+    /**
+     * Contar sedes agrupadas por sector de su empresa: filas [sectorNormalizado, total]
+     */
+    @Query("SELECT e.sectorNormalizado, COUNT(s) FROM Sede s JOIN s.empresa e GROUP BY e.sectorNormalizado")
+    List<Object[]> contarSedesAgrupadasPorSector();
+
+    /**
+     * Sedes y capacidad agrupadas por empresa y ubicación:
+     * filas [empresaId, provinciaNormalizada, ciudadNormalizada, esPrincipal, total, capacidad]
+     * (inicialización y reconciliación de AgregadosGeograficos)
+     */
+    @Query("SELECT s.empresa.id, s.provinciaNormalizada, s.ciudadNormalizada, s.esPrincipal, COUNT(s), "
+            + "SUM(s.capacidadAlmacenamiento) FROM Sede s "
+            + "GROUP BY s.empresa.id, s.provinciaNormalizada, s.ciudadNormalizada, s.esPrincipal")
+    List<Object[]> agregarPorUbicacion();
+
     /**
      * Buscar sedes con capacidad de almacenamiento mayor a un valor
      */
@@ -61,6 +105,82 @@ public interface SedeRepository extends JpaRepository<Sede, Long> {
     @Query("SELECT s FROM Sede s WHERE LOWER(s.nombre) LIKE LOWER(CONCAT('%', :texto, '%'))")
     List<Sede> buscarPorNombre(@Param("texto") String texto);
 
+    // ========================================
+    // ELIMINACIÓN POR LOTES (ver EliminacionService)
+    // ========================================
+
+    /**
+     * Siguiente lote de sedes de una empresa, sin cargar entidades:
+     * filas [id, provinciaNormalizada, ciudadNormalizada, esPrincipal, capacidadAlmacenamiento]
+     */
+    @Query("SELECT s.id, s.provinciaNormalizada, s.ciudadNormalizada, s.esPrincipal, s.capacidadAlmacenamiento "
+            + "FROM Sede s WHERE s.empresa.id = :empresaId ORDER BY s.id")
+    List<Object[]> buscarLoteEliminacion(@Param("empresaId") Long empresaId, Pageable pageable);
+
+    /**
+     * Borrar un lote de sedes de una empresa con un único DELETE
+     * (sin cargar ni eliminar las entidades una a una)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Sede s WHERE s.empresa.id = :empresaId AND s.id IN :ids")
+    int eliminarLote(@Param("empresaId") Long empresaId, @Param("ids") Collection<Long> ids);
+
+    // ========================================
+    // PROYECCIONES A DTO (listados de solo lectura)
+    // ========================================
+
+    /**
+     * Página de todas las sedes (proyección)
+     */
+    @Query(SELECT_DTO + "WHERE s.id > :afterId")
+    List<SedeDTO> listarDTO(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Página de sedes de una empresa (proyección)
+     */
+    @Query(SELECT_DTO + "WHERE s.empresa.id = :empresaId AND s.id > :afterId")
+    List<SedeDTO> listarPorEmpresaDTO(@Param("empresaId") Long empresaId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Página de sedes por ciudad (proyección, columna ciudad_normalizada)
+     */
+    @Query(SELECT_DTO + "WHERE s.ciudadNormalizada = UPPER(:ciudad) AND s.id > :afterId")
+    List<SedeDTO> buscarPorCiudadDTO(@Param("ciudad") String ciudad,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    /**
+     * Página de sedes por provincia (proyección, columna provincia_normalizada)
+     */
+    @Query(SELECT_DTO + "WHERE s.provinciaNormalizada = UPPER(:provincia) AND s.id > :afterId")
+    List<SedeDTO> buscarPorProvinciaDTO(@Param("provincia") String provincia,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Página de sedes por nombre (proyección, búsqueda parcial)
+     */
+    @Query(SELECT_DTO + "WHERE s.id > :afterId "
+            + "AND LOWER(s.nombre) LIKE LOWER(CONCAT('%', :texto, '%'))")
+    List<SedeDTO> buscarPorNombreDTO(@Param("texto") String texto,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    /**
+     * Proyección de una lista de IDs ordenados (resultado del índice de búsqueda)
+     */
+    @Query(SELECT_DTO + "WHERE s.id IN :ids ORDER BY s.id")
+    List<SedeDTO> buscarDTOPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sedes de varias empresas en una sola consulta IN (proyección)
+     * Usado para include=sedes en los listados de empresas
+     */
+    @Query(SELECT_DTO + "WHERE s.empresa.id IN :empresaIds ORDER BY s.id")
+    List<SedeDTO> buscarDTOPorEmpresaIds(@Param("empresaIds") Collection<Long> empresaIds);
+
     /**
      * Verificar si existe una sede principal para una empresa
      */
@@ -72,5 +192,22 @@ public interface SedeRepository extends JpaRepository<Sede, Long> {
      */
     @Query("SELECT s FROM Sede s JOIN FETCH s.empresa WHERE s.empresa.id = :empresaId")
     List<Sede> findSedesConEmpresaByEmpresaId(@Param("empresaId") Long empresaId);
-}
 
+    /**
+     * Recorrer todas las sedes ordenadas por empresa y por ID sin cargarlas en memoria
+     * (mismo orden que EmpresaRepository.streamTodasOrdenadas para combinarlos)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT s FROM Sede s ORDER BY s.empresa.id, s.id")
+    Stream<Sede> streamTodasOrdenadasPorEmpresa();
+
+    /**
+     * Recorrer (id, nombre) de todas las filas para construir el índice de búsqueda
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT s.id, s.nombre FROM Sede s")
+    Stream<Object[]> streamTextosBusqueda();
+}
@@ -0,0 +1,118 @@
+package com.empresa.gestion.repository;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Escrituras de la sincronización por CIF en SQL nativo (H2)
+ * 
+ * - Un único MERGE ... USING (VALUES ...) por lote: inserta los CIFs nuevos y
+ *   sobrescribe los existentes en una sola sentencia
+ * - Las actualizaciones solo se aplican si la versión sigue siendo la leída
+ *   (equivalente al @Version de Empresa); el servicio compara las filas afectadas
+ * - Los IDs nuevos se reservan de empresas_seq en bloques, igual que el
+ *   optimizador pooled de Hibernate, para no colisionar con los persist()
+ * - Al arrancar se consume un valor de empresas_seq (ver cebarSecuencia)
+ */
+@Repository
+public class SincronizacionRepository {
+
+    /** allocationSize de Empresa: cada valor de empresas_seq reserva (valor - 49 .. valor) */
+    private static final int BLOQUE_SECUENCIA = 50;
+
+    private static final String SIGUIENTE_VALOR = "SELECT NEXT VALUE FOR empresas_seq";
+
+    private static final String FILA = "(CAST(? AS BIGINT), CAST(? AS VARCHAR(200)), CAST(? AS VARCHAR(20)), "
+            + "CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(100)), CAST(? AS DATE), "
+            + "CAST(? AS BOOLEAN), CAST(? AS DOUBLE PRECISION), CAST(? AS INTEGER), CAST(? AS BIGINT))";
+
+    private static final String MERGE = "MERGE INTO empresas e USING (VALUES %s) "
+            + "AS s(id, razon_social, cif, email, telefono, sector, fecha_alta, activo, "
+            + "facturacion_anual, numero_empleados, version_leida) "
+            + "ON e.cif = s.cif "
+            + "WHEN MATCHED AND e.version = s.version_leida THEN UPDATE SET "
+            + "razon_social = s.razon_social, email = s.email, telefono = s.telefono, sector = s.sector, "
+            + "activo = s.activo, facturacion_anual = s.facturacion_anual, "
+            + "numero_empleados = s.numero_empleados, version = e.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (id, razon_social, cif, email, telefono, sector, fecha_alta, "
+            + "activo, facturacion_anual, numero_empleados, version) "
+            + "VALUES (s.id, s.razon_social, s.cif, s.email, s.telefono, s.sector, s.fecha_alta, "
+            + "s.activo, s.facturacion_anual, s.numero_empleados, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Consume un valor de empresas_seq antes de que la aplicación genere ningún ID
+     * 
+     * Si la primera lectura del optimizador pooled devuelve justo el initialValue de
+     * Empresa (1000, secuencia recién creada), Hibernate lee otra vez y reparte desde
+     * 1000 hasta ese segundo valor: un bloque reservado aquí entre las dos lecturas
+     * (valor - 49 .. valor) quedaría dentro de ese rango. Tras esta lectura Hibernate
+     * nunca ve el initialValue. Con la secuencia ya en uso solo se pierde un bloque.
+     */
+    @PostConstruct
+    void cebarSecuencia() {
+        entityManager.createNativeQuery(SIGUIENTE_VALOR).getSingleResult();
+    }
+
+    /**
+     * Reserva IDs para empresas nuevas con una sola lectura de la secuencia
+     */
+    public List<Long> reservarIds(int cantidad) {
+        int bloques = (cantidad + BLOQUE_SECUENCIA - 1) / BLOQUE_SECUENCIA;
+        @SuppressWarnings("unchecked")
+        List<Number> maximos = entityManager
+                .createNativeQuery(SIGUIENTE_VALOR + " FROM SYSTEM_RANGE(1, " + bloques + ")")
+                .getResultList();
+
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (Number maximo : maximos) {
+            for (long id = maximo.longValue() - BLOQUE_SECUENCIA + 1;
+                 id <= maximo.longValue() && ids.size() < cantidad; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserta o actualiza las empresas del lote en una única sentencia
+     * 
+     * Cada DTO lleva el ID ya asignado y, en version, la versión leída
+     * (null para las empresas nuevas).
+     * 
+     * @return filas insertadas o actualizadas; menos que empresas.size() si
+     *         alguna ha cambiado (o se ha creado) desde que se leyó
+     */
+    public int fusionar(List<EmpresaDTO> empresas) {
+        String valores = empresas.stream()
+                .map(empresa -> FILA)
+                .collect(Collectors.joining(", "));
+        Query merge = entityManager.createNativeQuery(String.format(MERGE, valores));
+
+        int posicion = 1;
+        for (EmpresaDTO empresa : empresas) {
+            merge.setParameter(posicion++, empresa.getId());
+            merge.setParameter(posicion++, empresa.getRazonSocial());
+            merge.setParameter(posicion++, empresa.getCif());
+            merge.setParameter(posicion++, empresa.getEmail());
+            merge.setParameter(posicion++, empresa.getTelefono());
+            merge.setParameter(posicion++, empresa.getSector());
+            merge.setParameter(posicion++, empresa.getFechaAlta());
+            merge.setParameter(posicion++, empresa.getActivo());
+            merge.setParameter(posicion++, empresa.getFacturacionAnual());
+            merge.setParameter(posicion++, empresa.getNumeroEmpleados());
+            merge.setParameter(posicion++, empresa.getVersion());
+        }
+        return merge.executeUpdate();
+    }
+}
@@ -0,0 +1,282 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.busqueda.IndiceBusqueda;
+import com.empresa.gestion.dto.TrabajoEliminacionDTO;
+import com.empresa.gestion.dto.TrabajoEliminacionDTO.Estado;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos.Aportacion;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eliminación por lotes, en segundo plano, de empresas con muchas sedes
+ * 
+ * RENDIMIENTO:
+ * - Las sedes se borran con un DELETE ... WHERE empresa_id = ? AND id IN (...) por lote,
+ *   sin cargar la colección completa ni un DELETE por entidad (cascada de JPA)
+ * - De cada lote solo se leen id, ubicación normalizada, principal y capacidad (proyección),
+ *   lo justo para invalidar cachés e índice y restar de los agregados
+ * - Cada lote va en su propia transacción: bloqueos y undo acotados a tamano-lote filas
+ * - La empresa se elimina junto con el último lote (EmpresaService.eliminar, ya sin sedes)
+ * - Un único hilo: las eliminaciones se ejecutan de una en una, con cola acotada
+ * 
+ * Mientras dura, la empresa sigue visible con las sedes que le quedan; cada lote
+ * incrementa su versión, así que un If-Match previo deja de coincidir.
+ * El estado de los trabajos se guarda en memoria; una tarea programada (app.eliminacion.purga-ms)
+ * descarta los terminados hace más de app.eliminacion.retencion-minutos.
+ */
+@Service
+public class EliminacionService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EliminacionService.class);
+
+    private final EmpresaRepository empresaRepository;
+    private final SedeRepository sedeRepository;
+    private final EmpresaService empresaService;
+    private final InvalidadorCache invalidadorCache;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ContadoresEstadisticas contadores;
+    private final AgregadosGeograficos agregadosGeograficos;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor ejecutor;
+    private final int tamanoLote;
+    private final long retencionNanos;
+
+    /** Trabajos por ID (activos y terminados dentro del periodo de retención) */
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    /** Trabajo pendiente o en curso por empresa: una sola eliminación a la vez */
+    private final Map<Long, Trabajo> activos = new ConcurrentHashMap<>();
+
+    public EliminacionService(EmpresaRepository empresaRepository,
+                              SedeRepository sedeRepository,
+                              EmpresaService empresaService,
+                              InvalidadorCache invalidadorCache,
+                              IndiceBusqueda indiceBusqueda,
+                              ContadoresEstadisticas contadores,
+                              AgregadosGeograficos agregadosGeograficos,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.eliminacion.tamano-lote:500}") int tamanoLote,
+                              @Value("${app.eliminacion.cola:100}") int cola,
+                              @Value("${app.eliminacion.retencion-minutos:60}") long retencionMinutos) {
+        this.empresaRepository = empresaRepository;
+        this.sedeRepository = sedeRepository;
+        this.empresaService = empresaService;
+        this.invalidadorCache = invalidadorCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.contadores = contadores;
+        this.agregadosGeograficos = agregadosGeograficos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+        this.retencionNanos = TimeUnit.MINUTES.toNanos(retencionMinutos);
+
+        this.ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(1);
+        ejecutor.setMaxPoolSize(1);
+        ejecutor.setQueueCapacity(cola);
+        ejecutor.setThreadNamePrefix("eliminacion-");
+        ejecutor.initialize();
+    }
+
+    /**
+     * Encolar la eliminación de una empresa
+     * 
+     * La existencia y la versión (If-Match) se comprueban antes de encolar.
+     * Si la empresa ya tiene una eliminación pendiente o en curso se devuelve esa.
+     * 
+     * @throws IllegalArgumentException si la empresa no existe
+     * @throws ObjectOptimisticLockingFailureException si la versión no es la esperada
+     * @throws TaskRejectedException si la cola está llena
+     */
+    public TrabajoEliminacionDTO iniciar(Long empresaId, Long versionEsperada) {
+        Empresa empresa = empresaRepository.findById(empresaId)
+                .orElseThrow(() -> new IllegalArgumentException("Empresa no encontrada con ID: " + empresaId));
+        if (versionEsperada != null && !versionEsperada.equals(empresa.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Empresa.class, empresaId);
+        }
+
+        Trabajo nuevo = new Trabajo(UUID.randomUUID().toString(), empresaId);
+        Trabajo existente = activos.putIfAbsent(empresaId, nuevo);
+        if (existente != null) {
+            return existente.toDTO();
+        }
+
+        trabajos.put(nuevo.id, nuevo);
+        try {
+            ejecutor.execute(() -> ejecutar(nuevo));
+        } catch (TaskRejectedException e) {
+            trabajos.remove(nuevo.id);
+            activos.remove(empresaId, nuevo);
+            throw e;
+        }
+        logger.info("Eliminación por lotes de la empresa {} encolada: trabajo {}", empresaId, nuevo.id);
+        return nuevo.toDTO();
+    }
+
+    /**
+     * Estado de un trabajo de eliminación
+     */
+    public Optional<TrabajoEliminacionDTO> obtener(String trabajoId) {
+        return Optional.ofNullable(trabajos.get(trabajoId)).map(Trabajo::toDTO);
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        trabajo.inicio = System.nanoTime();
+        trabajo.estado = Estado.EN_CURSO;
+        try {
+            while (true) {
+                Integer eliminadas = transactionTemplate.execute(status -> eliminarLote(trabajo.empresaId));
+                if (eliminadas == null) {
+                    // Eliminada por otra petición entre lotes (o antes de empezar)
+                    trabajo.mensaje = "La empresa ya no existe";
+                    break;
+                }
+                trabajo.sedesEliminadas += eliminadas;
+                trabajo.lotes++;
+                if (eliminadas < tamanoLote) {
+                    break;
+                }
+            }
+            trabajo.terminar(Estado.COMPLETADO);
+            logger.info("Empresa {} eliminada por lotes: {} sedes en {} lotes ({} ms)",
+                    trabajo.empresaId, trabajo.sedesEliminadas, trabajo.lotes, trabajo.duracionMs());
+        } catch (RuntimeException e) {
+            // Los lotes ya confirmados no se deshacen; se puede relanzar la eliminación
+            trabajo.mensaje = e.getMessage();
+            trabajo.terminar(Estado.FALLIDO);
+            logger.error("Error en la eliminación por lotes de la empresa {} tras {} sedes: {}",
+                    trabajo.empresaId, trabajo.sedesEliminadas, e.getMessage(), e);
+        } finally {
+            activos.remove(trabajo.empresaId, trabajo);
+        }
+    }
+
+    /**
+     * Borra un lote de sedes; si es el último, también la empresa
+     * 
+     * @return sedes eliminadas, o null si la empresa ya no existe
+     */
+    private Integer eliminarLote(Long empresaId) {
+        Optional<Empresa> encontrada = empresaRepository.findById(empresaId);
+        if (!encontrada.isPresent()) {
+            return null;
+        }
+        String cif = encontrada.get().getCif();
+
+        // Solo las columnas que necesitan las cachés y los agregados, sin entidades gestionadas
+        List<Object[]> lote = sedeRepository.buscarLoteEliminacion(empresaId, PageRequest.of(0, tamanoLote));
+        if (!lote.isEmpty()) {
+            List<Long> ids = new ArrayList<>(lote.size());
+            for (Object[] fila : lote) {
+                Long sedeId = (Long) fila[0];
+                ids.add(sedeId);
+                invalidadorCache.sede(sedeId, empresaId);
+                indiceBusqueda.eliminarSede(sedeId);
+                agregadosGeograficos.sedeEliminada(Aportacion.de(empresaId,
+                        (String) fila[1], (String) fila[2], (Boolean) fila[3], (Double) fila[4]));
+            }
+            contadores.sedesEliminadas(empresaId, lote.size());
+            sedeRepository.eliminarLote(empresaId, ids);
+        }
+
+        if (lote.size() < tamanoLote) {
+            // Sin más sedes: la empresa se elimina en la misma transacción que el último lote
+            empresaService.eliminar(empresaId);
+        } else {
+            // El DELETE masivo no pasa por @Version: la empresa cambia de versión igualmente
+            empresaRepository.incrementarVersion(empresaId);
+            invalidadorCache.empresa(empresaId, cif);
+        }
+        return lote.size();
+    }
+
+    /**
+     * Descartar los trabajos terminados hace más de app.eliminacion.retencion-minutos
+     * 
+     * @return número de trabajos descartados
+     */
+    @Scheduled(initialDelayString = "${app.eliminacion.purga-ms:60000}",
+               fixedDelayString = "${app.eliminacion.purga-ms:60000}")
+    public int purgarTerminados() {
+        long ahora = System.nanoTime();
+        int antes = trabajos.size();
+        trabajos.values().removeIf(trabajo -> trabajo.terminado() && ahora - trabajo.fin > retencionNanos);
+        return antes - trabajos.size();
+    }
+
+    @Override
+    public void destroy() {
+        ejecutor.shutdown();
+    }
+
+    /**
+     * Estado mutable de un trabajo; solo lo escribe el hilo de eliminación
+     */
+    private static final class Trabajo {
+
+        final String id;
+        final Long empresaId;
+        volatile Estado estado = Estado.PENDIENTE;
+        volatile long sedesEliminadas;
+        volatile int lotes;
+        volatile String mensaje;
+        volatile long inicio;
+        volatile long fin;
+
+        Trabajo(String id, Long empresaId) {
+            this.id = id;
+            this.empresaId = empresaId;
+        }
+
+        void terminar(Estado estadoFinal) {
+            fin = System.nanoTime();
+            estado = estadoFinal;
+        }
+
+        boolean terminado() {
+            return estado == Estado.COMPLETADO || estado == Estado.FALLIDO;
+        }
+
+        long duracionMs() {
+            if (inicio == 0) {
+                return 0;
+            }
+            long hasta = fin != 0 ? fin : System.nanoTime();
+            return TimeUnit.NANOSECONDS.toMillis(hasta - inicio);
+        }
+
+        TrabajoEliminacionDTO toDTO() {
+            TrabajoEliminacionDTO dto = new TrabajoEliminacionDTO();
+            dto.setId(id);
+            dto.setEmpresaId(empresaId);
+            dto.setEstado(estado);
+            dto.setSedesEliminadas(sedesEliminadas);
+            dto.setLotes(lotes);
+            dto.setMensaje(mensaje);
+            dto.setDuracionMs(duracionMs());
+            return dto;
+        }
+    }
+}
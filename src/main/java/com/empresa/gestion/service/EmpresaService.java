@@ -1,16 +1,54 @@
 package com.empresa.gestion.service;
 
+import com.empresa.gestion.busqueda.IndiceBusqueda;
+import com.empresa.gestion.busqueda.IndiceTrigramas;
+import com.empresa.gestion.coalescencia.Coalescedor;
+import com.empresa.gestion.coalescencia.CoalescenciaProperties;
+import com.empresa.gestion.campos.SeleccionCampos;
+import com.empresa.gestion.config.CacheConfig;
 import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.EstadisticasSectorDTO;
+import com.empresa.gestion.dto.PaginaDTO;
+import com.empresa.gestion.dto.SedeDTO;
 import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
 import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.paginacion.SolicitudPagina;
 import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.ProyeccionRepository;
+import com.empresa.gestion.repository.ProyeccionRepository.ConsultaEmpresa;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Restricciones;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio para la lógica de negocio de Empresas
@@ -20,6 +58,10 @@ import java.util.Optional;
  * - Se comunica con la capa de repositorio (datos)
  * - Es utilizada por la capa de controladores
  * 
+ * LECTURAS PUNTUALES:
+ * - obtenerPorId / obtenerPorCif se cachean; los fallos de caché concurrentes se
+ *   agrupan en una consulta IN por lote (ver Coalescedor, app.coalescencia.*)
+ * 
  * JAVA 8 + SPRING BOOT 2.7:
  * - Optional para manejar nulos de forma segura
  * - Transacciones con @Transactional
@@ -31,61 +73,177 @@ public class EmpresaService {
     private static final Logger logger = LoggerFactory.getLogger(EmpresaService.class);
 
     private final EmpresaRepository empresaRepository;
+    private final SedeRepository sedeRepository;
+    private final ProyeccionRepository proyecciones;
     private final EmpresaMapper empresaMapper;
+    private final InvalidadorCache invalidadorCache;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ContadoresEstadisticas contadores;
+    private final AgregadosGeograficos agregadosGeograficos;
+    private final CacheManager cacheManager;
+    private final Coalescedor<Long, EmpresaDTO> lecturasPorId;
+    private final Coalescedor<String, EmpresaDTO> lecturasPorCif;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public EmpresaService(EmpresaRepository empresaRepository, EmpresaMapper empresaMapper) {
+    public EmpresaService(EmpresaRepository empresaRepository,
+                          SedeRepository sedeRepository,
+                          ProyeccionRepository proyecciones,
+                          EmpresaMapper empresaMapper,
+                          InvalidadorCache invalidadorCache,
+                          IndiceBusqueda indiceBusqueda,
+                          ContadoresEstadisticas contadores,
+                          AgregadosGeograficos agregadosGeograficos,
+                          CacheManager cacheManager,
+                          CoalescenciaProperties coalescencia,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry registry) {
         this.empresaRepository = empresaRepository;
+        this.sedeRepository = sedeRepository;
+        this.proyecciones = proyecciones;
         this.empresaMapper = empresaMapper;
+        this.invalidadorCache = invalidadorCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.contadores = contadores;
+        this.agregadosGeograficos = agregadosGeograficos;
+        this.cacheManager = cacheManager;
+
+        // Cada lote lee empresas y sedes en su propia transacción de solo lectura
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        this.lecturasPorId = new Coalescedor<>("empresas-por-id",
+                ids -> lectura.execute(estado ->
+                        conSedes(empresaRepository.buscarDTOPorIds(ids), EmpresaDTO::getId)),
+                coalescencia, registry);
+        this.lecturasPorCif = new Coalescedor<>("empresas-por-cif",
+                cifs -> lectura.execute(estado ->
+                        conSedes(empresaRepository.buscarDTOPorCifs(cifs), EmpresaDTO::getCif)),
+                coalescencia, registry);
     }
 
     /**
-     * Obtener todas las empresas
+     * Obtener todas las empresas (paginado por cursor)
+     * 
+     * Los listados no incluyen sedes salvo que la selección las pida
+     * (include=sedes o fields=sedes(...)), en cuyo caso se cargan en bloque
+     * para toda la página. Se leen como proyecciones a DTO, sin hidratar
+     * entidades, y solo con las columnas seleccionadas (?fields=).
      */
     @Transactional(readOnly = true)
-    public List<EmpresaDTO> obtenerTodas() {
-        logger.debug("Obteniendo todas las empresas");
-        List<Empresa> empresas = empresaRepository.findAll();
-        return empresaMapper.toDTOList(empresas);
+    public PaginaDTO<EmpresaDTO> obtenerTodas(SolicitudPagina pagina, SeleccionCampos campos) {
+        logger.debug("Obteniendo todas las empresas después del ID: {}", pagina.getAfterId());
+        List<EmpresaDTO> empresas = campos.todosLosCampos()
+                ? empresaRepository.listarDTO(pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.empresas(ConsultaEmpresa.TODAS, null, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(empresas, pagina, campos);
     }
 
     /**
-     * Obtener empresa por ID
+     * Obtener empresa por ID (cacheado, ver CacheConfig)
+     * 
+     * En un fallo de caché la lectura se agrupa con las concurrentes en una consulta IN.
+     * Sin transacción propia: la abre el lote, y las lecturas que esperan a otro lote
+     * no retienen una conexión.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.EMPRESAS_POR_ID, key = "#id")
     public Optional<EmpresaDTO> obtenerPorId(Long id) {
         logger.debug("Buscando empresa con ID: {}", id);
-        return empresaRepository.findById(id)
-                .map(empresaMapper::toDTO);
+        return Optional.ofNullable(lecturasPorId.cargar(id));
     }
 
     /**
-     * Obtener empresa por CIF
+     * Obtener empresa por CIF (cacheado y agrupado como obtenerPorId)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.EMPRESAS_POR_CIF, key = "#cif")
     public Optional<EmpresaDTO> obtenerPorCif(String cif) {
         logger.debug("Buscando empresa con CIF: {}", cif);
-        return empresaRepository.findByCif(cif)
-                .map(empresaMapper::toDTO);
+        return Optional.ofNullable(lecturasPorCif.cargar(cif));
+    }
+
+    /**
+     * Obtener varias empresas por ID con una única consulta IN
+     * 
+     * Se devuelven en el orden pedido; los IDs inexistentes se omiten.
+     * Las sedes solo se incluyen si la selección las pide (como en los listados).
+     */
+    @Transactional(readOnly = true)
+    public List<EmpresaDTO> obtenerPorIds(List<Long> ids, SeleccionCampos campos) {
+        logger.debug("Buscando {} empresas por ID", ids.size());
+        List<EmpresaDTO> filas = campos.todosLosCampos()
+                ? empresaRepository.buscarDTOPorIds(ids)
+                : proyecciones.empresasPorIds(campos, ids);
+        return enOrden(ids, filas, EmpresaDTO::getId, campos);
+    }
+
+    /**
+     * Obtener varias empresas por CIF con una única consulta IN (ver obtenerPorIds)
+     */
+    @Transactional(readOnly = true)
+    public List<EmpresaDTO> obtenerPorCifs(List<String> cifs, SeleccionCampos campos) {
+        logger.debug("Buscando {} empresas por CIF", cifs.size());
+        List<EmpresaDTO> filas = campos.todosLosCampos()
+                ? empresaRepository.buscarDTOPorCifs(cifs)
+                : proyecciones.empresasPorCifs(campos, cifs);
+        return enOrden(cifs, filas, EmpresaDTO::getCif, campos);
+    }
+
+    /**
+     * Versión actual de una empresa (ETag), para responder 304 sin leer ni mapear la fila
+     * 
+     * Si el DTO está en caché se usa su versión (la caché se invalida tras cada commit);
+     * si no, se consulta solo la columna version por clave primaria.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Long> obtenerVersion(Long id) {
+        EmpresaDTO cacheada = enCache(CacheConfig.EMPRESAS_POR_ID, id);
+        if (cacheada != null) {
+            return Optional.ofNullable(cacheada.getVersion());
+        }
+        return empresaRepository.buscarVersion(id);
+    }
+
+    /**
+     * Versión actual de una empresa por CIF (ver obtenerVersion)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Long> obtenerVersionPorCif(String cif) {
+        EmpresaDTO cacheada = enCache(CacheConfig.EMPRESAS_POR_CIF, cif);
+        if (cacheada != null) {
+            return Optional.ofNullable(cacheada.getVersion());
+        }
+        return empresaRepository.buscarVersionPorCif(cif);
     }
 
     /**
      * Crear una nueva empresa
      * 
      * Validaciones de negocio:
-     * - El CIF no debe existir previamente
+     * - El CIF no debe existir previamente: lo garantiza uk_empresas_cif sin
+     *   consulta previa; el flush detecta la violación aquí (IllegalArgumentException)
      */
     public EmpresaDTO crear(EmpresaDTO empresaDTO) {
-        logger.info("Creando nueva empresa: {}", empresaDTO.getRazonSocial());
+        logger.debug("Creando nueva empresa: {}", empresaDTO.getRazonSocial());
 
-        // Validación: CIF único
-        if (empresaRepository.existsByCif(empresaDTO.getCif())) {
-            throw new IllegalArgumentException("Ya existe una empresa con el CIF: " + empresaDTO.getCif());
+        Empresa empresa = empresaMapper.toEntity(empresaDTO);
+        Empresa empresaGuardada;
+        try {
+            empresaGuardada = empresaRepository.saveAndFlush(empresa);
+        } catch (DataIntegrityViolationException e) {
+            throw cifDuplicado(e, empresaDTO.getCif());
         }
 
-        Empresa empresa = empresaMapper.toEntity(empresaDTO);
-        Empresa empresaGuardada = empresaRepository.save(empresa);
+        // Puede haber búsquedas fallidas cacheadas para este ID o CIF
+        invalidadorCache.empresa(empresaGuardada.getId(), empresaGuardada.getCif());
+        indiceBusqueda.indexarEmpresa(empresaGuardada.getId(), empresaGuardada.getRazonSocial());
+        if (Boolean.TRUE.equals(empresaGuardada.getActivo())) {
+            contadores.empresaActivada();
+        }
         
-        logger.info("Empresa creada con ID: {}", empresaGuardada.getId());
+        logger.debug("Empresa creada con ID: {}", empresaGuardada.getId());
         return empresaMapper.toDTO(empresaGuardada);
     }
 
@@ -93,21 +251,39 @@ public class EmpresaService {
      * Actualizar una empresa existente
      */
     public EmpresaDTO actualizar(Long id, EmpresaDTO empresaDTO) {
-        logger.info("Actualizando empresa con ID: {}", id);
+        return actualizar(id, empresaDTO, null);
+    }
+
+    /**
+     * Actualizar una empresa existente si su versión es la esperada (If-Match)
+     * 
+     * - versionEsperada null: sin precondición
+     * - Versión distinta, o modificada por otra transacción antes del commit:
+     *   ObjectOptimisticLockingFailureException
+     */
+    public EmpresaDTO actualizar(Long id, EmpresaDTO empresaDTO, Long versionEsperada) {
+        logger.debug("Actualizando empresa con ID: {}", id);
 
         Empresa empresaExistente = empresaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Empresa no encontrada con ID: " + id));
+        comprobarVersion(empresaExistente, versionEsperada);
 
-        // Validar CIF único si se ha modificado
-        if (!empresaExistente.getCif().equals(empresaDTO.getCif()) 
-                && empresaRepository.existsByCif(empresaDTO.getCif())) {
-            throw new IllegalArgumentException("Ya existe una empresa con el CIF: " + empresaDTO.getCif());
-        }
-
+        String cifAnterior = empresaExistente.getCif();
+        boolean estabaActiva = Boolean.TRUE.equals(empresaExistente.getActivo());
         empresaMapper.updateEntityFromDTO(empresaDTO, empresaExistente);
-        Empresa empresaActualizada = empresaRepository.save(empresaExistente);
+        // flush: el DTO devuelto (y su ETag) lleva ya la versión incrementada, y un
+        // CIF nuevo ya usado por otra empresa viola uk_empresas_cif aquí mismo
+        Empresa empresaActualizada;
+        try {
+            empresaActualizada = empresaRepository.saveAndFlush(empresaExistente);
+        } catch (DataIntegrityViolationException e) {
+            throw cifDuplicado(e, empresaDTO.getCif());
+        }
+        invalidadorCache.empresa(id, cifAnterior, empresaActualizada.getCif());
+        indiceBusqueda.indexarEmpresa(id, empresaActualizada.getRazonSocial());
+        actualizarContadorActivas(estabaActiva, empresaActualizada.getActivo());
         
-        logger.info("Empresa actualizada: {}", empresaActualizada.getId());
+        logger.debug("Empresa actualizada: {}", empresaActualizada.getId());
         return empresaMapper.toDTO(empresaActualizada);
     }
 
@@ -115,82 +291,380 @@ public class EmpresaService {
      * Eliminar una empresa
      */
     public void eliminar(Long id) {
-        logger.info("Eliminando empresa con ID: {}", id);
+        eliminar(id, null);
+    }
+
+    /**
+     * Eliminar una empresa si su versión es la esperada (If-Match, ver actualizar)
+     */
+    public void eliminar(Long id, Long versionEsperada) {
+        logger.debug("Eliminando empresa con ID: {}", id);
+
+        Empresa empresa = empresaRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Empresa no encontrada con ID: " + id));
+        comprobarVersion(empresa, versionEsperada);
 
-        if (!empresaRepository.existsById(id)) {
-            throw new IllegalArgumentException("Empresa no encontrada con ID: " + id);
+        // Las sedes se eliminan en cascada: invalidar también sus entradas
+        for (Sede sede : empresa.getSedes()) {
+            invalidadorCache.sede(sede.getId(), id);
+            indiceBusqueda.eliminarSede(sede.getId());
+            agregadosGeograficos.sedeEliminada(sede);
         }
+        invalidadorCache.empresa(id, empresa.getCif());
+        indiceBusqueda.eliminarEmpresa(id);
+        contadores.empresaEliminada(id, Boolean.TRUE.equals(empresa.getActivo()));
 
-        empresaRepository.deleteById(id);
-        logger.info("Empresa eliminada: {}", id);
+        empresaRepository.delete(empresa);
+        logger.debug("Empresa eliminada: {}", id);
     }
 
     /**
-     * Buscar empresas activas
+     * Buscar empresas activas (paginado por cursor)
      */
     @Transactional(readOnly = true)
-    public List<EmpresaDTO> obtenerActivas() {
+    public PaginaDTO<EmpresaDTO> obtenerActivas(SolicitudPagina pagina, SeleccionCampos campos) {
         logger.debug("Obteniendo empresas activas");
-        List<Empresa> empresas = empresaRepository.findByActivoTrue();
-        return empresaMapper.toDTOList(empresas);
+        List<EmpresaDTO> empresas = campos.todosLosCampos()
+                ? empresaRepository.listarActivasDTO(pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.empresas(ConsultaEmpresa.ACTIVAS, null, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(empresas, pagina, campos);
     }
 
     /**
-     * Buscar empresas por sector
+     * Buscar empresas por sector (paginado por cursor)
      */
     @Transactional(readOnly = true)
-    public List<EmpresaDTO> buscarPorSector(String sector) {
+    public PaginaDTO<EmpresaDTO> buscarPorSector(String sector, SolicitudPagina pagina, SeleccionCampos campos) {
         logger.debug("Buscando empresas del sector: {}", sector);
-        List<Empresa> empresas = empresaRepository.findBySectorIgnoreCase(sector);
-        return empresaMapper.toDTOList(empresas);
+        List<EmpresaDTO> empresas = campos.todosLosCampos()
+                ? empresaRepository.buscarPorSectorDTO(sector, pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.empresas(ConsultaEmpresa.SECTOR, sector, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(empresas, pagina, campos);
     }
 
     /**
-     * Buscar empresas por razón social (búsqueda parcial)
+     * Buscar empresas por razón social (búsqueda parcial, paginado por cursor)
+     * 
+     * Los IDs candidatos se resuelven con el índice de trigramas en memoria y solo
+     * se leen esas filas; si el índice no puede resolverla se usa LIKE en base de datos.
      */
     @Transactional(readOnly = true)
-    public List<EmpresaDTO> buscarPorRazonSocial(String texto) {
+    public PaginaDTO<EmpresaDTO> buscarPorRazonSocial(String texto, SolicitudPagina pagina,
+                                                      SeleccionCampos campos) {
         logger.debug("Buscando empresas por razón social: {}", texto);
-        List<Empresa> empresas = empresaRepository.buscarPorRazonSocial(texto);
-        return empresaMapper.toDTOList(empresas);
+
+        if (!indiceBusqueda.puedeResolver(texto)) {
+            List<EmpresaDTO> empresas = campos.todosLosCampos()
+                    ? empresaRepository.buscarPorRazonSocialDTO(texto, pagina.getAfterId(), pagina.toPageable())
+                    : proyecciones.empresas(ConsultaEmpresa.RAZON_SOCIAL, texto, campos,
+                            pagina.getAfterId(), pagina.toPageable());
+            return toPagina(empresas, pagina, campos);
+        }
+
+        return toPagina(coincidenciasIndice(texto, pagina, campos), pagina, campos);
+    }
+
+    /**
+     * Filas de los candidatos del índice de búsqueda que siguen coincidiendo, hasta limite + 1
+     * 
+     * Cada candidato se comprueba de nuevo contra la fila leída por si el índice aún no refleja
+     * un cambio (la proyección parcial lee siempre la razón social, aunque no se devuelva).
+     * Si se descarta alguno se piden más candidatos a partir del último, para que la página
+     * no se quede corta ni pierda el cursor siguiente cuando quedan coincidencias.
+     */
+    private List<EmpresaDTO> coincidenciasIndice(String texto, SolicitudPagina pagina, SeleccionCampos campos) {
+        String consulta = IndiceTrigramas.normalizar(texto);
+        int filas = pagina.getLimite() + 1;
+        List<EmpresaDTO> empresas = new ArrayList<>(filas);
+        Long afterId = pagina.getAfterId();
+
+        while (empresas.size() < filas) {
+            int faltan = filas - empresas.size();
+            List<Long> ids = indiceBusqueda.buscarEmpresas(texto, afterId, faltan);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<EmpresaDTO> candidatas = campos.todosLosCampos()
+                    ? empresaRepository.buscarDTOPorIds(ids)
+                    : proyecciones.empresasPorIds(campos, ids);
+            for (EmpresaDTO empresa : candidatas) {
+                if (IndiceTrigramas.normalizar(empresa.getRazonSocial()).contains(consulta)) {
+                    empresas.add(empresa);
+                }
+            }
+            if (ids.size() < faltan) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        return empresas;
     }
 
     /**
      * Desactivar una empresa (soft delete)
      */
     public void desactivar(Long id) {
-        logger.info("Desactivando empresa con ID: {}", id);
+        logger.debug("Desactivando empresa con ID: {}", id);
 
         Empresa empresa = empresaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Empresa no encontrada con ID: " + id));
 
+        boolean estabaActiva = Boolean.TRUE.equals(empresa.getActivo());
         empresa.setActivo(false);
         empresaRepository.save(empresa);
+        invalidadorCache.empresa(id, empresa.getCif());
+        actualizarContadorActivas(estabaActiva, false);
         
-        logger.info("Empresa desactivada: {}", id);
+        logger.debug("Empresa desactivada: {}", id);
     }
 
     /**
      * Activar una empresa
      */
     public void activar(Long id) {
-        logger.info("Activando empresa con ID: {}", id);
+        logger.debug("Activando empresa con ID: {}", id);
 
         Empresa empresa = empresaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Empresa no encontrada con ID: " + id));
 
+        boolean estabaActiva = Boolean.TRUE.equals(empresa.getActivo());
         empresa.setActivo(true);
         empresaRepository.save(empresa);
+        invalidadorCache.empresa(id, empresa.getCif());
+        actualizarContadorActivas(estabaActiva, true);
         
-        logger.info("Empresa activada: {}", id);
+        logger.debug("Empresa activada: {}", id);
     }
 
     /**
-     * Obtener estadísticas
+     * Activar o desactivar varias empresas por ID con un único UPDATE
+     * 
+     * @return empresas que han cambiado de estado (IDs inexistentes o ya en ese estado no cuentan)
+     */
+    public int cambiarActivoPorIds(List<Long> ids, boolean activo) {
+        logger.debug("Cambiando activo={} en {} empresas por ID", activo, ids.size());
+        return activoCambiado(empresaRepository.cambiarActivoPorIds(ids, activo), activo);
+    }
+
+    /**
+     * Activar o desactivar todas las empresas de un sector con un único UPDATE
+     */
+    public int cambiarActivoPorSector(String sector, boolean activo) {
+        logger.debug("Cambiando activo={} en el sector {}", activo, sector);
+        return activoCambiado(empresaRepository.cambiarActivoPorSector(sector, activo), activo);
+    }
+
+    /**
+     * Activar o desactivar las empresas con facturación mayor a un valor con un único UPDATE
+     */
+    public int cambiarActivoPorFacturacion(Double facturacion, boolean activo) {
+        logger.debug("Cambiando activo={} en empresas con facturación > {}", activo, facturacion);
+        return activoCambiado(empresaRepository.cambiarActivoPorFacturacion(facturacion, activo), activo);
+    }
+
+    /**
+     * Tras un UPDATE masivo de activo: las filas afectadas son la variación de activas.
+     * No se sabe qué empresas eran, así que se vacían las cachés de empresas.
+     */
+    private int activoCambiado(int afectadas, boolean activo) {
+        if (afectadas > 0) {
+            invalidadorCache.empresas();
+            contadores.empresasActivasCambiadas(activo ? afectadas : -afectadas);
+        }
+        return afectadas;
+    }
+
+    /**
+     * Exportar todas las empresas con sus sedes, una a una y a memoria constante
+     * 
+     * - Combina dos cursores ordenados (empresas por id, sedes por empresa_id)
+     *   en lugar de cargar la colección de cada empresa (sin N+1)
+     * - Cada DTO se entrega al consumidor en cuanto se mapea
+     * - Las entidades se desvinculan del contexto de persistencia tras entregarse
+     * - Sin incluirSedes (?fields= sin sedes) no se abre el cursor de sedes
+     * 
+     * @return número de empresas exportadas
      */
     @Transactional(readOnly = true)
+    public long exportar(boolean incluirSedes, Consumer<EmpresaDTO> consumidor) {
+        logger.debug("Iniciando exportación completa de empresas");
+        long total = 0;
+
+        try (Stream<Empresa> empresas = empresaRepository.streamTodasOrdenadas();
+             Stream<Sede> sedes = incluirSedes
+                     ? sedeRepository.streamTodasOrdenadasPorEmpresa()
+                     : Stream.empty()) {
+
+            Iterator<Sede> iteradorSedes = sedes.iterator();
+            Sede siguienteSede = iteradorSedes.hasNext() ? iteradorSedes.next() : null;
+
+            Iterator<Empresa> iteradorEmpresas = empresas.iterator();
+            while (iteradorEmpresas.hasNext()) {
+                Empresa empresa = iteradorEmpresas.next();
+                List<Sede> sedesEmpresa = new ArrayList<>();
+
+                // Avanzar el cursor de sedes hasta la empresa actual
+                while (siguienteSede != null
+                        && siguienteSede.getEmpresa().getId() <= empresa.getId()) {
+                    if (siguienteSede.getEmpresa().getId().equals(empresa.getId())) {
+                        sedesEmpresa.add(siguienteSede);
+                    } else {
+                        entityManager.detach(siguienteSede);
+                    }
+                    siguienteSede = iteradorSedes.hasNext() ? iteradorSedes.next() : null;
+                }
+
+                consumidor.accept(empresaMapper.toDTO(empresa, sedesEmpresa));
+
+                sedesEmpresa.forEach(entityManager::detach);
+                entityManager.detach(empresa);
+                total++;
+            }
+        }
+
+        logger.debug("Exportación completada: {} empresas", total);
+        return total;
+    }
+
+    /**
+     * Obtener estadísticas
+     * 
+     * Se sirve desde los contadores en memoria (sin transacción ni conexión);
+     * solo se consulta la base de datos mientras aún no están inicializados.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public long contarEmpresasActivas() {
+        if (contadores.isListo()) {
+            return contadores.contarEmpresasActivas();
+        }
         return empresaRepository.countByActivoTrue();
     }
-}
 
+    /**
+     * Agregados por sector: empresas, activas, facturación, empleados y sedes
+     * 
+     * - Dos consultas GROUP BY (empresas y sedes por sector), sin cargar filas
+     * - Cacheado (una única entrada); cualquier escritura de empresas o sedes lo
+     *   invalida tras el commit (InvalidadorCache) y la siguiente lectura lo recalcula
+     * - sync: las peticiones concurrentes tras una invalidación esperan un único cálculo
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.ESTADISTICAS_SECTORES, key = "'sectores'", sync = true)
+    public List<EstadisticasSectorDTO> estadisticasPorSector() {
+        logger.debug("Calculando estadísticas por sector");
+        List<EstadisticasSectorDTO> sectores = empresaRepository.agregarPorSector();
+
+        Map<String, Long> sedes = new HashMap<>();
+        for (Object[] fila : sedeRepository.contarSedesAgrupadasPorSector()) {
+            sedes.put((String) fila[0], (Long) fila[1]);
+        }
+        for (EstadisticasSectorDTO sector : sectores) {
+            sector.setSedes(sedes.getOrDefault(sector.getSector(), 0L));
+        }
+        return Collections.unmodifiableList(sectores);
+    }
+
+    /**
+     * Traduce la violación de uk_empresas_cif al error de validación de siempre (400)
+     */
+    private static RuntimeException cifDuplicado(DataIntegrityViolationException e, String cif) {
+        if (Restricciones.violada(e, Restricciones.CIF_EMPRESA)) {
+            return new IllegalArgumentException("Ya existe una empresa con el CIF: " + cif);
+        }
+        return e;
+    }
+
+    /**
+     * Precondición If-Match: la versión leída debe ser la que conoce el cliente
+     * (el UPDATE/DELETE vuelve a comprobarla en la cláusula WHERE)
+     */
+    private static void comprobarVersion(Empresa empresa, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(empresa.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Empresa.class, empresa.getId());
+        }
+    }
+
+    /**
+     * DTO cacheado por obtenerPorId / obtenerPorCif, o null si no está (o se cacheó "no encontrada")
+     */
+    private EmpresaDTO enCache(String nombreCache, Object clave) {
+        Cache cache = cacheManager.getCache(nombreCache);
+        return cache != null ? cache.get(clave, EmpresaDTO.class) : null;
+    }
+
+    /**
+     * Refleja en los contadores un cambio del flag activo (tras el commit)
+     */
+    private void actualizarContadorActivas(boolean estabaActiva, Boolean activa) {
+        boolean estaActiva = Boolean.TRUE.equals(activa);
+        if (estaActiva && !estabaActiva) {
+            contadores.empresaActivada();
+        } else if (!estaActiva && estabaActiva) {
+            contadores.empresaDesactivada();
+        }
+    }
+
+    /**
+     * Convierte las filas leídas (limite + 1) en una página con cursor.
+     * La fila extra se descarta antes de cargar sedes.
+     */
+    private PaginaDTO<EmpresaDTO> toPagina(List<EmpresaDTO> empresas, SolicitudPagina pagina,
+                                           SeleccionCampos campos) {
+        PaginaDTO<EmpresaDTO> resultado = PaginaDTO.de(empresas, pagina.getLimite(), EmpresaDTO::getId);
+        if (campos.incluyeSedes()) {
+            asignarSedes(resultado.getContenido(), campos.getSedes());
+        }
+        return resultado;
+    }
+
+    /**
+     * Ordena las filas de una consulta múltiple según las claves pedidas y carga sus sedes
+     */
+    private <K> List<EmpresaDTO> enOrden(List<K> claves, List<EmpresaDTO> filas,
+                                         Function<EmpresaDTO, K> clave, SeleccionCampos campos) {
+        Map<K, EmpresaDTO> porClave = filas.stream()
+                .collect(Collectors.toMap(clave, Function.identity()));
+        List<EmpresaDTO> empresas = claves.stream()
+                .map(porClave::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (campos.incluyeSedes()) {
+            asignarSedes(empresas, campos.getSedes());
+        }
+        return empresas;
+    }
+
+    /**
+     * Resultado de un lote de lecturas puntuales: empresas completas, con sus sedes, por clave
+     */
+    private <K> Map<K, EmpresaDTO> conSedes(List<EmpresaDTO> empresas, Function<EmpresaDTO, K> clave) {
+        asignarSedes(empresas, SeleccionCampos.sedes());
+        return empresas.stream()
+                .collect(Collectors.toMap(clave, Function.identity()));
+    }
+
+    /**
+     * Asigna a un bloque de empresas sus sedes, leídas con una única
+     * consulta IN (proyección a SedeDTO) y agrupadas por ID de empresa
+     */
+    private void asignarSedes(List<EmpresaDTO> empresas, SeleccionCampos camposSedes) {
+        if (empresas.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = empresas.stream()
+                .map(EmpresaDTO::getId)
+                .collect(Collectors.toList());
+
+        List<SedeDTO> filas = camposSedes.todosLosCampos()
+                ? sedeRepository.buscarDTOPorEmpresaIds(ids)
+                : proyecciones.sedesPorEmpresas(camposSedes, ids);
+        Map<Long, List<SedeDTO>> sedes = filas.stream()
+                .collect(Collectors.groupingBy(SedeDTO::getEmpresaId));
+        for (EmpresaDTO empresa : empresas) {
+            empresa.setSedes(sedes.getOrDefault(empresa.getId(), new ArrayList<>()));
+        }
+    }
+}
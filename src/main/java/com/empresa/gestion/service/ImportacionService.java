@@ -0,0 +1,309 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.busqueda.IndiceBusqueda;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.ResultadoImportacionDTO;
+import com.empresa.gestion.dto.ResultadoRegistroDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.mapper.SedeMapper;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de importación masiva de empresas con sus sedes
+ * 
+ * RENDIMIENTO:
+ * - Los registros se procesan en lotes, cada lote en su propia transacción
+ * - Un único SELECT ... IN por lote para detectar CIFs existentes
+ * - Los INSERT se agrupan con el batching JDBC de Hibernate
+ *   (hibernate.jdbc.batch_size + IDs por secuencia pooled)
+ * - El contexto de persistencia se vacía tras cada lote
+ * 
+ * Un lote fallido no afecta a los lotes ya confirmados.
+ */
+@Service
+public class ImportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionService.class);
+
+    private final EmpresaRepository empresaRepository;
+    private final EmpresaMapper empresaMapper;
+    private final SedeMapper sedeMapper;
+    private final Validator validator;
+    private final InvalidadorCache invalidadorCache;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ContadoresEstadisticas contadores;
+    private final AgregadosGeograficos agregadosGeograficos;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ImportacionService(EmpresaRepository empresaRepository,
+                              EmpresaMapper empresaMapper,
+                              SedeMapper sedeMapper,
+                              Validator validator,
+                              InvalidadorCache invalidadorCache,
+                              IndiceBusqueda indiceBusqueda,
+                              ContadoresEstadisticas contadores,
+                              AgregadosGeograficos agregadosGeograficos,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.importacion.tamano-lote:500}") int tamanoLote) {
+        this.empresaRepository = empresaRepository;
+        this.empresaMapper = empresaMapper;
+        this.sedeMapper = sedeMapper;
+        this.validator = validator;
+        this.invalidadorCache = invalidadorCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.contadores = contadores;
+        this.agregadosGeograficos = agregadosGeograficos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importar empresas (con sus sedes embebidas) leyendo del iterador por lotes
+     * 
+     * El iterador puede ser una lista ya deserializada o un flujo NDJSON:
+     * solo se mantiene en memoria un lote cada vez.
+     */
+    public ResultadoImportacionDTO importar(Iterator<EmpresaDTO> registros) {
+        long inicio = System.nanoTime();
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        Set<String> cifsVistos = new HashSet<>();
+
+        List<RegistroPendiente> lote = new ArrayList<>(tamanoLote);
+        int indice = 0;
+
+        while (true) {
+            EmpresaDTO dto;
+            try {
+                if (!registros.hasNext()) {
+                    break;
+                }
+                dto = registros.next();
+            } catch (RuntimeException e) {
+                // Registro mal formado en el flujo: no se puede continuar leyendo
+                logger.error("Importación interrumpida en el registro {}: {}", indice, e.getMessage());
+                registrar(resultado, new ResultadoRegistroDTO(indice, null,
+                        ResultadoRegistroDTO.Estado.ERROR, null, "Registro no válido: " + e.getMessage()));
+                break;
+            }
+
+            String error = validar(dto, cifsVistos);
+            if (error != null) {
+                registrar(resultado, new ResultadoRegistroDTO(indice, dto.getCif(),
+                        ResultadoRegistroDTO.Estado.RECHAZADA, null, error));
+            } else {
+                lote.add(new RegistroPendiente(indice, dto));
+            }
+            indice++;
+
+            if (lote.size() >= tamanoLote) {
+                procesarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            procesarLote(lote, resultado);
+        }
+
+        resultado.getResultados().sort(Comparator.comparingInt(ResultadoRegistroDTO::getIndice));
+
+        long duracionNanos = System.nanoTime() - inicio;
+        int filas = resultado.getCreadas() + resultado.getSedesCreadas();
+        resultado.setTotal(indice);
+        resultado.setDuracionMs(duracionNanos / 1_000_000);
+        resultado.setFilasPorSegundo(duracionNanos > 0 ? filas / (duracionNanos / 1_000_000_000.0) : 0);
+
+        logger.info("Importación finalizada: {} registros, {} creadas, {} rechazadas, {} errores, {} filas/s",
+                resultado.getTotal(), resultado.getCreadas(), resultado.getRechazadas(),
+                resultado.getErrores(), Math.round(resultado.getFilasPorSegundo()));
+        return resultado;
+    }
+
+    /**
+     * Persiste un lote en una única transacción
+     */
+    private void procesarLote(List<RegistroPendiente> lote, ResultadoImportacionDTO resultado) {
+        List<String> cifs = lote.stream()
+                .map(registro -> registro.dto.getCif())
+                .collect(Collectors.toList());
+
+        try {
+            List<ResultadoRegistroDTO> resultadosLote = transactionTemplate.execute(status -> {
+                Set<String> existentes = new HashSet<>(empresaRepository.findCifsExistentes(cifs));
+                List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+
+                for (RegistroPendiente registro : lote) {
+                    if (existentes.contains(registro.dto.getCif())) {
+                        resultados.add(new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                                ResultadoRegistroDTO.Estado.RECHAZADA, null,
+                                "Ya existe una empresa con el CIF: " + registro.dto.getCif()));
+                        continue;
+                    }
+
+                    Empresa empresa = toEntity(registro.dto);
+                    entityManager.persist(empresa);
+                    invalidadorCache.empresa(empresa.getId(), empresa.getCif());
+                    indiceBusqueda.indexarEmpresa(empresa.getId(), empresa.getRazonSocial());
+                    for (Sede sede : empresa.getSedes()) {
+                        indiceBusqueda.indexarSede(sede.getId(), sede.getNombre());
+                        agregadosGeograficos.sedeCreada(sede);
+                    }
+                    if (Boolean.TRUE.equals(empresa.getActivo())) {
+                        contadores.empresaActivada();
+                    }
+                    if (!empresa.getSedes().isEmpty()) {
+                        contadores.sedesCreadas(empresa.getId(), empresa.getSedes().size());
+                    }
+                    resultados.add(new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                            ResultadoRegistroDTO.Estado.CREADA, empresa.getId(), null));
+                }
+
+                // Envía los INSERT agrupados y libera la memoria del lote
+                entityManager.flush();
+                entityManager.clear();
+                return resultados;
+            });
+
+            for (ResultadoRegistroDTO registro : resultadosLote) {
+                registrar(resultado, registro);
+            }
+            resultado.setSedesCreadas(resultado.getSedesCreadas() + contarSedes(lote, resultadosLote));
+        } catch (RuntimeException e) {
+            logger.error("Error al importar un lote de {} empresas: {}", lote.size(), e.getMessage());
+            for (RegistroPendiente registro : lote) {
+                registrar(resultado, new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                        ResultadoRegistroDTO.Estado.ERROR, null, "Error al guardar el lote: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Convierte el DTO (con sus sedes embebidas) en entidades enlazadas
+     */
+    private Empresa toEntity(EmpresaDTO dto) {
+        Empresa empresa = empresaMapper.toEntity(dto);
+        if (dto.getSedes() != null) {
+            for (SedeDTO sedeDTO : dto.getSedes()) {
+                Sede sede = sedeMapper.toEntity(sedeDTO);
+                empresa.addSede(sede);
+            }
+        }
+        return empresa;
+    }
+
+    /**
+     * Validaciones por registro que no requieren base de datos
+     * 
+     * @return mensaje de error o null si el registro es válido
+     */
+    private String validar(EmpresaDTO dto, Set<String> cifsVistos) {
+        if (dto == null) {
+            return "Registro vacío";
+        }
+
+        Set<ConstraintViolation<EmpresaDTO>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            return formatear(violaciones);
+        }
+
+        if (!cifsVistos.add(dto.getCif())) {
+            return "CIF duplicado en la importación: " + dto.getCif();
+        }
+
+        if (dto.getSedes() != null) {
+            int principales = 0;
+            for (SedeDTO sede : dto.getSedes()) {
+                // empresaId se asigna en la importación, no se exige en las sedes embebidas
+                Set<ConstraintViolation<SedeDTO>> violacionesSede = validator.validate(sede).stream()
+                        .filter(v -> !"empresaId".equals(v.getPropertyPath().toString()))
+                        .collect(Collectors.toSet());
+                if (!violacionesSede.isEmpty()) {
+                    return "Sede no válida: " + formatear(violacionesSede);
+                }
+                if (Boolean.TRUE.equals(sede.getEsPrincipal())) {
+                    principales++;
+                }
+            }
+            if (principales > 1) {
+                return "Ya existe una sede principal para esta empresa";
+            }
+        }
+
+        return null;
+    }
+
+    private static <T> String formatear(Set<ConstraintViolation<T>> violaciones) {
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static int contarSedes(List<RegistroPendiente> lote, List<ResultadoRegistroDTO> resultados) {
+        Set<Integer> creadas = resultados.stream()
+                .filter(r -> r.getEstado() == ResultadoRegistroDTO.Estado.CREADA)
+                .map(ResultadoRegistroDTO::getIndice)
+                .collect(Collectors.toSet());
+
+        return lote.stream()
+                .filter(registro -> creadas.contains(registro.indice) && registro.dto.getSedes() != null)
+                .mapToInt(registro -> registro.dto.getSedes().size())
+                .sum();
+    }
+
+    private static void registrar(ResultadoImportacionDTO resultado, ResultadoRegistroDTO registro) {
+        resultado.getResultados().add(registro);
+        switch (registro.getEstado()) {
+            case CREADA:
+                resultado.setCreadas(resultado.getCreadas() + 1);
+                break;
+            case RECHAZADA:
+                resultado.setRechazadas(resultado.getRechazadas() + 1);
+                break;
+            default:
+                resultado.setErrores(resultado.getErrores() + 1);
+                break;
+        }
+    }
+
+    /**
+     * Registro válido a la espera de persistirse con su lote
+     */
+    private static class RegistroPendiente {
+
+        private final int indice;
+        private final EmpresaDTO dto;
+
+        RegistroPendiente(int indice, EmpresaDTO dto) {
+            this.indice = indice;
+            this.dto = dto;
+        }
+    }
+}
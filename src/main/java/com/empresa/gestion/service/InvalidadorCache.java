@@ -0,0 +1,75 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida las entradas de caché afectadas por una escritura
+ * 
+ * Las expulsiones se aplazan hasta el commit de la transacción en curso
+ * (TransactionAwareCacheDecorator): así una lectura concurrente no puede
+ * volver a cachear el valor antiguo antes de que el cambio sea visible.
+ * Fuera de transacción se expulsa inmediatamente.
+ */
+@Component
+public class InvalidadorCache {
+
+    private final CacheManager cacheManager;
+
+    public InvalidadorCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Invalida una empresa por ID y por cada CIF indicado (anterior y nuevo)
+     * 
+     * También los agregados por sector: toda escritura de empresas o sedes pasa
+     * por aquí y la siguiente consulta de estadísticas los recalcula.
+     */
+    public void empresa(Long id, String... cifs) {
+        expulsar(CacheConfig.EMPRESAS_POR_ID, id);
+        for (String cif : cifs) {
+            expulsar(CacheConfig.EMPRESAS_POR_CIF, cif);
+        }
+        vaciar(CacheConfig.ESTADISTICAS_SECTORES);
+    }
+
+    /**
+     * Invalida todas las empresas cacheadas (por ID y por CIF) y los agregados por sector
+     * 
+     * Para escrituras masivas (UPDATE ... WHERE) que no conocen las filas afectadas.
+     */
+    public void empresas() {
+        vaciar(CacheConfig.EMPRESAS_POR_ID);
+        vaciar(CacheConfig.EMPRESAS_POR_CIF);
+        vaciar(CacheConfig.ESTADISTICAS_SECTORES);
+    }
+
+    /**
+     * Invalida una sede y la sede principal de su empresa
+     */
+    public void sede(Long id, Long empresaId) {
+        expulsar(CacheConfig.SEDES_POR_ID, id);
+        expulsar(CacheConfig.SEDES_PRINCIPALES, empresaId);
+    }
+
+    private void vaciar(String nombreCache) {
+        Cache cache = cacheManager.getCache(nombreCache);
+        if (cache != null) {
+            new TransactionAwareCacheDecorator(cache).clear();
+        }
+    }
+
+    private void expulsar(String nombreCache, Object clave) {
+        if (clave == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(nombreCache);
+        if (cache != null) {
+            new TransactionAwareCacheDecorator(cache).evict(clave);
+        }
+    }
+}
@@ -1,18 +1,44 @@
 package com.empresa.gestion.service;
 
+import com.empresa.gestion.busqueda.IndiceBusqueda;
+import com.empresa.gestion.busqueda.IndiceTrigramas;
+import com.empresa.gestion.campos.SeleccionCampos;
+import com.empresa.gestion.config.CacheConfig;
+import com.empresa.gestion.dto.PaginaDTO;
 import com.empresa.gestion.dto.SedeDTO;
 import com.empresa.gestion.entity.Empresa;
 import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.dto.EstadisticasUbicacionDTO;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos.Aportacion;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
 import com.empresa.gestion.mapper.SedeMapper;
+import com.empresa.gestion.paginacion.SolicitudPagina;
 import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.ProyeccionRepository;
+import com.empresa.gestion.repository.ProyeccionRepository.ConsultaSede;
 import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Restricciones;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para la lógica de negocio de Sedes
@@ -21,6 +47,12 @@ import java.util.Optional;
  * - Contiene lógica de negocio relacionada con sedes
  * - Gestiona la relación con empresas
  * - Valida reglas de negocio
+ * 
+ * VERSIONES:
+ * - Cada escritura de una sede incrementa también la versión de su empresa
+ *   (OPTIMISTIC_FORCE_INCREMENT): el ETag de la empresa cubre sus sedes y dos
+ *   escrituras concurrentes sobre sedes de la misma empresa no pueden
+ *   confirmarse ambas (p.ej. dos sedes principales)
  */
 @Service
 @Transactional
@@ -30,30 +62,58 @@ public class SedeService {
 
     private final SedeRepository sedeRepository;
     private final EmpresaRepository empresaRepository;
+    private final ProyeccionRepository proyecciones;
     private final SedeMapper sedeMapper;
+    private final InvalidadorCache invalidadorCache;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ContadoresEstadisticas contadores;
+    private final AgregadosGeograficos agregadosGeograficos;
+    private final CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public SedeService(SedeRepository sedeRepository, 
                        EmpresaRepository empresaRepository,
-                       SedeMapper sedeMapper) {
+                       ProyeccionRepository proyecciones,
+                       SedeMapper sedeMapper,
+                       InvalidadorCache invalidadorCache,
+                       IndiceBusqueda indiceBusqueda,
+                       ContadoresEstadisticas contadores,
+                       AgregadosGeograficos agregadosGeograficos,
+                       CacheManager cacheManager) {
         this.sedeRepository = sedeRepository;
         this.empresaRepository = empresaRepository;
+        this.proyecciones = proyecciones;
         this.sedeMapper = sedeMapper;
+        this.invalidadorCache = invalidadorCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.contadores = contadores;
+        this.agregadosGeograficos = agregadosGeograficos;
+        this.cacheManager = cacheManager;
     }
 
     /**
-     * Obtener todas las sedes
+     * Obtener todas las sedes (paginado por cursor)
+     * 
+     * Los listados se leen como proyecciones a SedeDTO, sin hidratar
+     * entidades ni tocar el proxy de Empresa (empresaId sale de la FK),
+     * y solo con las columnas seleccionadas (?fields=).
      */
     @Transactional(readOnly = true)
-    public List<SedeDTO> obtenerTodas() {
-        logger.debug("Obteniendo todas las sedes");
-        List<Sede> sedes = sedeRepository.findAll();
-        return sedeMapper.toDTOList(sedes);
+    public PaginaDTO<SedeDTO> obtenerTodas(SolicitudPagina pagina, SeleccionCampos campos) {
+        logger.debug("Obteniendo todas las sedes después del ID: {}", pagina.getAfterId());
+        List<SedeDTO> sedes = campos.todosLosCampos()
+                ? sedeRepository.listarDTO(pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.sedes(ConsultaSede.TODAS, null, campos, pagina.getAfterId(), pagina.toPageable());
+        return toPagina(sedes, pagina);
     }
 
     /**
-     * Obtener sede por ID
+     * Obtener sede por ID (cacheado, ver CacheConfig)
      */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SEDES_POR_ID, key = "#id")
     public Optional<SedeDTO> obtenerPorId(Long id) {
         logger.debug("Buscando sede con ID: {}", id);
         return sedeRepository.findById(id)
@@ -61,13 +121,49 @@ public class SedeService {
     }
 
     /**
-     * Obtener todas las sedes de una empresa
+     * Versión actual de una sede (ETag), para responder 304 sin leer ni mapear la fila
+     * 
+     * Si el DTO está en caché se usa su versión; si no, se consulta solo la columna version.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Long> obtenerVersion(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.SEDES_POR_ID);
+        SedeDTO cacheada = cache != null ? cache.get(id, SedeDTO.class) : null;
+        if (cacheada != null) {
+            return Optional.ofNullable(cacheada.getVersion());
+        }
+        return sedeRepository.buscarVersion(id);
+    }
+
+    /**
+     * Obtener todas las sedes de una empresa (paginado por cursor)
      */
     @Transactional(readOnly = true)
-    public List<SedeDTO> obtenerPorEmpresa(Long empresaId) {
+    public PaginaDTO<SedeDTO> obtenerPorEmpresa(Long empresaId, SolicitudPagina pagina, SeleccionCampos campos) {
         logger.debug("Obteniendo sedes de la empresa: {}", empresaId);
-        List<Sede> sedes = sedeRepository.findByEmpresaId(empresaId);
-        return sedeMapper.toDTOList(sedes);
+        List<SedeDTO> sedes = campos.todosLosCampos()
+                ? sedeRepository.listarPorEmpresaDTO(empresaId, pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.sedes(ConsultaSede.EMPRESA, empresaId, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(sedes, pagina);
+    }
+
+    /**
+     * Obtener las sedes de varias empresas con una única consulta IN
+     * 
+     * Agrupadas por empresa en el orden de los IDs pedidos, y por ID dentro de cada empresa
+     */
+    @Transactional(readOnly = true)
+    public List<SedeDTO> obtenerPorEmpresas(List<Long> empresaIds, SeleccionCampos campos) {
+        logger.debug("Obteniendo sedes de {} empresas", empresaIds.size());
+        List<SedeDTO> filas = campos.todosLosCampos()
+                ? sedeRepository.buscarDTOPorEmpresaIds(empresaIds)
+                : proyecciones.sedesPorEmpresas(campos, empresaIds);
+        Map<Long, List<SedeDTO>> porEmpresa = filas.stream()
+                .collect(Collectors.groupingBy(SedeDTO::getEmpresaId));
+        return empresaIds.stream()
+                .flatMap(empresaId -> porEmpresa.getOrDefault(empresaId, Collections.emptyList()).stream())
+                .collect(Collectors.toList());
     }
 
     /**
@@ -76,27 +172,32 @@ public class SedeService {
      * Validaciones:
      * - La empresa debe existir
      * - Si es sede principal, no debe haber otra sede principal para esa empresa
+     *   (uk_sedes_empresa_principal, sin consulta previa; ver principalDuplicada)
      */
     public SedeDTO crear(SedeDTO sedeDTO) {
-        logger.info("Creando nueva sede: {}", sedeDTO.getNombre());
+        logger.debug("Creando nueva sede: {}", sedeDTO.getNombre());
 
         // Validar que la empresa existe
         Empresa empresa = empresaRepository.findById(sedeDTO.getEmpresaId())
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Empresa no encontrada con ID: " + sedeDTO.getEmpresaId()));
 
-        // Si es sede principal, verificar que no exista otra
-        if (Boolean.TRUE.equals(sedeDTO.getEsPrincipal()) 
-                && sedeRepository.existsByEmpresaIdAndEsPrincipalTrue(sedeDTO.getEmpresaId())) {
-            throw new IllegalArgumentException(
-                    "Ya existe una sede principal para esta empresa");
-        }
-
         Sede sede = sedeMapper.toEntity(sedeDTO);
         sede.setEmpresa(empresa);
+        versionarEmpresa(empresa);
         
-        Sede sedeGuardada = sedeRepository.save(sede);
-        logger.info("Sede creada con ID: {}", sedeGuardada.getId());
+        // flush: una segunda sede principal viola la restricción aquí mismo
+        Sede sedeGuardada;
+        try {
+            sedeGuardada = sedeRepository.saveAndFlush(sede);
+        } catch (DataIntegrityViolationException e) {
+            throw principalDuplicada(e);
+        }
+        invalidar(sedeGuardada);
+        indiceBusqueda.indexarSede(sedeGuardada.getId(), sedeGuardada.getNombre());
+        contadores.sedesCreadas(empresa.getId(), 1);
+        agregadosGeograficos.sedeCreada(sedeGuardada);
+        logger.debug("Sede creada con ID: {}", sedeGuardada.getId());
         
         return sedeMapper.toDTO(sedeGuardada);
     }
@@ -105,25 +206,39 @@ public class SedeService {
      * Actualizar una sede existente
      */
     public SedeDTO actualizar(Long id, SedeDTO sedeDTO) {
-        logger.info("Actualizando sede con ID: {}", id);
+        return actualizar(id, sedeDTO, null);
+    }
+
+    /**
+     * Actualizar una sede existente si su versión es la esperada (If-Match)
+     * 
+     * - versionEsperada null: sin precondición
+     * - Versión distinta, o modificada por otra transacción antes del commit:
+     *   ObjectOptimisticLockingFailureException
+     */
+    public SedeDTO actualizar(Long id, SedeDTO sedeDTO, Long versionEsperada) {
+        logger.debug("Actualizando sede con ID: {}", id);
 
         Sede sedeExistente = sedeRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Sede no encontrada con ID: " + id));
+        comprobarVersion(sedeExistente, versionEsperada);
 
-        // Si se cambia a sede principal, verificar que no exista otra
-        if (Boolean.TRUE.equals(sedeDTO.getEsPrincipal()) 
-                && !Boolean.TRUE.equals(sedeExistente.getEsPrincipal())) {
-            
-            if (sedeRepository.existsByEmpresaIdAndEsPrincipalTrue(sedeExistente.getEmpresa().getId())) {
-                throw new IllegalArgumentException(
-                        "Ya existe una sede principal para esta empresa");
-            }
-        }
-
+        Aportacion anterior = Aportacion.de(sedeExistente);
         sedeMapper.updateEntityFromDTO(sedeDTO, sedeExistente);
-        Sede sedeActualizada = sedeRepository.save(sedeExistente);
+        versionarEmpresa(sedeExistente.getEmpresa());
+        // flush: el DTO devuelto (y su ETag) lleva ya la versión incrementada, y pasar
+        // a principal cuando ya hay otra viola uk_sedes_empresa_principal aquí mismo
+        Sede sedeActualizada;
+        try {
+            sedeActualizada = sedeRepository.saveAndFlush(sedeExistente);
+        } catch (DataIntegrityViolationException e) {
+            throw principalDuplicada(e);
+        }
+        invalidar(sedeActualizada);
+        indiceBusqueda.indexarSede(sedeActualizada.getId(), sedeActualizada.getNombre());
+        agregadosGeograficos.sedeActualizada(anterior, sedeActualizada);
         
-        logger.info("Sede actualizada: {}", sedeActualizada.getId());
+        logger.debug("Sede actualizada: {}", sedeActualizada.getId());
         return sedeMapper.toDTO(sedeActualizada);
     }
 
@@ -131,40 +246,60 @@ public class SedeService {
      * Eliminar una sede
      */
     public void eliminar(Long id) {
-        logger.info("Eliminando sede con ID: {}", id);
+        eliminar(id, null);
+    }
 
-        if (!sedeRepository.existsById(id)) {
-            throw new IllegalArgumentException("Sede no encontrada con ID: " + id);
-        }
+    /**
+     * Eliminar una sede si su versión es la esperada (If-Match, ver actualizar)
+     */
+    public void eliminar(Long id, Long versionEsperada) {
+        logger.debug("Eliminando sede con ID: {}", id);
+
+        Sede sede = sedeRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Sede no encontrada con ID: " + id));
+        comprobarVersion(sede, versionEsperada);
+        versionarEmpresa(sede.getEmpresa());
 
-        sedeRepository.deleteById(id);
-        logger.info("Sede eliminada: {}", id);
+        invalidar(sede);
+        indiceBusqueda.eliminarSede(id);
+        contadores.sedeEliminada(sede.getEmpresa().getId());
+        agregadosGeograficos.sedeEliminada(sede);
+        sedeRepository.delete(sede);
+        logger.debug("Sede eliminada: {}", id);
     }
 
     /**
-     * Buscar sedes por ciudad
+     * Buscar sedes por ciudad (paginado por cursor)
      */
     @Transactional(readOnly = true)
-    public List<SedeDTO> buscarPorCiudad(String ciudad) {
+    public PaginaDTO<SedeDTO> buscarPorCiudad(String ciudad, SolicitudPagina pagina, SeleccionCampos campos) {
         logger.debug("Buscando sedes en la ciudad: {}", ciudad);
-        List<Sede> sedes = sedeRepository.findByCiudadIgnoreCase(ciudad);
-        return sedeMapper.toDTOList(sedes);
+        List<SedeDTO> sedes = campos.todosLosCampos()
+                ? sedeRepository.buscarPorCiudadDTO(ciudad, pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.sedes(ConsultaSede.CIUDAD, ciudad, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(sedes, pagina);
     }
 
     /**
-     * Buscar sedes por provincia
+     * Buscar sedes por provincia (paginado por cursor)
      */
     @Transactional(readOnly = true)
-    public List<SedeDTO> buscarPorProvincia(String provincia) {
+    public PaginaDTO<SedeDTO> buscarPorProvincia(String provincia, SolicitudPagina pagina,
+                                                 SeleccionCampos campos) {
         logger.debug("Buscando sedes en la provincia: {}", provincia);
-        List<Sede> sedes = sedeRepository.findByProvinciaIgnoreCase(provincia);
-        return sedeMapper.toDTOList(sedes);
+        List<SedeDTO> sedes = campos.todosLosCampos()
+                ? sedeRepository.buscarPorProvinciaDTO(provincia, pagina.getAfterId(), pagina.toPageable())
+                : proyecciones.sedes(ConsultaSede.PROVINCIA, provincia, campos,
+                        pagina.getAfterId(), pagina.toPageable());
+        return toPagina(sedes, pagina);
     }
 
     /**
-     * Obtener la sede principal de una empresa
+     * Obtener la sede principal de una empresa (cacheado, ver CacheConfig)
      */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SEDES_PRINCIPALES, key = "#empresaId")
     public Optional<SedeDTO> obtenerSedePrincipal(Long empresaId) {
         logger.debug("Buscando sede principal de la empresa: {}", empresaId);
         return sedeRepository.findByEmpresaIdAndEsPrincipalTrue(empresaId)
@@ -172,21 +307,126 @@ public class SedeService {
     }
 
     /**
-     * Buscar sedes por nombre (búsqueda parcial)
+     * Buscar sedes por nombre (búsqueda parcial, paginado por cursor)
+     * 
+     * Resuelta con el índice de trigramas cuando es posible (ver EmpresaService)
      */
     @Transactional(readOnly = true)
-    public List<SedeDTO> buscarPorNombre(String texto) {
+    public PaginaDTO<SedeDTO> buscarPorNombre(String texto, SolicitudPagina pagina, SeleccionCampos campos) {
         logger.debug("Buscando sedes por nombre: {}", texto);
-        List<Sede> sedes = sedeRepository.buscarPorNombre(texto);
-        return sedeMapper.toDTOList(sedes);
+
+        if (!indiceBusqueda.puedeResolver(texto)) {
+            List<SedeDTO> sedes = campos.todosLosCampos()
+                    ? sedeRepository.buscarPorNombreDTO(texto, pagina.getAfterId(), pagina.toPageable())
+                    : proyecciones.sedes(ConsultaSede.NOMBRE, texto, campos,
+                            pagina.getAfterId(), pagina.toPageable());
+            return toPagina(sedes, pagina);
+        }
+
+        return toPagina(coincidenciasIndice(texto, pagina, campos), pagina);
+    }
+
+    /**
+     * Filas de los candidatos del índice que siguen coincidiendo, hasta limite + 1
+     * (mismo criterio que EmpresaService.buscarPorRazonSocial)
+     */
+    private List<SedeDTO> coincidenciasIndice(String texto, SolicitudPagina pagina, SeleccionCampos campos) {
+        String consulta = IndiceTrigramas.normalizar(texto);
+        int filas = pagina.getLimite() + 1;
+        List<SedeDTO> sedes = new ArrayList<>(filas);
+        Long afterId = pagina.getAfterId();
+
+        while (sedes.size() < filas) {
+            int faltan = filas - sedes.size();
+            List<Long> ids = indiceBusqueda.buscarSedes(texto, afterId, faltan);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<SedeDTO> candidatas = campos.todosLosCampos()
+                    ? sedeRepository.buscarDTOPorIds(ids)
+                    : proyecciones.sedesPorIds(campos, ids);
+            for (SedeDTO sede : candidatas) {
+                if (IndiceTrigramas.normalizar(sede.getNombre()).contains(consulta)) {
+                    sedes.add(sede);
+                }
+            }
+            if (ids.size() < faltan) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        return sedes;
     }
 
     /**
      * Contar sedes de una empresa
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public long contarSedesPorEmpresa(Long empresaId) {
+        if (contadores.isListo()) {
+            return contadores.contarSedes(empresaId);
+        }
         return sedeRepository.countByEmpresaId(empresaId);
     }
-}
 
+    /**
+     * Sedes y capacidad de almacenamiento por provincia o ciudad
+     * 
+     * Se sirve desde los agregados en memoria (sin transacción ni conexión): el coste
+     * depende del número de ubicaciones distintas, no del de sedes.
+     * 
+     * @param empresaId  solo sedes de esa empresa (null: todas)
+     * @param esPrincipal solo sedes principales (true) o no principales (false); null: todas
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<EstadisticasUbicacionDTO> estadisticasPorUbicacion(AgregadosGeograficos.Nivel nivel,
+                                                                   Long empresaId, Boolean esPrincipal) {
+        return agregadosGeograficos.agrupar(nivel, empresaId, esPrincipal);
+    }
+
+    /**
+     * Convierte las filas leídas (limite + 1) en una página con cursor
+     * (la fila extra se descarta)
+     */
+    private PaginaDTO<SedeDTO> toPagina(List<SedeDTO> sedes, SolicitudPagina pagina) {
+        return PaginaDTO.de(sedes, pagina.getLimite(), SedeDTO::getId);
+    }
+
+    /**
+     * Traduce la violación de uk_sedes_empresa_principal al error de validación de siempre (400)
+     */
+    private static RuntimeException principalDuplicada(DataIntegrityViolationException e) {
+        if (Restricciones.violada(e, Restricciones.SEDE_PRINCIPAL)) {
+            return new IllegalArgumentException("Ya existe una sede principal para esta empresa");
+        }
+        return e;
+    }
+
+    /**
+     * Precondición If-Match: la versión leída debe ser la que conoce el cliente
+     * (el UPDATE/DELETE vuelve a comprobarla en la cláusula WHERE)
+     */
+    private static void comprobarVersion(Sede sede, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(sede.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Sede.class, sede.getId());
+        }
+    }
+
+    /**
+     * Incrementa la versión de la empresa al confirmar la transacción
+     * (falla si otra transacción la ha cambiado entretanto)
+     */
+    private void versionarEmpresa(Empresa empresa) {
+        entityManager.lock(empresa, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /**
+     * Invalida la sede y la empresa a la que pertenece
+     * (el DTO de empresa cacheado incluye sus sedes)
+     */
+    private void invalidar(Sede sede) {
+        Empresa empresa = sede.getEmpresa();
+        invalidadorCache.sede(sede.getId(), empresa.getId());
+        invalidadorCache.empresa(empresa.getId(), empresa.getCif());
+    }
+}
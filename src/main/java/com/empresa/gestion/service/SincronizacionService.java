@@ -0,0 +1,327 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.busqueda.IndiceBusqueda;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.ResultadoRegistroDTO;
+import com.empresa.gestion.dto.ResultadoSincronizacionDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SincronizacionRepository;
+import com.empresa.gestion.util.Restricciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sincronización idempotente de empresas por CIF (upsert)
+ * 
+ * Pensada para sistemas externos que envían el registro completo una y otra vez:
+ * - Un SELECT ... IN por lote con los datos actuales de sus CIFs
+ * - Las empresas idénticas se marcan SIN_CAMBIOS y no se escriben
+ * - Las nuevas y las modificadas se escriben con un único MERGE por lote
+ *   (ver SincronizacionRepository), sin existsByCif por registro
+ * - Si otra transacción modifica o crea alguno de los CIFs entre la lectura y
+ *   el MERGE, el lote se deshace con ObjectOptimisticLockingFailureException
+ * 
+ * Se sincronizan los datos de la empresa: las sedes embebidas se ignoran.
+ * Igual que en PUT /api/empresas/{id}, fechaAlta solo se fija al crear.
+ */
+@Service
+public class SincronizacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacionService.class);
+
+    private final EmpresaRepository empresaRepository;
+    private final SincronizacionRepository sincronizacionRepository;
+    private final Validator validator;
+    private final InvalidadorCache invalidadorCache;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ContadoresEstadisticas contadores;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public SincronizacionService(EmpresaRepository empresaRepository,
+                                 SincronizacionRepository sincronizacionRepository,
+                                 Validator validator,
+                                 InvalidadorCache invalidadorCache,
+                                 IndiceBusqueda indiceBusqueda,
+                                 ContadoresEstadisticas contadores,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.sincronizacion.tamano-lote:500}") int tamanoLote) {
+        this.empresaRepository = empresaRepository;
+        this.sincronizacionRepository = sincronizacionRepository;
+        this.validator = validator;
+        this.invalidadorCache = invalidadorCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.contadores = contadores;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Sincronizar una empresa identificada por su CIF
+     * 
+     * - CIF del cuerpo distinto del de la ruta: IllegalArgumentException
+     * - Conflicto con otra escritura concurrente: ObjectOptimisticLockingFailureException
+     */
+    public ResultadoRegistroDTO sincronizar(String cif, EmpresaDTO empresaDTO) {
+        if (!cif.equals(empresaDTO.getCif())) {
+            throw new IllegalArgumentException("El CIF del cuerpo no coincide con el de la ruta: " + cif);
+        }
+
+        List<RegistroPendiente> lote = Collections.singletonList(new RegistroPendiente(0, empresaDTO));
+        return transactionTemplate.execute(status -> escribirLote(lote)).get(0);
+    }
+
+    /**
+     * Sincronizar empresas leyendo del iterador por lotes, cada lote en su transacción
+     * 
+     * Un lote en conflicto o fallido marca sus registros como ERROR sin afectar
+     * a los lotes ya confirmados; volver a enviarlos es seguro.
+     */
+    public ResultadoSincronizacionDTO sincronizar(Iterator<EmpresaDTO> registros) {
+        long inicio = System.nanoTime();
+        ResultadoSincronizacionDTO resultado = new ResultadoSincronizacionDTO();
+        Set<String> cifsVistos = new HashSet<>();
+
+        List<RegistroPendiente> lote = new ArrayList<>(tamanoLote);
+        int indice = 0;
+
+        while (true) {
+            EmpresaDTO dto;
+            try {
+                if (!registros.hasNext()) {
+                    break;
+                }
+                dto = registros.next();
+            } catch (RuntimeException e) {
+                // Registro mal formado en el flujo: no se puede continuar leyendo
+                logger.error("Sincronización interrumpida en el registro {}: {}", indice, e.getMessage());
+                registrar(resultado, new ResultadoRegistroDTO(indice, null,
+                        ResultadoRegistroDTO.Estado.ERROR, null, "Registro no válido: " + e.getMessage()));
+                break;
+            }
+
+            String error = validar(dto, cifsVistos);
+            if (error != null) {
+                registrar(resultado, new ResultadoRegistroDTO(indice, dto != null ? dto.getCif() : null,
+                        ResultadoRegistroDTO.Estado.RECHAZADA, null, error));
+            } else {
+                lote.add(new RegistroPendiente(indice, dto));
+            }
+            indice++;
+
+            if (lote.size() >= tamanoLote) {
+                procesarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            procesarLote(lote, resultado);
+        }
+
+        resultado.getResultados().sort(Comparator.comparingInt(ResultadoRegistroDTO::getIndice));
+        resultado.setTotal(indice);
+        resultado.setDuracionMs((System.nanoTime() - inicio) / 1_000_000);
+
+        logger.info("Sincronización finalizada: {} registros, {} creadas, {} actualizadas, {} sin cambios, "
+                        + "{} rechazadas, {} errores",
+                resultado.getTotal(), resultado.getCreadas(), resultado.getActualizadas(),
+                resultado.getSinCambios(), resultado.getRechazadas(), resultado.getErrores());
+        return resultado;
+    }
+
+    private void procesarLote(List<RegistroPendiente> lote, ResultadoSincronizacionDTO resultado) {
+        try {
+            List<ResultadoRegistroDTO> resultadosLote = transactionTemplate.execute(status -> escribirLote(lote));
+            for (ResultadoRegistroDTO registro : resultadosLote) {
+                registrar(resultado, registro);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al sincronizar un lote de {} empresas: {}", lote.size(), e.getMessage());
+            for (RegistroPendiente registro : lote) {
+                registrar(resultado, new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                        ResultadoRegistroDTO.Estado.ERROR, null, "Error al guardar el lote: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Clasifica y escribe un lote; debe ejecutarse dentro de una transacción
+     */
+    private List<ResultadoRegistroDTO> escribirLote(List<RegistroPendiente> lote) {
+        List<String> cifs = lote.stream()
+                .map(registro -> registro.dto.getCif())
+                .collect(Collectors.toList());
+        Map<String, EmpresaDTO> actuales = empresaRepository.buscarDTOPorCifs(cifs).stream()
+                .collect(Collectors.toMap(EmpresaDTO::getCif, Function.identity()));
+
+        int nuevas = (int) cifs.stream().filter(cif -> !actuales.containsKey(cif)).count();
+        Iterator<Long> ids = nuevas > 0
+                ? sincronizacionRepository.reservarIds(nuevas).iterator()
+                : Collections.<Long>emptyIterator();
+
+        List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+        List<EmpresaDTO> filas = new ArrayList<>(lote.size());
+        List<EmpresaDTO> anteriores = new ArrayList<>(lote.size());
+
+        for (RegistroPendiente registro : lote) {
+            EmpresaDTO actual = actuales.get(registro.dto.getCif());
+            if (actual == null) {
+                filas.add(fila(registro.dto, ids.next(), null, registro.dto.getFechaAlta()));
+                anteriores.add(null);
+                resultados.add(new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                        ResultadoRegistroDTO.Estado.CREADA, filas.get(filas.size() - 1).getId(), null));
+            } else if (iguales(actual, registro.dto)) {
+                resultados.add(new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                        ResultadoRegistroDTO.Estado.SIN_CAMBIOS, actual.getId(), null));
+            } else {
+                filas.add(fila(registro.dto, actual.getId(), actual.getVersion(), actual.getFechaAlta()));
+                anteriores.add(actual);
+                resultados.add(new ResultadoRegistroDTO(registro.indice, registro.dto.getCif(),
+                        ResultadoRegistroDTO.Estado.ACTUALIZADA, actual.getId(), null));
+            }
+        }
+
+        if (filas.isEmpty()) {
+            return resultados;
+        }
+
+        int escritas;
+        try {
+            escritas = sincronizacionRepository.fusionar(filas);
+        } catch (DataIntegrityViolationException e) {
+            if (!Restricciones.violada(e, Restricciones.CIF_EMPRESA)) {
+                throw e;
+            }
+            // Otra transacción ha creado uno de los CIFs después de la lectura
+            throw new ObjectOptimisticLockingFailureException(Empresa.class, cifs);
+        }
+        if (escritas != filas.size()) {
+            // Alguna empresa ha cambiado desde la lectura: el lote se deshace completo
+            throw new ObjectOptimisticLockingFailureException(Empresa.class, cifs);
+        }
+
+        for (int i = 0; i < filas.size(); i++) {
+            EmpresaDTO fila = filas.get(i);
+            EmpresaDTO anterior = anteriores.get(i);
+            invalidadorCache.empresa(fila.getId(), fila.getCif());
+            indiceBusqueda.indexarEmpresa(fila.getId(), fila.getRazonSocial());
+            actualizarContadorActivas(anterior != null && Boolean.TRUE.equals(anterior.getActivo()),
+                    fila.getActivo());
+        }
+        return resultados;
+    }
+
+    /**
+     * Fila para el MERGE con el ID asignado y la versión leída (null si es nueva)
+     */
+    private static EmpresaDTO fila(EmpresaDTO dto, Long id, Long versionLeida, LocalDate fechaAlta) {
+        return new EmpresaDTO(id, dto.getRazonSocial(), dto.getCif(), dto.getEmail(), dto.getTelefono(),
+                dto.getSector(), fechaAlta, dto.getActivo(), dto.getFacturacionAnual(),
+                dto.getNumeroEmpleados(), versionLeida);
+    }
+
+    /**
+     * Mismos campos que sobrescribe una actualización (ver EmpresaMapper.updateEntityFromDTO)
+     */
+    private static boolean iguales(EmpresaDTO actual, EmpresaDTO recibida) {
+        return Objects.equals(actual.getRazonSocial(), recibida.getRazonSocial())
+                && Objects.equals(actual.getEmail(), recibida.getEmail())
+                && Objects.equals(actual.getTelefono(), recibida.getTelefono())
+                && Objects.equals(actual.getSector(), recibida.getSector())
+                && Objects.equals(actual.getActivo(), recibida.getActivo())
+                && Objects.equals(actual.getFacturacionAnual(), recibida.getFacturacionAnual())
+                && Objects.equals(actual.getNumeroEmpleados(), recibida.getNumeroEmpleados());
+    }
+
+    private void actualizarContadorActivas(boolean estabaActiva, Boolean activa) {
+        boolean estaActiva = Boolean.TRUE.equals(activa);
+        if (estaActiva && !estabaActiva) {
+            contadores.empresaActivada();
+        } else if (!estaActiva && estabaActiva) {
+            contadores.empresaDesactivada();
+        }
+    }
+
+    /**
+     * Validaciones por registro que no requieren base de datos
+     * 
+     * @return mensaje de error o null si el registro es válido
+     */
+    private String validar(EmpresaDTO dto, Set<String> cifsVistos) {
+        if (dto == null) {
+            return "Registro vacío";
+        }
+
+        Set<ConstraintViolation<EmpresaDTO>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (!cifsVistos.add(dto.getCif())) {
+            return "CIF duplicado en la sincronización: " + dto.getCif();
+        }
+        return null;
+    }
+
+    private static void registrar(ResultadoSincronizacionDTO resultado, ResultadoRegistroDTO registro) {
+        resultado.getResultados().add(registro);
+        switch (registro.getEstado()) {
+            case CREADA:
+                resultado.setCreadas(resultado.getCreadas() + 1);
+                break;
+            case ACTUALIZADA:
+                resultado.setActualizadas(resultado.getActualizadas() + 1);
+                break;
+            case SIN_CAMBIOS:
+                resultado.setSinCambios(resultado.getSinCambios() + 1);
+                break;
+            case RECHAZADA:
+                resultado.setRechazadas(resultado.getRechazadas() + 1);
+                break;
+            default:
+                resultado.setErrores(resultado.getErrores() + 1);
+                break;
+        }
+    }
+
+    /**
+     * Registro válido a la espera de escribirse con su lote
+     */
+    private static class RegistroPendiente {
+
+        private final int indice;
+        private final EmpresaDTO dto;
+
+        RegistroPendiente(int indice, EmpresaDTO dto) {
+            this.indice = indice;
+            this.dto = dto;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.empresa.gestion.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Restricciones UNIQUE del esquema que sustituyen a las comprobaciones previas
+ * 
+ * Las escrituras insertan/actualizan directamente y traducen la violación a
+ * IllegalArgumentException (400), sin carrera entre la comprobación y el INSERT.
+ */
+public final class Restricciones {
+
+    /** CIF único por empresa (V1__esquema_inicial.sql) */
+    public static final String CIF_EMPRESA = "UK_EMPRESAS_CIF";
+
+    /** Una sede principal por empresa (V3__sede_principal_unica.sql) */
+    public static final String SEDE_PRINCIPAL = "UK_SEDES_EMPRESA_PRINCIPAL";
+
+    private Restricciones() {
+    }
+
+    /**
+     * Indica si la excepción se debe a la restricción indicada
+     * 
+     * En H2 el mensaje cita el índice que respalda la restricción
+     * (UK_..._INDEX_x), así que se busca el nombre en toda la cadena de causas.
+     */
+    public static boolean violada(DataIntegrityViolationException e, String restriccion) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException
+                    && contiene(((ConstraintViolationException) causa).getConstraintName(), restriccion)) {
+                return true;
+            }
+            if (contiene(causa.getMessage(), restriccion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contiene(String texto, String restriccion) {
+        return texto != null && texto.toUpperCase(Locale.ROOT).contains(restriccion);
+    }
+}
@@ -1,11 +1,11 @@
 -- ========================================
 -- DATOS DE PRUEBA PARA H2
 -- ========================================
--- Este archivo se ejecuta automáticamente al iniciar la aplicación
--- gracias a spring.sql.init.mode=always en application.properties
+-- Migración de Flyway que solo se aplica cuando classpath:db/datos
+-- está incluido en spring.flyway.locations (no en el perfil prod)
 
--- IMPORTANTE: Las tablas se crean automáticamente por Hibernate
--- con spring.jpa.hibernate.ddl-auto=create-drop
+-- IMPORTANTE: Las tablas las crea db/migration/V1__esquema_inicial.sql.
+-- Los IDs explícitos quedan por debajo del valor inicial de las secuencias (1000)
 
 -- ========================================
 -- EMPRESAS
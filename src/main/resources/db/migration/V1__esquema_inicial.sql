@@ -0,0 +1,82 @@
+-- ========================================
+-- ESQUEMA INICIAL
+-- ========================================
+-- Flyway es el propietario del DDL; Hibernate solo lo valida
+-- (spring.jpa.hibernate.ddl-auto=validate)
+
+-- ========================================
+-- SECUENCIAS (optimizador pooled de Hibernate, allocationSize = 50)
+-- ========================================
+
+CREATE SEQUENCE empresas_seq START WITH 1000 INCREMENT BY 50;
+
+CREATE SEQUENCE sedes_seq START WITH 1000 INCREMENT BY 50;
+
+-- ========================================
+-- EMPRESAS
+-- ========================================
+
+CREATE TABLE empresas (
+    id                  BIGINT           NOT NULL,
+    razon_social        VARCHAR(200)     NOT NULL,
+    cif                 VARCHAR(20)      NOT NULL,
+    email               VARCHAR(100),
+    telefono            VARCHAR(20),
+    sector              VARCHAR(100),
+    fecha_alta          DATE,
+    activo              BOOLEAN,
+    facturacion_anual   DOUBLE PRECISION,
+    numero_empleados    INTEGER,
+    -- Columna calculada para búsquedas sin distinguir mayúsculas con índice
+    sector_normalizado  VARCHAR(100)     GENERATED ALWAYS AS (UPPER(sector)),
+    CONSTRAINT pk_empresas PRIMARY KEY (id),
+    CONSTRAINT uk_empresas_cif UNIQUE (cif)
+);
+
+-- ========================================
+-- SEDES
+-- ========================================
+
+CREATE TABLE sedes (
+    id                        BIGINT           NOT NULL,
+    nombre                    VARCHAR(150)     NOT NULL,
+    direccion                 VARCHAR(255)     NOT NULL,
+    ciudad                    VARCHAR(100)     NOT NULL,
+    provincia                 VARCHAR(100),
+    codigo_postal             VARCHAR(10),
+    pais                      VARCHAR(100),
+    telefono                  VARCHAR(20),
+    email                     VARCHAR(100),
+    es_principal              BOOLEAN,
+    capacidad_almacenamiento  DOUBLE PRECISION,
+    horario_recepcion         VARCHAR(100),
+    empresa_id                BIGINT           NOT NULL,
+    -- Columnas calculadas para búsquedas sin distinguir mayúsculas con índice
+    ciudad_normalizada        VARCHAR(100)     GENERATED ALWAYS AS (UPPER(ciudad)),
+    provincia_normalizada     VARCHAR(100)     GENERATED ALWAYS AS (UPPER(provincia)),
+    CONSTRAINT pk_sedes PRIMARY KEY (id),
+    CONSTRAINT fk_sedes_empresa FOREIGN KEY (empresa_id) REFERENCES empresas (id)
+);
+
+-- ========================================
+-- ÍNDICES SECUNDARIOS
+-- ========================================
+-- Los índices terminan en id para servir también la paginación por cursor
+-- (WHERE ... AND id > ? ORDER BY id) sin ordenar en memoria
+
+-- findByActivoTrue / countByActivoTrue
+CREATE INDEX idx_empresas_activo ON empresas (activo, id);
+
+-- Búsqueda por sector sin distinguir mayúsculas
+CREATE INDEX idx_empresas_sector ON empresas (sector_normalizado, id);
+
+-- findByEmpresaId / countByEmpresaId
+CREATE INDEX idx_sedes_empresa ON sedes (empresa_id, id);
+
+-- findByEmpresaIdAndEsPrincipalTrue / existsByEmpresaIdAndEsPrincipalTrue
+CREATE INDEX idx_sedes_empresa_principal ON sedes (empresa_id, es_principal);
+
+-- Búsquedas por ciudad y provincia sin distinguir mayúsculas
+CREATE INDEX idx_sedes_ciudad ON sedes (ciudad_normalizada, id);
+
+CREATE INDEX idx_sedes_provincia ON sedes (provincia_normalizada, id);
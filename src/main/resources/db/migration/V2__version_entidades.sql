@@ -0,0 +1,9 @@
+-- ========================================
+-- VERSIÓN (bloqueo optimista y ETags)
+-- ========================================
+-- @Version de Empresa y Sede. La versión de una empresa se incrementa
+-- también al crear, modificar o eliminar cualquiera de sus sedes.
+
+ALTER TABLE empresas ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE sedes ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
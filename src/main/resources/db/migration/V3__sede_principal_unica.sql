@@ -0,0 +1,12 @@
+-- ========================================
+-- UNA SEDE PRINCIPAL POR EMPRESA
+-- ========================================
+-- H2 no tiene índices parciales: la columna calculada vale empresa_id solo en
+-- la sede principal y NULL en las demás, y UNIQUE admite varios NULL.
+-- Junto con uk_empresas_cif, la base de datos garantiza las reglas que antes
+-- se comprobaban con una consulta previa (existsBy...) en cada escritura.
+
+ALTER TABLE sedes ADD COLUMN empresa_principal BIGINT
+    GENERATED ALWAYS AS (CASE WHEN es_principal THEN empresa_id END);
+
+ALTER TABLE sedes ADD CONSTRAINT uk_sedes_empresa_principal UNIQUE (empresa_principal);
@@ -0,0 +1,19 @@
+package com.empresa.gestion.reactivo;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Ejecuta código bloqueante (servicios JPA) fuera de los hilos de Netty
+ */
+final class Bloqueante {
+
+    private Bloqueante() {
+    }
+
+    static <T> Mono<T> ejecutar(Callable<T> tarea) {
+        return Mono.fromCallable(tarea).subscribeOn(Schedulers.boundedElastic());
+    }
+}
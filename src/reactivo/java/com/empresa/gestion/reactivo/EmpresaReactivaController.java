@@ -0,0 +1,307 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.ResultadoImportacionDTO;
+import com.empresa.gestion.paginacion.PaginacionProperties;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import com.empresa.gestion.service.EmpresaService;
+import com.empresa.gestion.service.ImportacionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Controlador REST reactivo de Empresas (perfil "reactivo")
+ * 
+ * Mismo contrato que EmpresaController:
+ * - Lecturas con R2DBC; listados como Flux con backpressure
+ * - Escrituras, importación y contadores delegan en los servicios existentes
+ *   (mismas validaciones, invalidación de caché, índice de búsqueda y estadísticas)
+ *   ejecutados en Schedulers.boundedElastic()
+ */
+@RestController
+@RequestMapping("/api/empresas")
+@Validated
+@Profile("reactivo")
+public class EmpresaReactivaController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmpresaReactivaController.class);
+
+    private final EmpresaReactivaService empresaReactivaService;
+    private final EmpresaService empresaService;
+    private final ImportacionService importacionService;
+    private final PaginacionProperties paginacion;
+
+    public EmpresaReactivaController(EmpresaReactivaService empresaReactivaService,
+                                     EmpresaService empresaService,
+                                     ImportacionService importacionService,
+                                     PaginacionProperties paginacion) {
+        this.empresaReactivaService = empresaReactivaService;
+        this.empresaService = empresaService;
+        this.importacionService = importacionService;
+        this.paginacion = paginacion;
+    }
+
+    /**
+     * Listar todas las empresas
+     * GET /api/empresas?after=...&limit=...&include=sedes
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<EmpresaDTO>>> listarTodas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/empresas - Listar todas las empresas");
+        return paginado(after, limit, request,
+                pagina -> empresaReactivaService.obtenerTodas(pagina, incluyeSedes(include)));
+    }
+
+    /**
+     * Exportar todas las empresas con sus sedes en streaming (NDJSON)
+     * GET /api/empresas/export
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EmpresaDTO> exportar() {
+        logger.info("GET /api/empresas/export - Exportar empresas (NDJSON)");
+        return empresaReactivaService.exportar();
+    }
+
+    /**
+     * Obtener una empresa por ID
+     * GET /api/empresas/{id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EmpresaDTO>> obtenerPorId(@PathVariable Long id) {
+        logger.info("GET /api/empresas/{} - Obtener empresa", id);
+        return empresaReactivaService.obtenerPorId(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crear una nueva empresa
+     * POST /api/empresas
+     */
+    @PostMapping
+    public Mono<ResponseEntity<EmpresaDTO>> crear(@Valid @RequestBody EmpresaDTO empresaDTO) {
+        logger.info("POST /api/empresas - Crear empresa: {}", empresaDTO.getRazonSocial());
+        return Bloqueante.ejecutar(() -> {
+            try {
+                EmpresaDTO empresaCreada = empresaService.crear(empresaDTO);
+                return ResponseEntity.status(HttpStatus.CREATED).body(empresaCreada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al crear empresa: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Importación masiva (array JSON)
+     * POST /api/empresas/bulk
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ResultadoImportacionDTO>> importar(@RequestBody List<EmpresaDTO> empresas) {
+        logger.info("POST /api/empresas/bulk - Importar {} empresas", empresas.size());
+        return Bloqueante.ejecutar(() -> ResponseEntity.ok(importacionService.importar(empresas.iterator())));
+    }
+
+    /**
+     * Importación masiva en streaming (application/x-ndjson)
+     * POST /api/empresas/bulk
+     * 
+     * El cuerpo se consume bajo demanda a medida que ImportacionService avanza
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<ResultadoImportacionDTO>> importarNdjson(@RequestBody Flux<EmpresaDTO> empresas) {
+        logger.info("POST /api/empresas/bulk - Importar empresas (NDJSON)");
+        return Bloqueante.ejecutar(() ->
+                ResponseEntity.ok(importacionService.importar(empresas.toIterable().iterator())));
+    }
+
+    /**
+     * Actualizar una empresa existente
+     * PUT /api/empresas/{id}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<EmpresaDTO>> actualizar(
+            @PathVariable Long id,
+            @Valid @RequestBody EmpresaDTO empresaDTO) {
+
+        logger.info("PUT /api/empresas/{} - Actualizar empresa", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                return ResponseEntity.ok(empresaService.actualizar(id, empresaDTO));
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al actualizar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Eliminar una empresa
+     * DELETE /api/empresas/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> eliminar(@PathVariable Long id) {
+        logger.info("DELETE /api/empresas/{} - Eliminar empresa", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                empresaService.eliminar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al eliminar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Listar empresas activas
+     * GET /api/empresas/activas
+     */
+    @GetMapping("/activas")
+    public Mono<ResponseEntity<Flux<EmpresaDTO>>> listarActivas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/empresas/activas - Listar empresas activas");
+        return paginado(after, limit, request,
+                pagina -> empresaReactivaService.obtenerActivas(pagina, incluyeSedes(include)));
+    }
+
+    /**
+     * Buscar por CIF
+     * GET /api/empresas/cif/{cif}
+     */
+    @GetMapping("/cif/{cif}")
+    public Mono<ResponseEntity<EmpresaDTO>> buscarPorCif(@PathVariable String cif) {
+        logger.info("GET /api/empresas/cif/{} - Buscar por CIF", cif);
+        return empresaReactivaService.obtenerPorCif(cif)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Buscar por sector
+     * GET /api/empresas/sector/{sector}
+     */
+    @GetMapping("/sector/{sector}")
+    public Mono<ResponseEntity<Flux<EmpresaDTO>>> buscarPorSector(
+            @PathVariable String sector,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/empresas/sector/{} - Buscar por sector", sector);
+        return paginado(after, limit, request,
+                pagina -> empresaReactivaService.buscarPorSector(sector, pagina, incluyeSedes(include)));
+    }
+
+    /**
+     * Buscar por razón social
+     * GET /api/empresas/buscar?texto=...
+     */
+    @GetMapping("/buscar")
+    public Mono<ResponseEntity<Flux<EmpresaDTO>>> buscarPorRazonSocial(
+            @RequestParam String texto,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String include,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/empresas/buscar?texto={}", texto);
+        return paginado(after, limit, request,
+                pagina -> empresaReactivaService.buscarPorRazonSocial(texto, pagina, incluyeSedes(include)));
+    }
+
+    /**
+     * Desactivar empresa (soft delete)
+     * PATCH /api/empresas/{id}/desactivar
+     */
+    @PatchMapping("/{id}/desactivar")
+    public Mono<ResponseEntity<Void>> desactivar(@PathVariable Long id) {
+        logger.info("PATCH /api/empresas/{}/desactivar", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                empresaService.desactivar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al desactivar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Activar empresa
+     * PATCH /api/empresas/{id}/activar
+     */
+    @PatchMapping("/{id}/activar")
+    public Mono<ResponseEntity<Void>> activar(@PathVariable Long id) {
+        logger.info("PATCH /api/empresas/{}/activar", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                empresaService.activar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al activar empresa: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Obtener estadísticas
+     * GET /api/empresas/estadisticas/activas
+     */
+    @GetMapping("/estadisticas/activas")
+    public Mono<ResponseEntity<Long>> contarActivas() {
+        logger.info("GET /api/empresas/estadisticas/activas");
+        return Bloqueante.ejecutar(() -> ResponseEntity.ok(empresaService.contarEmpresasActivas()));
+    }
+
+    private Mono<ResponseEntity<Flux<EmpresaDTO>>> paginado(
+            String after, Integer limit, ServerHttpRequest request,
+            Function<SolicitudPagina, PaginaReactiva<EmpresaDTO>> consulta) {
+        try {
+            return consulta.apply(SolicitudPagina.de(after, limit, paginacion)).toResponse(request);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error en listado de empresas: {}", e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+
+    /**
+     * Indica si el parámetro include (lista separada por comas) solicita las sedes
+     */
+    private static boolean incluyeSedes(String include) {
+        if (include == null) {
+            return false;
+        }
+        for (String valor : include.split(",")) {
+            if ("sedes".equalsIgnoreCase(valor.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
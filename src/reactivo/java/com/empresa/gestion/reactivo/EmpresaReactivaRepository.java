@@ -0,0 +1,102 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.entity.Empresa;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Acceso reactivo (R2DBC) a la tabla empresas
+ * 
+ * Mismas consultas que EmpresaRepository (keyset por id, columnas normalizadas)
+ * ejecutadas con DatabaseClient sobre el mismo esquema de Flyway.
+ */
+@Repository
+@Profile("reactivo")
+public class EmpresaReactivaRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public EmpresaReactivaRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    static FiltroSql activas() {
+        return FiltroSql.de("activo = TRUE");
+    }
+
+    static FiltroSql porSector(String sector) {
+        return FiltroSql.de("sector_normalizado = UPPER(:sector)", "sector", sector);
+    }
+
+    static FiltroSql porRazonSocial(String texto) {
+        return FiltroSql.de("LOWER(razon_social) LIKE LOWER(CONCAT('%', :texto, '%'))", "texto", texto);
+    }
+
+    public Mono<Empresa> findById(Long id) {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_EMPRESA + " FROM empresas WHERE id = :id")
+                .bind("id", id)
+                .map((fila, metadatos) -> FilasR2dbc.empresa(fila))
+                .one();
+    }
+
+    public Mono<Empresa> findByCif(String cif) {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_EMPRESA + " FROM empresas WHERE cif = :cif")
+                .bind("cif", cif)
+                .map((fila, metadatos) -> FilasR2dbc.empresa(fila))
+                .one();
+    }
+
+    /**
+     * Página por cursor: filas con id > afterId en orden de id
+     */
+    public Flux<Empresa> pagina(FiltroSql filtro, Long afterId, int limite) {
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(
+                "SELECT " + FilasR2dbc.COLUMNAS_EMPRESA + " FROM empresas"
+                        + " WHERE id > :afterId AND (" + filtro.condicion + ") ORDER BY id LIMIT :limite")
+                .bind("afterId", afterId)
+                .bind("limite", limite);
+        return vincular(consulta, filtro.parametros)
+                .map((fila, metadatos) -> FilasR2dbc.empresa(fila))
+                .all();
+    }
+
+    /**
+     * ID de la última fila de la página si existe una fila más (cursor siguiente).
+     * Solo lee el índice: permite enviar las cabeceras antes que el cuerpo.
+     */
+    public Mono<Long> siguienteCursor(FiltroSql filtro, Long afterId, int limite) {
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(
+                "SELECT id FROM empresas WHERE id > :afterId AND (" + filtro.condicion + ")"
+                        + " ORDER BY id LIMIT 2 OFFSET :desplazamiento")
+                .bind("afterId", afterId)
+                .bind("desplazamiento", limite - 1);
+        return vincular(consulta, filtro.parametros)
+                .map((fila, metadatos) -> fila.get("id", Long.class))
+                .all()
+                .collectList()
+                .filter(ids -> ids.size() == 2)
+                .map(ids -> ids.get(0));
+    }
+
+    /**
+     * Todas las empresas en orden de id (exportación)
+     */
+    public Flux<Empresa> todasOrdenadas() {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_EMPRESA + " FROM empresas ORDER BY id")
+                .map((fila, metadatos) -> FilasR2dbc.empresa(fila))
+                .all();
+    }
+
+    static DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec consulta,
+                                                      Map<String, Object> parametros) {
+        for (Map.Entry<String, Object> parametro : parametros.entrySet()) {
+            consulta = consulta.bind(parametro.getKey(), parametro.getValue());
+        }
+        return consulta;
+    }
+}
@@ -0,0 +1,113 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.mapper.EmpresaMapper;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lecturas reactivas de empresas (R2DBC + EmpresaMapper)
+ * 
+ * Las sedes se cargan por bloques de empresas (una consulta IN por bloque),
+ * sin romper el streaming del listado.
+ */
+@Service
+@Profile("reactivo")
+public class EmpresaReactivaService {
+
+    private static final int EMPRESAS_POR_BLOQUE_SEDES = 100;
+
+    private final EmpresaReactivaRepository empresaRepository;
+    private final SedeReactivaRepository sedeRepository;
+    private final EmpresaMapper empresaMapper;
+
+    public EmpresaReactivaService(EmpresaReactivaRepository empresaRepository,
+                                  SedeReactivaRepository sedeRepository,
+                                  EmpresaMapper empresaMapper) {
+        this.empresaRepository = empresaRepository;
+        this.sedeRepository = sedeRepository;
+        this.empresaMapper = empresaMapper;
+    }
+
+    /**
+     * Empresa con sus sedes (mismo contenido que EmpresaService.obtenerPorId)
+     */
+    public Mono<EmpresaDTO> obtenerPorId(Long id) {
+        return empresaRepository.findById(id).flatMap(this::conSedes);
+    }
+
+    public Mono<EmpresaDTO> obtenerPorCif(String cif) {
+        return empresaRepository.findByCif(cif).flatMap(this::conSedes);
+    }
+
+    public PaginaReactiva<EmpresaDTO> obtenerTodas(SolicitudPagina pagina, boolean incluirSedes) {
+        return pagina(FiltroSql.NINGUNO, pagina, incluirSedes);
+    }
+
+    public PaginaReactiva<EmpresaDTO> obtenerActivas(SolicitudPagina pagina, boolean incluirSedes) {
+        return pagina(EmpresaReactivaRepository.activas(), pagina, incluirSedes);
+    }
+
+    public PaginaReactiva<EmpresaDTO> buscarPorSector(String sector, SolicitudPagina pagina, boolean incluirSedes) {
+        return pagina(EmpresaReactivaRepository.porSector(sector), pagina, incluirSedes);
+    }
+
+    public PaginaReactiva<EmpresaDTO> buscarPorRazonSocial(String texto, SolicitudPagina pagina,
+                                                           boolean incluirSedes) {
+        return pagina(EmpresaReactivaRepository.porRazonSocial(texto), pagina, incluirSedes);
+    }
+
+    /**
+     * Todas las empresas con sus sedes, en streaming (NDJSON)
+     */
+    public Flux<EmpresaDTO> exportar() {
+        return mapear(empresaRepository.todasOrdenadas(), true);
+    }
+
+    private PaginaReactiva<EmpresaDTO> pagina(FiltroSql filtro, SolicitudPagina pagina, boolean incluirSedes) {
+        Flux<Empresa> empresas = empresaRepository.pagina(filtro, pagina.getAfterId(), pagina.getLimite());
+        return new PaginaReactiva<>(mapear(empresas, incluirSedes),
+                empresaRepository.siguienteCursor(filtro, pagina.getAfterId(), pagina.getLimite()),
+                pagina.getLimite());
+    }
+
+    private Flux<EmpresaDTO> mapear(Flux<Empresa> empresas, boolean incluirSedes) {
+        if (!incluirSedes) {
+            return empresas.map(empresaMapper::toDTOSinSedes);
+        }
+        return empresas.buffer(EMPRESAS_POR_BLOQUE_SEDES)
+                .concatMap(bloque -> {
+                    List<Long> ids = bloque.stream().map(Empresa::getId).collect(Collectors.toList());
+                    return sedeRepository.findByEmpresaIds(ids)
+                            .collectMultimap(sede -> sede.getEmpresa().getId())
+                            .flatMapIterable(sedes -> toDTOList(bloque, sedes));
+                });
+    }
+
+    private Mono<EmpresaDTO> conSedes(Empresa empresa) {
+        return sedeRepository.findByEmpresaIds(Collections.singletonList(empresa.getId()))
+                .collectList()
+                .map(sedes -> empresaMapper.toDTO(empresa, sedes));
+    }
+
+    private List<EmpresaDTO> toDTOList(List<Empresa> empresas, Map<Long, Collection<Sede>> sedes) {
+        List<EmpresaDTO> dtos = new ArrayList<>(empresas.size());
+        for (Empresa empresa : empresas) {
+            Collection<Sede> sedesEmpresa = sedes.getOrDefault(empresa.getId(), Collections.emptyList());
+            dtos.add(empresaMapper.toDTO(empresa, new ArrayList<>(sedesEmpresa)));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import io.r2dbc.spi.Row;
+
+import java.time.LocalDate;
+
+/**
+ * Conversión de filas R2DBC a entidades (no gestionadas) para reutilizar
+ * EmpresaMapper / SedeMapper
+ */
+final class FilasR2dbc {
+
+    static final String COLUMNAS_EMPRESA = "id, razon_social, cif, email, telefono, sector, "
+            + "fecha_alta, activo, facturacion_anual, numero_empleados";
+
+    static final String COLUMNAS_SEDE = "id, nombre, direccion, ciudad, provincia, codigo_postal, pais, "
+            + "telefono, email, es_principal, capacidad_almacenamiento, horario_recepcion, empresa_id";
+
+    private FilasR2dbc() {
+    }
+
+    static Empresa empresa(Row fila) {
+        Empresa empresa = new Empresa();
+        empresa.setId(fila.get("id", Long.class));
+        empresa.setRazonSocial(fila.get("razon_social", String.class));
+        empresa.setCif(fila.get("cif", String.class));
+        empresa.setEmail(fila.get("email", String.class));
+        empresa.setTelefono(fila.get("telefono", String.class));
+        empresa.setSector(fila.get("sector", String.class));
+        empresa.setFechaAlta(fila.get("fecha_alta", LocalDate.class));
+        empresa.setActivo(fila.get("activo", Boolean.class));
+        empresa.setFacturacionAnual(fila.get("facturacion_anual", Double.class));
+        empresa.setNumeroEmpleados(fila.get("numero_empleados", Integer.class));
+        return empresa;
+    }
+
+    /**
+     * La empresa se representa solo con su ID (SedeMapper solo lee empresa.getId())
+     */
+    static Sede sede(Row fila) {
+        Sede sede = new Sede();
+        sede.setId(fila.get("id", Long.class));
+        sede.setNombre(fila.get("nombre", String.class));
+        sede.setDireccion(fila.get("direccion", String.class));
+        sede.setCiudad(fila.get("ciudad", String.class));
+        sede.setProvincia(fila.get("provincia", String.class));
+        sede.setCodigoPostal(fila.get("codigo_postal", String.class));
+        sede.setPais(fila.get("pais", String.class));
+        sede.setTelefono(fila.get("telefono", String.class));
+        sede.setEmail(fila.get("email", String.class));
+        sede.setEsPrincipal(fila.get("es_principal", Boolean.class));
+        sede.setCapacidadAlmacenamiento(fila.get("capacidad_almacenamiento", Double.class));
+        sede.setHorarioRecepcion(fila.get("horario_recepcion", String.class));
+
+        Empresa empresa = new Empresa();
+        empresa.setId(fila.get("empresa_id", Long.class));
+        sede.setEmpresa(empresa);
+        return sede;
+    }
+}
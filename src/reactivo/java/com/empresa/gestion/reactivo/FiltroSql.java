@@ -0,0 +1,32 @@
+package com.empresa.gestion.reactivo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Condición WHERE adicional de un listado con sus parámetros
+ * (se combina con "id > :afterId" y ORDER BY id)
+ */
+final class FiltroSql {
+
+    static final FiltroSql NINGUNO = new FiltroSql("1 = 1", Collections.emptyMap());
+
+    final String condicion;
+    final Map<String, Object> parametros;
+
+    private FiltroSql(String condicion, Map<String, Object> parametros) {
+        this.condicion = condicion;
+        this.parametros = parametros;
+    }
+
+    static FiltroSql de(String condicion) {
+        return new FiltroSql(condicion, Collections.emptyMap());
+    }
+
+    static FiltroSql de(String condicion, String parametro, Object valor) {
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put(parametro, valor);
+        return new FiltroSql(condicion, parametros);
+    }
+}
@@ -0,0 +1,52 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.paginacion.CursorCodec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Página por cursor en el stack reactivo
+ * 
+ * El cursor siguiente se resuelve antes que el contenido para poder
+ * publicar Link / X-Next-Cursor; el cuerpo (array JSON) se escribe en
+ * streaming con backpressure a medida que llegan las filas.
+ */
+public final class PaginaReactiva<T> {
+
+    static final String CABECERA_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    private final Flux<T> contenido;
+    private final Mono<Long> siguienteId;
+    private final int limite;
+
+    PaginaReactiva(Flux<T> contenido, Mono<Long> siguienteId, int limite) {
+        this.contenido = contenido;
+        this.siguienteId = siguienteId;
+        this.limite = limite;
+    }
+
+    public Mono<ResponseEntity<Flux<T>>> toResponse(ServerHttpRequest request) {
+        return siguienteId.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(siguiente -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    siguiente.ifPresent(id -> {
+                        String cursor = CursorCodec.codificar(id);
+                        String enlace = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("after", cursor)
+                                .replaceQueryParam("limit", limite)
+                                .build()
+                                .toUriString();
+                        headers.add(HttpHeaders.LINK, "<" + enlace + ">; rel=\"next\"");
+                        headers.add(CABECERA_SIGUIENTE_CURSOR, cursor);
+                    });
+                    return ResponseEntity.ok().headers(headers).body(contenido);
+                });
+    }
+}
@@ -0,0 +1,34 @@
+package com.empresa.gestion.reactivo;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Configuración del perfil "reactivo" (WebFlux + R2DBC)
+ * 
+ * - Servidor Netty aunque Tomcat siga en el classpath (spring-boot-starter-web)
+ * - Las escrituras reutilizan los servicios JPA: su transaction manager se declara
+ *   @Primary para que @Transactional no elija el R2dbcTransactionManager
+ */
+@Configuration
+@Profile("reactivo")
+public class ReactivoConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,220 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.paginacion.PaginacionProperties;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import com.empresa.gestion.service.SedeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.function.Function;
+
+/**
+ * Controlador REST reactivo de Sedes (perfil "reactivo")
+ * 
+ * Mismo contrato que SedeController; ver EmpresaReactivaController
+ */
+@RestController
+@RequestMapping("/api/sedes")
+@Validated
+@Profile("reactivo")
+public class SedeReactivaController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SedeReactivaController.class);
+
+    private final SedeReactivaService sedeReactivaService;
+    private final SedeService sedeService;
+    private final PaginacionProperties paginacion;
+
+    public SedeReactivaController(SedeReactivaService sedeReactivaService,
+                                  SedeService sedeService,
+                                  PaginacionProperties paginacion) {
+        this.sedeReactivaService = sedeReactivaService;
+        this.sedeService = sedeService;
+        this.paginacion = paginacion;
+    }
+
+    /**
+     * Listar todas las sedes
+     * GET /api/sedes?after=...&limit=...
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<SedeDTO>>> listarTodas(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/sedes - Listar todas las sedes");
+        return paginado(after, limit, request, sedeReactivaService::obtenerTodas);
+    }
+
+    /**
+     * Obtener una sede por ID
+     * GET /api/sedes/{id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<SedeDTO>> obtenerPorId(@PathVariable Long id) {
+        logger.info("GET /api/sedes/{} - Obtener sede", id);
+        return sedeReactivaService.obtenerPorId(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crear una nueva sede
+     * POST /api/sedes
+     */
+    @PostMapping
+    public Mono<ResponseEntity<SedeDTO>> crear(@Valid @RequestBody SedeDTO sedeDTO) {
+        logger.info("POST /api/sedes - Crear sede: {}", sedeDTO.getNombre());
+        return Bloqueante.ejecutar(() -> {
+            try {
+                SedeDTO sedeCreada = sedeService.crear(sedeDTO);
+                return ResponseEntity.status(HttpStatus.CREATED).body(sedeCreada);
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al crear sede: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Actualizar una sede existente
+     * PUT /api/sedes/{id}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<SedeDTO>> actualizar(
+            @PathVariable Long id,
+            @Valid @RequestBody SedeDTO sedeDTO) {
+
+        logger.info("PUT /api/sedes/{} - Actualizar sede", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                return ResponseEntity.ok(sedeService.actualizar(id, sedeDTO));
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al actualizar sede: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Eliminar una sede
+     * DELETE /api/sedes/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> eliminar(@PathVariable Long id) {
+        logger.info("DELETE /api/sedes/{} - Eliminar sede", id);
+        return Bloqueante.ejecutar(() -> {
+            try {
+                sedeService.eliminar(id);
+                return ResponseEntity.noContent().build();
+            } catch (IllegalArgumentException e) {
+                logger.error("Error al eliminar sede: {}", e.getMessage());
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    /**
+     * Obtener sedes de una empresa específica
+     * GET /api/sedes/empresa/{empresaId}
+     */
+    @GetMapping("/empresa/{empresaId}")
+    public Mono<ResponseEntity<Flux<SedeDTO>>> listarPorEmpresa(
+            @PathVariable Long empresaId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/sedes/empresa/{} - Listar sedes de empresa", empresaId);
+        return paginado(after, limit, request, pagina -> sedeReactivaService.obtenerPorEmpresa(empresaId, pagina));
+    }
+
+    /**
+     * Buscar sedes por ciudad
+     * GET /api/sedes/ciudad/{ciudad}
+     */
+    @GetMapping("/ciudad/{ciudad}")
+    public Mono<ResponseEntity<Flux<SedeDTO>>> buscarPorCiudad(
+            @PathVariable String ciudad,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/sedes/ciudad/{} - Buscar por ciudad", ciudad);
+        return paginado(after, limit, request, pagina -> sedeReactivaService.buscarPorCiudad(ciudad, pagina));
+    }
+
+    /**
+     * Buscar sedes por provincia
+     * GET /api/sedes/provincia/{provincia}
+     */
+    @GetMapping("/provincia/{provincia}")
+    public Mono<ResponseEntity<Flux<SedeDTO>>> buscarPorProvincia(
+            @PathVariable String provincia,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/sedes/provincia/{} - Buscar por provincia", provincia);
+        return paginado(after, limit, request, pagina -> sedeReactivaService.buscarPorProvincia(provincia, pagina));
+    }
+
+    /**
+     * Obtener sede principal de una empresa
+     * GET /api/sedes/empresa/{empresaId}/principal
+     */
+    @GetMapping("/empresa/{empresaId}/principal")
+    public Mono<ResponseEntity<SedeDTO>> obtenerSedePrincipal(@PathVariable Long empresaId) {
+        logger.info("GET /api/sedes/empresa/{}/principal - Obtener sede principal", empresaId);
+        return sedeReactivaService.obtenerSedePrincipal(empresaId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Buscar sedes por nombre
+     * GET /api/sedes/buscar?texto=...
+     */
+    @GetMapping("/buscar")
+    public Mono<ResponseEntity<Flux<SedeDTO>>> buscarPorNombre(
+            @RequestParam String texto,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request) {
+
+        logger.info("GET /api/sedes/buscar?texto={}", texto);
+        return paginado(after, limit, request, pagina -> sedeReactivaService.buscarPorNombre(texto, pagina));
+    }
+
+    /**
+     * Contar sedes de una empresa
+     * GET /api/sedes/empresa/{empresaId}/count
+     */
+    @GetMapping("/empresa/{empresaId}/count")
+    public Mono<ResponseEntity<Long>> contarSedesPorEmpresa(@PathVariable Long empresaId) {
+        logger.info("GET /api/sedes/empresa/{}/count", empresaId);
+        return Bloqueante.ejecutar(() -> ResponseEntity.ok(sedeService.contarSedesPorEmpresa(empresaId)));
+    }
+
+    private Mono<ResponseEntity<Flux<SedeDTO>>> paginado(
+            String after, Integer limit, ServerHttpRequest request,
+            Function<SolicitudPagina, PaginaReactiva<SedeDTO>> consulta) {
+        try {
+            return consulta.apply(SolicitudPagina.de(after, limit, paginacion)).toResponse(request);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error en listado de sedes: {}", e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+    }
+}
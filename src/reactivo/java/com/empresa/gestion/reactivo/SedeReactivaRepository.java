@@ -0,0 +1,94 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.entity.Sede;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Acceso reactivo (R2DBC) a la tabla sedes
+ */
+@Repository
+@Profile("reactivo")
+public class SedeReactivaRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public SedeReactivaRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    static FiltroSql porEmpresa(Long empresaId) {
+        return FiltroSql.de("empresa_id = :empresaId", "empresaId", empresaId);
+    }
+
+    static FiltroSql porCiudad(String ciudad) {
+        return FiltroSql.de("ciudad_normalizada = UPPER(:ciudad)", "ciudad", ciudad);
+    }
+
+    static FiltroSql porProvincia(String provincia) {
+        return FiltroSql.de("provincia_normalizada = UPPER(:provincia)", "provincia", provincia);
+    }
+
+    static FiltroSql porNombre(String texto) {
+        return FiltroSql.de("LOWER(nombre) LIKE LOWER(CONCAT('%', :texto, '%'))", "texto", texto);
+    }
+
+    public Mono<Sede> findById(Long id) {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_SEDE + " FROM sedes WHERE id = :id")
+                .bind("id", id)
+                .map((fila, metadatos) -> FilasR2dbc.sede(fila))
+                .one();
+    }
+
+    public Mono<Sede> findPrincipal(Long empresaId) {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_SEDE + " FROM sedes"
+                        + " WHERE empresa_id = :empresaId AND es_principal = TRUE")
+                .bind("empresaId", empresaId)
+                .map((fila, metadatos) -> FilasR2dbc.sede(fila))
+                .one();
+    }
+
+    /**
+     * Sedes de un bloque de empresas, ordenadas por empresa e id
+     */
+    public Flux<Sede> findByEmpresaIds(Collection<Long> empresaIds) {
+        return databaseClient.sql("SELECT " + FilasR2dbc.COLUMNAS_SEDE + " FROM sedes"
+                        + " WHERE empresa_id IN (:empresaIds) ORDER BY empresa_id, id")
+                .bind("empresaIds", empresaIds)
+                .map((fila, metadatos) -> FilasR2dbc.sede(fila))
+                .all();
+    }
+
+    public Flux<Sede> pagina(FiltroSql filtro, Long afterId, int limite) {
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(
+                "SELECT " + FilasR2dbc.COLUMNAS_SEDE + " FROM sedes"
+                        + " WHERE id > :afterId AND (" + filtro.condicion + ") ORDER BY id LIMIT :limite")
+                .bind("afterId", afterId)
+                .bind("limite", limite);
+        return EmpresaReactivaRepository.vincular(consulta, filtro.parametros)
+                .map((fila, metadatos) -> FilasR2dbc.sede(fila))
+                .all();
+    }
+
+    /**
+     * Ver EmpresaReactivaRepository.siguienteCursor
+     */
+    public Mono<Long> siguienteCursor(FiltroSql filtro, Long afterId, int limite) {
+        DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(
+                "SELECT id FROM sedes WHERE id > :afterId AND (" + filtro.condicion + ")"
+                        + " ORDER BY id LIMIT 2 OFFSET :desplazamiento")
+                .bind("afterId", afterId)
+                .bind("desplazamiento", limite - 1);
+        return EmpresaReactivaRepository.vincular(consulta, filtro.parametros)
+                .map((fila, metadatos) -> fila.get("id", Long.class))
+                .all()
+                .collectList()
+                .filter(ids -> ids.size() == 2)
+                .map(ids -> ids.get(0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.empresa.gestion.reactivo;
+
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.mapper.SedeMapper;
+import com.empresa.gestion.paginacion.SolicitudPagina;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas reactivas de sedes (R2DBC + SedeMapper)
+ */
+@Service
+@Profile("reactivo")
+public class SedeReactivaService {
+
+    private final SedeReactivaRepository sedeRepository;
+    private final SedeMapper sedeMapper;
+
+    public SedeReactivaService(SedeReactivaRepository sedeRepository, SedeMapper sedeMapper) {
+        this.sedeRepository = sedeRepository;
+        this.sedeMapper = sedeMapper;
+    }
+
+    public Mono<SedeDTO> obtenerPorId(Long id) {
+        return sedeRepository.findById(id).map(sedeMapper::toDTO);
+    }
+
+    public Mono<SedeDTO> obtenerSedePrincipal(Long empresaId) {
+        return sedeRepository.findPrincipal(empresaId).map(sedeMapper::toDTO);
+    }
+
+    public PaginaReactiva<SedeDTO> obtenerTodas(SolicitudPagina pagina) {
+        return pagina(FiltroSql.NINGUNO, pagina);
+    }
+
+    public PaginaReactiva<SedeDTO> obtenerPorEmpresa(Long empresaId, SolicitudPagina pagina) {
+        return pagina(SedeReactivaRepository.porEmpresa(empresaId), pagina);
+    }
+
+    public PaginaReactiva<SedeDTO> buscarPorCiudad(String ciudad, SolicitudPagina pagina) {
+        return pagina(SedeReactivaRepository.porCiudad(ciudad), pagina);
+    }
+
+    public PaginaReactiva<SedeDTO> buscarPorProvincia(String provincia, SolicitudPagina pagina) {
+        return pagina(SedeReactivaRepository.porProvincia(provincia), pagina);
+    }
+
+    public PaginaReactiva<SedeDTO> buscarPorNombre(String texto, SolicitudPagina pagina) {
+        return pagina(SedeReactivaRepository.porNombre(texto), pagina);
+    }
+
+    private PaginaReactiva<SedeDTO> pagina(FiltroSql filtro, SolicitudPagina pagina) {
+        return new PaginaReactiva<>(
+                sedeRepository.pagina(filtro, pagina.getAfterId(), pagina.getLimite()).map(sedeMapper::toDTO),
+                sedeRepository.siguienteCursor(filtro, pagina.getAfterId(), pagina.getLimite()),
+                pagina.getLimite());
+    }
+}
@@ -0,0 +1,56 @@
+package com.empresa.gestion;
+
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.repository.EmpresaRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos de prueba compartidos por las pruebas de integración
+ * 
+ * - Todas las pruebas comparten contexto y base de datos (H2 en memoria),
+ *   así que los CIF se generan únicos y cada prueba filtra por sus propios IDs o sector
+ * - Guardar por repositorio no pasa por los servicios: nada de lo que estos
+ *   actualizan tras el commit (cachés, contadores...) se entera del alta
+ */
+public final class DatosPrueba {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private DatosPrueba() {
+    }
+
+    /**
+     * CIF que no coincide con los datos de ejemplo ni con otra prueba
+     */
+    public static String cifUnico() {
+        return String.format("T%08d", SECUENCIA.incrementAndGet());
+    }
+
+    /**
+     * Empresa sin guardar con el número de sedes indicado (la primera es la principal)
+     */
+    public static Empresa empresa(String sector, int sedes) {
+        String cif = cifUnico();
+        Empresa empresa = new Empresa("Empresa " + cif, cif);
+        empresa.setSector(sector);
+        empresa.setFacturacionAnual(1000000.0);
+        empresa.setNumeroEmpleados(10);
+        for (int i = 0; i < sedes; i++) {
+            Sede sede = new Sede("Sede " + i, "Calle " + i, "Madrid");
+            sede.setProvincia("Madrid");
+            sede.setCapacidadAlmacenamiento(100.0);
+            sede.setEsPrincipal(i == 0);
+            empresa.addSede(sede);
+        }
+        return empresa;
+    }
+
+    /**
+     * Guardar una empresa con sus sedes directamente por repositorio
+     */
+    public static Empresa guardarEmpresa(EmpresaRepository empresaRepository, String sector, int sedes) {
+        return empresaRepository.saveAndFlush(empresa(sector, sedes));
+    }
+}
@@ -0,0 +1,90 @@
+package com.empresa.gestion.acceso;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BufferCircular: capacidad, vaciado en orden y varios productores con un consumidor
+ */
+class BufferCircularTest {
+
+    @Test
+    void llenoRechazaYTrasVaciarseReutilizaLasRanuras() {
+        BufferCircular<Integer> buffer = new BufferCircular<>(4);
+        for (int i = 1; i <= 4; i++) {
+            assertThat(buffer.ofrecer(i)).isTrue();
+        }
+        assertThat(buffer.ofrecer(5)).isFalse();
+        assertThat(buffer.pendientes()).isEqualTo(4);
+
+        List<Integer> recibidos = new ArrayList<>();
+        assertThat(buffer.drenar(recibidos::add, 2)).isEqualTo(2);
+        assertThat(recibidos).containsExactly(1, 2);
+        assertThat(buffer.pendientes()).isEqualTo(2);
+
+        // Las ranuras liberadas se reutilizan dando la vuelta al array
+        assertThat(buffer.ofrecer(5)).isTrue();
+        assertThat(buffer.ofrecer(6)).isTrue();
+        assertThat(buffer.ofrecer(7)).isFalse();
+
+        assertThat(buffer.drenar(recibidos::add, 100)).isEqualTo(4);
+        assertThat(recibidos).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(buffer.pendientes()).isZero();
+        assertThat(buffer.drenar(recibidos::add, 100)).isZero();
+    }
+
+    @Test
+    void laCapacidadSeRedondeaALaSiguientePotenciaDeDos() {
+        BufferCircular<Integer> buffer = new BufferCircular<>(5);
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.ofrecer(i)).isTrue();
+        }
+        assertThat(buffer.ofrecer(8)).isFalse();
+    }
+
+    @Test
+    void variosProductoresEntreganCadaElementoUnaVezYEnSuOrden() throws Exception {
+        int productores = 4;
+        int porProductor = 20_000;
+        BufferCircular<long[]> buffer = new BufferCircular<>(256);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(productores);
+        try {
+            for (int p = 0; p < productores; p++) {
+                long productor = p;
+                hilos.execute(() -> {
+                    for (long i = 0; i < porProductor; i++) {
+                        long[] elemento = {productor, i};
+                        while (!buffer.ofrecer(elemento)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+
+            long[] siguiente = new long[productores];
+            long recibidos = 0;
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (recibidos < (long) productores * porProductor && System.nanoTime() < limite) {
+                recibidos += buffer.drenar(elemento -> {
+                    int productor = (int) elemento[0];
+                    assertThat(elemento[1]).isEqualTo(siguiente[productor]);
+                    siguiente[productor]++;
+                }, 64);
+            }
+
+            assertThat(recibidos).isEqualTo((long) productores * porProductor);
+            assertThat(siguiente).containsOnly(porProductor);
+            assertThat(buffer.pendientes()).isZero();
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
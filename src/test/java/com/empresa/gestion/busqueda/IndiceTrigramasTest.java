@@ -0,0 +1,118 @@
+package com.empresa.gestion.busqueda;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IndiceTrigramas: mismos IDs, en el mismo orden, que LOWER(razonSocial) LIKE LOWER('%texto%')
+ * 
+ * Cada prueba se deshace al terminar (@Transactional).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class IndiceTrigramasTest {
+
+    private static final List<String> RAZONES_SOCIALES = Arrays.asList(
+            "Cafés del Norte S.L.", "CAFÉ CENTRAL S.A.", "Cafe Sin Tilde S.L.", "Árboles y Jardines S.L.",
+            "Arboleda Ibérica S.A.", "Ñandú Logística S.L.", "Pingüino Frío S.A.", "Construcciones Peña S.L.",
+            "Transportes Muñoz e Hijos S.A.", "Óptica Ángel S.L.", "Energía Solar Íbera S.A.", "aaa",
+            "Aaaa Distribución S.L.", "Información y Datos S.L.", "Café Café Café S.L.", "x");
+
+    private static final List<String> CONSULTAS = Arrays.asList(
+            // Menos de tres caracteres: recorrido de textos
+            "", "a", "é", "É", "ñ", "ü", "ca", "fé", "s.", " ",
+            // Trigramas
+            "caf", "café", "CAFÉ", "cafe", "afé", "árbol", "arbol", "ÁRBOLES", "ñandú", "nandu",
+            "pingüino", "peña", "muñoz e", "ángel", "íbera", "iber", "ibér", "aaa", "aaaa",
+            "ción", "ción s.l.", "s.l.", "s.a.", "café café", "no aparece", "xyz");
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final IndiceTrigramas indice = new IndiceTrigramas();
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        for (String razonSocial : RAZONES_SOCIALES) {
+            Empresa empresa = DatosPrueba.empresa("Trigramas", 0);
+            empresa.setRazonSocial(razonSocial);
+            Long id = empresaRepository.saveAndFlush(empresa).getId();
+            ids.add(id);
+            indice.indexar(id, razonSocial);
+        }
+    }
+
+    @Test
+    void devuelveLosMismosIdsQueLike() {
+        for (String consulta : CONSULTAS) {
+            assertThat(indice.buscar(consulta, 0L, Integer.MAX_VALUE))
+                    .as("Consulta '%s'", consulta)
+                    .isEqualTo(like(consulta, 0L, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void paginaDesdeAfterIdComoLike() {
+        for (String consulta : CONSULTAS) {
+            Long afterId = 0L;
+            List<Long> pagina;
+            do {
+                pagina = indice.buscar(consulta, afterId, 2);
+                assertThat(pagina)
+                        .as("Consulta '%s' después de %d", consulta, afterId)
+                        .isEqualTo(like(consulta, afterId, 2));
+                if (!pagina.isEmpty()) {
+                    afterId = pagina.get(pagina.size() - 1);
+                }
+            } while (pagina.size() == 2);
+        }
+    }
+
+    @Test
+    void unTextoReindexadoOEliminadoDejaDeAparecer() {
+        Long cafe = ids.get(RAZONES_SOCIALES.indexOf("CAFÉ CENTRAL S.A."));
+        assertThat(indice.buscar("central", 0L, 10)).containsExactly(cafe);
+
+        indice.indexar(cafe, "Té Central S.A.");
+        assertThat(indice.buscar("café", 0L, 100)).doesNotContain(cafe);
+        assertThat(indice.buscar("té c", 0L, 10)).containsExactly(cafe);
+
+        indice.eliminar(cafe);
+        assertThat(indice.buscar("central", 0L, 10)).isEmpty();
+        assertThat(indice.buscar("t", 0L, 100)).doesNotContain(cafe);
+    }
+
+    /**
+     * La consulta que sustituye el índice, limitada a las empresas de la prueba
+     */
+    private List<Long> like(String consulta, Long afterId, int maximo) {
+        return entityManager.createQuery(
+                        "SELECT e.id FROM Empresa e WHERE e.id IN :ids AND e.id > :afterId "
+                                + "AND LOWER(e.razonSocial) LIKE LOWER(:patron) ORDER BY e.id", Long.class)
+                .setParameter("ids", ids)
+                .setParameter("afterId", afterId)
+                .setParameter("patron", "%" + consulta + "%")
+                .setMaxResults(maximo)
+                .getResultList();
+    }
+}
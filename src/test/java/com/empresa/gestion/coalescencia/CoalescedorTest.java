@@ -0,0 +1,141 @@
+package com.empresa.gestion.coalescencia;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Coalescedor: agrupación de lecturas concurrentes
+ * 
+ * Con la ventana de 10 s, que una lectura termine en ESPERA_SEGUNDOS demuestra
+ * que el lote se cerró al llenarse y no por la ventana.
+ */
+class CoalescedorTest {
+
+    private static final long VENTANA_LARGA_MICROS = TimeUnit.SECONDS.toMicros(10);
+    private static final long ESPERA_SEGUNDOS = 5;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService hilos = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void parar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void unLoteQueFallaPropagaElMismoErrorATodasSusLecturas() throws Exception {
+        IllegalStateException error = new IllegalStateException("fallo en la carga");
+        AtomicInteger llamadas = new AtomicInteger();
+        Coalescedor<Long, String> coalescedor = coalescedor(VENTANA_LARGA_MICROS, 3, claves -> {
+            llamadas.incrementAndGet();
+            throw error;
+        });
+
+        List<Future<String>> lecturas = cargarEnParalelo(coalescedor, 1L, 2L, 3L);
+
+        for (Future<String> lectura : lecturas) {
+            try {
+                lectura.get(ESPERA_SEGUNDOS, TimeUnit.SECONDS);
+                fail("La lectura debía fallar");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isSameAs(error);
+            }
+        }
+        assertThat(llamadas).hasValue(1);
+        assertThat(lote().count()).isZero();
+    }
+
+    @Test
+    void unLoteLlenoSeEjecutaSinEsperarLaVentana() throws Exception {
+        List<Set<Long>> consultas = Collections.synchronizedList(new ArrayList<>());
+        Coalescedor<Long, String> coalescedor = coalescedor(VENTANA_LARGA_MICROS, 2, claves -> {
+            consultas.add(new HashSet<>(claves));
+            Map<Long, String> valores = new HashMap<>();
+            claves.forEach(clave -> valores.put(clave, "valor " + clave));
+            return valores;
+        });
+
+        List<Future<String>> lecturas = cargarEnParalelo(coalescedor, 1L, 2L, 3L, 4L);
+
+        for (int i = 0; i < lecturas.size(); i++) {
+            assertThat(lecturas.get(i).get(ESPERA_SEGUNDOS, TimeUnit.SECONDS)).isEqualTo("valor " + (i + 1));
+        }
+        Set<Long> leidas = new HashSet<>();
+        consultas.forEach(leidas::addAll);
+        assertThat(consultas).hasSize(2).allSatisfy(claves -> assertThat(claves).hasSize(2));
+        assertThat(leidas).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(lote().count()).isEqualTo(2);
+        assertThat(lote().totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void unaClaveRepetidaComparteLaLecturaYSinValorEsNull() throws Exception {
+        List<Set<Long>> consultas = Collections.synchronizedList(new ArrayList<>());
+        // Lote sin límite: se cierra por la ventana, que da tiempo de sobra a las tres lecturas
+        Coalescedor<Long, String> coalescedor = coalescedor(TimeUnit.SECONDS.toMicros(1), 100, claves -> {
+            consultas.add(new HashSet<>(claves));
+            return Collections.singletonMap(1L, "valor 1");
+        });
+
+        List<Future<String>> lecturas = cargarEnParalelo(coalescedor, 1L, 1L, 2L);
+
+        assertThat(lecturas.get(0).get(ESPERA_SEGUNDOS, TimeUnit.SECONDS)).isEqualTo("valor 1");
+        assertThat(lecturas.get(1).get(ESPERA_SEGUNDOS, TimeUnit.SECONDS)).isEqualTo("valor 1");
+        assertThat(lecturas.get(2).get(ESPERA_SEGUNDOS, TimeUnit.SECONDS)).isNull();
+        assertThat(consultas).containsExactly(new HashSet<>(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    void sinVentanaCadaLecturaHaceSuConsulta() {
+        AtomicInteger llamadas = new AtomicInteger();
+        Coalescedor<Long, String> coalescedor = coalescedor(0, 100, claves -> {
+            llamadas.incrementAndGet();
+            return Collections.singletonMap(claves.iterator().next(), "valor");
+        });
+
+        assertThat(coalescedor.cargar(1L)).isEqualTo("valor");
+        assertThat(coalescedor.cargar(1L)).isEqualTo("valor");
+        assertThat(llamadas).hasValue(2);
+    }
+
+    private Coalescedor<Long, String> coalescedor(long ventanaMicros, int loteMaximo,
+                                                  Function<Set<Long>, Map<Long, String>> carga) {
+        CoalescenciaProperties properties = new CoalescenciaProperties();
+        properties.setVentanaMicros(ventanaMicros);
+        properties.setLoteMaximo(loteMaximo);
+        return new Coalescedor<>("prueba", carga, properties, registry);
+    }
+
+    private List<Future<String>> cargarEnParalelo(Coalescedor<Long, String> coalescedor, Long... claves) {
+        List<Future<String>> lecturas = new ArrayList<>();
+        for (Long clave : claves) {
+            lecturas.add(hilos.submit(() -> coalescedor.cargar(clave)));
+        }
+        return lecturas;
+    }
+
+    private DistributionSummary lote() {
+        return registry.get("gestion.coalescencia.lote").summary();
+    }
+}
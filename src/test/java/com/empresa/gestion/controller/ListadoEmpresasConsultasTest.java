@@ -0,0 +1,106 @@
+package com.empresa.gestion.controller;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.paginacion.CursorCodec;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/empresas?include=sedes: sentencias SQL por petición
+ * 
+ * La página y sus sedes se leen en bloque (página + una consulta IN de sedes),
+ * así que el número de sentencias no depende del tamaño de página ni de las sedes
+ * de cada empresa. Un N+1 haría crecer la cuenta con cualquiera de los dos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ListadoEmpresasConsultasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void preparar() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void lasSentenciasNoCrecenConLaPaginaNiConLasSedes() throws Exception {
+        List<Long> conUnaSede = guardar(10, 1);
+        List<Long> conMuchasSedes = guardar(10, 25);
+
+        long base = consultas(conUnaSede.get(0), 2, 1);
+
+        // Página de empresas + sedes de esas empresas
+        assertThat(base).isEqualTo(2);
+        assertThat(consultas(conUnaSede.get(0), 10, 1)).isEqualTo(base);
+        assertThat(consultas(conMuchasSedes.get(0), 2, 25)).isEqualTo(base);
+        assertThat(consultas(conMuchasSedes.get(0), 10, 25)).isEqualTo(base);
+    }
+
+    private List<Long> guardar(int empresas, int sedes) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < empresas; i++) {
+            ids.add(DatosPrueba.guardarEmpresa(empresaRepository, "Consultas", sedes).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Pedir una página que empieza en primerId y devolver las sentencias que ejecutó
+     */
+    private long consultas(Long primerId, int limite, int sedesPorEmpresa) throws Exception {
+        long antes = estadisticas.getPrepareStatementCount();
+
+        MvcResult inicio = mockMvc.perform(get("/api/empresas")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("after", CursorCodec.codificar(primerId - 1))
+                        .param("limit", String.valueOf(limite))
+                        .param("include", "sedes"))
+                .andReturn();
+        // Con ejecución asíncrona el handler devuelve un DeferredResult
+        MvcResult resultado = inicio.getRequest().isAsyncStarted()
+                ? mockMvc.perform(asyncDispatch(inicio)).andReturn()
+                : inicio;
+
+        ResultMatcher.matchAll(
+                status().isOk(),
+                jsonPath("$.length()").value(limite),
+                jsonPath("$[0].id").value(primerId),
+                jsonPath("$[0].sedes.length()").value(sedesPorEmpresa),
+                jsonPath("$[" + (limite - 1) + "].sedes.length()").value(sedesPorEmpresa)
+        ).match(resultado);
+
+        return estadisticas.getPrepareStatementCount() - antes;
+    }
+}
@@ -0,0 +1,197 @@
+package com.empresa.gestion.controller;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.config.CacheConfig;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * ETags débiles y peticiones condicionales (ver Precondiciones)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PrecondicionesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void preparar() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getConIfNoneMatchCoincidenteResponde304SinCargarLaEmpresa() throws Exception {
+        Empresa empresa = DatosPrueba.guardarEmpresa(empresaRepository, "Precondiciones", 2);
+        String etag = peticion(get("/api/empresas/{id}", empresa.getId())).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("W/\"" + empresa.getVersion() + "\"");
+
+        // Sin el DTO en caché: la versión sale de la base de datos
+        cacheManager.getCache(CacheConfig.EMPRESAS_POR_ID).clear();
+        long cargasAntes = estadisticas.getEntityLoadCount();
+        long sentenciasAntes = estadisticas.getPrepareStatementCount();
+
+        MvcResult respuesta = peticion(get("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertThat(respuesta.getResponse().getStatus()).isEqualTo(304);
+        assertThat(respuesta.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(respuesta.getResponse().getContentAsByteArray()).isEmpty();
+        // Solo la columna version: ni la empresa ni sus sedes
+        assertThat(estadisticas.getEntityLoadCount() - cargasAntes).isZero();
+        assertThat(estadisticas.getPrepareStatementCount() - sentenciasAntes).isEqualTo(1);
+
+        // La forma fuerte de la misma ETag también coincide
+        assertThat(peticion(get("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag.substring(2))).getResponse().getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void putYDeleteConIfMatchAnticuadoResponden412() throws Exception {
+        Empresa empresa = DatosPrueba.guardarEmpresa(empresaRepository, "Precondiciones", 0);
+        String anticuada = etag("/api/empresas/{id}", empresa.getId());
+
+        MvcResult actualizada = peticion(put("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_MATCH, anticuada)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo(empresa.getCif(), "Primera S.L.")));
+        assertThat(actualizada.getResponse().getStatus()).isEqualTo(200);
+        String actual = actualizada.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(actual).isNotEqualTo(anticuada);
+
+        assertThat(peticion(put("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_MATCH, anticuada)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo(empresa.getCif(), "Cambio perdido S.L.")))
+                .getResponse().getStatus()).isEqualTo(412);
+        assertThat(peticion(delete("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_MATCH, anticuada))
+                .getResponse().getStatus()).isEqualTo(412);
+
+        assertThat(empresaRepository.findById(empresa.getId()))
+                .hasValueSatisfying(leida -> assertThat(leida.getRazonSocial()).isEqualTo("Primera S.L."));
+        assertThat(etag("/api/empresas/{id}", empresa.getId())).isEqualTo(actual);
+
+        // Con la ETag vigente sí se elimina
+        assertThat(peticion(delete("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_MATCH, actual))
+                .getResponse().getStatus()).isEqualTo(204);
+        assertThat(empresaRepository.existsById(empresa.getId())).isFalse();
+    }
+
+    @Test
+    void escribirUnaSedeCambiaLaEtagDeSuEmpresa() throws Exception {
+        Empresa empresa = DatosPrueba.guardarEmpresa(empresaRepository, "Precondiciones", 1);
+        String antes = etag("/api/empresas/{id}", empresa.getId());
+
+        Map<String, Object> sede = new LinkedHashMap<>();
+        sede.put("nombre", "Almacén");
+        sede.put("direccion", "Calle Nueva 1");
+        sede.put("ciudad", "Toledo");
+        sede.put("esPrincipal", false);
+        sede.put("empresaId", empresa.getId());
+        assertThat(peticion(post("/api/sedes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sede)))
+                .getResponse().getStatus()).isEqualTo(201);
+
+        String despues = etag("/api/empresas/{id}", empresa.getId());
+        assertThat(despues).isNotEqualTo(antes);
+        assertThat(peticion(get("/api/empresas/{id}", empresa.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, antes)).getResponse().getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void laEtagDeUnListadoCambiaAlEntrarOSalirUnaFila() throws Exception {
+        String sector = "Precondiciones " + DatosPrueba.cifUnico();
+        String ruta = "/api/empresas/sector/{sector}?limit=2";
+        Long primera = DatosPrueba.guardarEmpresa(empresaRepository, sector, 0).getId();
+
+        String unaFila = etag(ruta, sector);
+        assertThat(unaFila).startsWith("W/\"l-");
+        assertThat(peticion(get(ruta, sector).header(HttpHeaders.IF_NONE_MATCH, unaFila))
+                .getResponse().getStatus()).isEqualTo(304);
+
+        // Entra una segunda fila en la página
+        DatosPrueba.guardarEmpresa(empresaRepository, sector, 0);
+        String dosFilas = etag(ruta, sector);
+        assertThat(dosFilas).isNotEqualTo(unaFila);
+
+        // La tercera no cabe, pero ahora hay página siguiente
+        DatosPrueba.guardarEmpresa(empresaRepository, sector, 0);
+        String conSiguiente = etag(ruta, sector);
+        assertThat(conSiguiente).isNotIn(unaFila, dosFilas);
+
+        // Sale la primera fila y la tercera entra en la página
+        empresaRepository.deleteById(primera);
+        String sinLaPrimera = etag(ruta, sector);
+        assertThat(sinLaPrimera).isNotIn(unaFila, dosFilas, conSiguiente);
+        assertThat(peticion(get(ruta, sector).header(HttpHeaders.IF_NONE_MATCH, conSiguiente))
+                .getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private String etag(String ruta, Object... variables) throws Exception {
+        MvcResult respuesta = peticion(get(ruta, variables));
+        assertThat(respuesta.getResponse().getStatus()).isEqualTo(200);
+        return respuesta.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String cuerpo(String cif, String razonSocial) throws Exception {
+        Map<String, Object> empresa = new LinkedHashMap<>();
+        empresa.put("razonSocial", razonSocial);
+        empresa.put("cif", cif);
+        empresa.put("sector", "Precondiciones");
+        return objectMapper.writeValueAsString(empresa);
+    }
+
+    /**
+     * Ejecutar la petición en JSON (los handlers devuelven DeferredResult)
+     */
+    private MvcResult peticion(MockHttpServletRequestBuilder peticion) throws Exception {
+        MvcResult inicio = mockMvc.perform(peticion.accept(MediaType.APPLICATION_JSON)).andReturn();
+        return inicio.getRequest().isAsyncStarted()
+                ? mockMvc.perform(asyncDispatch(inicio)).andReturn()
+                : inicio;
+    }
+}
@@ -0,0 +1,85 @@
+package com.empresa.gestion.estadisticas;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.dto.EstadisticasUbicacionDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.estadisticas.AgregadosGeograficos.Nivel;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * AgregadosGeograficos: la reconciliación recoge las escrituras que no pasaron por los servicios
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AgregadosGeograficosTest {
+
+    @Autowired
+    private AgregadosGeograficos agregados;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Test
+    void laReconciliacionAplicaAltasYBajasHechasFueraDeLosServicios() {
+        String provincia = "Provincia " + DatosPrueba.cifUnico();
+        Empresa empresa = DatosPrueba.empresa("Geografía", 3);
+        ubicar(empresa.getSedes().get(0), provincia, "Ciudad A", 100.0);
+        ubicar(empresa.getSedes().get(1), provincia, "Ciudad A", 150.0);
+        ubicar(empresa.getSedes().get(2), provincia, "Ciudad B", 50.0);
+        Long empresaId = empresaRepository.saveAndFlush(empresa).getId();
+
+        // Guardada por repositorio: los agregados no la conocen hasta reconciliar
+        assertThat(agregados.isListo()).isTrue();
+        assertThat(agregados.agrupar(Nivel.CIUDAD, empresaId, null)).isEmpty();
+
+        // Tres celdas: (A, principal), (A, no principal), (B, no principal)
+        assertThat(agregados.reconciliar()).isGreaterThanOrEqualTo(3);
+
+        List<EstadisticasUbicacionDTO> ciudades = agregados.agrupar(Nivel.CIUDAD, empresaId, null);
+        assertThat(ciudades).hasSize(2);
+        comprobar(ciudades.get(0), provincia, "Ciudad A", 2, 250.0);
+        comprobar(ciudades.get(1), provincia, "Ciudad B", 1, 50.0);
+
+        List<EstadisticasUbicacionDTO> principales = agregados.agrupar(Nivel.PROVINCIA, empresaId, true);
+        assertThat(principales).hasSize(1);
+        comprobar(principales.get(0), provincia, null, 1, 100.0);
+
+        assertThat(agregados.agrupar(Nivel.PROVINCIA, null, null))
+                .filteredOn(fila -> provincia.toUpperCase().equals(fila.getProvincia()))
+                .singleElement()
+                .satisfies(fila -> comprobar(fila, provincia, null, 3, 300.0));
+
+        // Ya reconciliado: una segunda pasada no encuentra desviación
+        assertThat(agregados.reconciliar()).isZero();
+
+        empresaRepository.deleteById(empresaId);
+        assertThat(agregados.reconciliar()).isEqualTo(3);
+        assertThat(agregados.agrupar(Nivel.CIUDAD, empresaId, null)).isEmpty();
+        assertThat(agregados.agrupar(Nivel.PROVINCIA, null, null))
+                .noneMatch(fila -> provincia.toUpperCase().equals(fila.getProvincia()));
+    }
+
+    private static void ubicar(Sede sede, String provincia, String ciudad, double capacidad) {
+        sede.setProvincia(provincia);
+        sede.setCiudad(ciudad);
+        sede.setCapacidadAlmacenamiento(capacidad);
+    }
+
+    private static void comprobar(EstadisticasUbicacionDTO fila, String provincia, String ciudad,
+                                  long sedes, double capacidad) {
+        assertThat(fila.getProvincia()).isEqualTo(provincia.toUpperCase());
+        assertThat(fila.getCiudad()).isEqualTo(ciudad != null ? ciudad.toUpperCase() : null);
+        assertThat(fila.getSedes()).isEqualTo(sedes);
+        assertThat(fila.getCapacidadTotal()).isCloseTo(capacidad, within(0.001));
+    }
+}
@@ -0,0 +1,97 @@
+package com.empresa.gestion.repository;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.dto.EmpresaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * empresas_seq compartida entre reservarIds y el optimizador pooled de Hibernate
+ * 
+ * Base de datos propia: la secuencia empieza en su initialValue (1000), que es
+ * el caso en que la primera asignación de Hibernate lee la secuencia dos veces.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:secuencia-empresas;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class SecuenciaEmpresasTest {
+
+    private static final int HILOS = 8;
+    private static final int VUELTAS = 20;
+    private static final int[] RESERVAS = {1, 31, 61};
+
+    @Autowired
+    private SincronizacionRepository sincronizacionRepository;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reservasYPersistsIntercaladosNoRepitenIds() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                boolean reserva = i % 2 == 0;
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    for (int vuelta = 0; vuelta < VUELTAS; vuelta++) {
+                        if (reserva) {
+                            int cantidad = RESERVAS[vuelta % RESERVAS.length];
+                            ids.addAll(transaccion.execute(estado -> sincronizar(cantidad)));
+                        } else {
+                            ids.add(DatosPrueba.guardarEmpresa(empresaRepository, "Secuencia", 0).getId());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        // Un ID repetido habría hecho fallar el MERGE o el INSERT antes de llegar aquí
+        assertThat(ids).doesNotHaveDuplicates().allSatisfy(id -> assertThat(id).isGreaterThan(1000L));
+        assertThat(empresaRepository.findAllById(ids)).hasSameSizeAs(ids);
+    }
+
+    /**
+     * Reservar IDs e insertarlos por MERGE, como la sincronización por CIF
+     */
+    private List<Long> sincronizar(int cantidad) {
+        List<Long> reservados = sincronizacionRepository.reservarIds(cantidad);
+        List<EmpresaDTO> empresas = new ArrayList<>();
+        for (Long id : reservados) {
+            String cif = DatosPrueba.cifUnico();
+            empresas.add(new EmpresaDTO(id, "Empresa " + cif, cif, "info@secuencia.es", "910000000",
+                    "Secuencia", LocalDate.of(2022, 3, 1), true, 100000.0, 5, null));
+        }
+        assertThat(sincronizacionRepository.fusionar(empresas)).isEqualTo(cantidad);
+        return reservados;
+    }
+}
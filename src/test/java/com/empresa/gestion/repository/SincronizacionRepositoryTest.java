@@ -0,0 +1,94 @@
+package com.empresa.gestion.repository;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.entity.Empresa;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SincronizacionRepository: MERGE por CIF y reserva de IDs de empresas_seq
+ * 
+ * Cada prueba se deshace al terminar (@Transactional).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SincronizacionRepositoryTest {
+
+    @Autowired
+    private SincronizacionRepository sincronizacionRepository;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void unMismoMergeInsertaLasNuevasYActualizaLasExistentes() {
+        Empresa existente = DatosPrueba.guardarEmpresa(empresaRepository, "Sincronización", 0);
+        Long versionLeida = existente.getVersion();
+        Long idNuevo = sincronizacionRepository.reservarIds(1).get(0);
+        String cifNuevo = DatosPrueba.cifUnico();
+
+        int filas = sincronizacionRepository.fusionar(Arrays.asList(
+                dto(idNuevo, cifNuevo, "Nueva S.L.", null),
+                dto(existente.getId(), existente.getCif(), "Actualizada S.L.", versionLeida)));
+
+        assertThat(filas).isEqualTo(2);
+        entityManager.clear();
+
+        Empresa insertada = empresaRepository.findByCif(cifNuevo).orElseThrow(AssertionError::new);
+        assertThat(insertada.getId()).isEqualTo(idNuevo);
+        assertThat(insertada.getRazonSocial()).isEqualTo("Nueva S.L.");
+        assertThat(insertada.getSector()).isEqualTo("Sincronización");
+        assertThat(insertada.getVersion()).isZero();
+
+        Empresa actualizada = empresaRepository.findByCif(existente.getCif()).orElseThrow(AssertionError::new);
+        assertThat(actualizada.getId()).isEqualTo(existente.getId());
+        assertThat(actualizada.getRazonSocial()).isEqualTo("Actualizada S.L.");
+        assertThat(actualizada.getVersion()).isEqualTo(versionLeida + 1);
+    }
+
+    @Test
+    void unaVersionDistintaDeLaLeidaNoSeSobrescribe() {
+        Empresa existente = DatosPrueba.guardarEmpresa(empresaRepository, "Sincronización", 0);
+
+        int filas = sincronizacionRepository.fusionar(Collections.singletonList(
+                dto(existente.getId(), existente.getCif(), "Cambio perdido S.L.", existente.getVersion() + 1)));
+
+        assertThat(filas).isZero();
+        entityManager.clear();
+
+        Empresa leida = empresaRepository.findByCif(existente.getCif()).orElseThrow(AssertionError::new);
+        assertThat(leida.getRazonSocial()).isEqualTo(existente.getRazonSocial());
+        assertThat(leida.getVersion()).isEqualTo(existente.getVersion());
+    }
+
+    @Test
+    void losIdsReservadosNoColisionanConLosAsignadosPorHibernate() {
+        List<Long> reservados = sincronizacionRepository.reservarIds(120);
+
+        assertThat(reservados).hasSize(120).doesNotHaveDuplicates();
+        Long persistido = DatosPrueba.guardarEmpresa(empresaRepository, "Sincronización", 0).getId();
+        assertThat(reservados).doesNotContain(persistido);
+    }
+
+    private static EmpresaDTO dto(Long id, String cif, String razonSocial, Long versionLeida) {
+        return new EmpresaDTO(id, razonSocial, cif, "info@sincronizacion.es", "910000000",
+                "Sincronización", LocalDate.of(2021, 5, 1), true, 250000.0, 5, versionLeida);
+    }
+}
@@ -0,0 +1,88 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.estadisticas.ContadoresEstadisticas;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Activación y desactivación masivas (un único UPDATE): las filas afectadas devueltas
+ * son exactamente la variación de empresas activas, en la base de datos y en los contadores
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ActivacionMasivaTest {
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private ContadoresEstadisticas contadores;
+
+    private String sector;
+    private final List<Long> activas = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        sector = "Activación " + DatosPrueba.cifUnico();
+        for (Boolean activo : Arrays.asList(true, true, true, false, false, null)) {
+            Empresa empresa = DatosPrueba.empresa(sector, 0);
+            empresa.setActivo(activo);
+            Long id = empresaRepository.saveAndFlush(empresa).getId();
+            if (Boolean.TRUE.equals(activo)) {
+                activas.add(id);
+            }
+        }
+        // Guardadas por repositorio: los contadores en memoria se ponen al día
+        contadores.reconciliar();
+    }
+
+    @Test
+    void activarPorSectorCuentaSoloLasQueCambian() {
+        long antes = empresaRepository.countByActivoTrue();
+        long antesEnMemoria = contadores.contarEmpresasActivas();
+
+        // Dos inactivas y una con activo NULL; las tres activas no cambian
+        int cambiadas = empresaService.cambiarActivoPorSector(sector.toLowerCase(), true);
+
+        assertThat(cambiadas).isEqualTo(3);
+        assertThat(empresaRepository.countByActivoTrue() - antes).isEqualTo(cambiadas);
+        assertThat(contadores.contarEmpresasActivas() - antesEnMemoria).isEqualTo(cambiadas);
+
+        // Repetirla no cambia nada
+        assertThat(empresaService.cambiarActivoPorSector(sector, true)).isZero();
+        assertThat(empresaRepository.countByActivoTrue() - antes).isEqualTo(cambiadas);
+    }
+
+    @Test
+    void desactivarPorIdsRestaSoloLasQueCambian() {
+        long antes = empresaRepository.countByActivoTrue();
+        long antesEnMemoria = contadores.contarEmpresasActivas();
+
+        int cambiadas = empresaService.cambiarActivoPorIds(activas.subList(0, 2), false);
+
+        assertThat(cambiadas).isEqualTo(2);
+        assertThat(antes - empresaRepository.countByActivoTrue()).isEqualTo(cambiadas);
+        assertThat(antesEnMemoria - contadores.contarEmpresasActivas()).isEqualTo(cambiadas);
+
+        // Con una ya inactiva en la lista, solo cuenta la que cambia
+        List<Long> mezcla = Arrays.asList(activas.get(0), activas.get(2));
+        assertThat(empresaService.cambiarActivoPorIds(mezcla, false)).isEqualTo(1);
+        assertThat(antes - empresaRepository.countByActivoTrue()).isEqualTo(3);
+        assertThat(contadores.contarEmpresasActivas()).isEqualTo(empresaRepository.countByActivoTrue());
+    }
+}
@@ -0,0 +1,82 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.dto.TrabajoEliminacionDTO;
+import com.empresa.gestion.dto.TrabajoEliminacionDTO.Estado;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EliminacionService: borrado por lotes de app.eliminacion.tamano-lote sedes
+ * (20 en el perfil de pruebas) en segundo plano
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EliminacionServiceTest {
+
+    @Autowired
+    private EliminacionService eliminacionService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private SedeRepository sedeRepository;
+
+    @Value("${app.eliminacion.tamano-lote}")
+    private int tamanoLote;
+
+    @Test
+    void unaEmpresaConMasSedesQueUnLoteSeEliminaEnVariosLotes() throws Exception {
+        int sedes = tamanoLote * 2 + 5;
+        Empresa empresa = DatosPrueba.guardarEmpresa(empresaRepository, "Eliminación", sedes);
+        Long empresaId = empresa.getId();
+
+        TrabajoEliminacionDTO trabajo = eliminacionService.iniciar(empresaId, empresa.getVersion());
+        TrabajoEliminacionDTO terminado = esperarFin(trabajo.getId());
+
+        assertThat(terminado.getEstado()).isEqualTo(Estado.COMPLETADO);
+        assertThat(terminado.getMensaje()).isNull();
+        assertThat(terminado.getSedesEliminadas()).isEqualTo(sedes);
+        // Dos lotes completos y uno con el resto, que elimina también la empresa
+        assertThat(terminado.getLotes()).isEqualTo(3);
+        assertThat(empresaRepository.existsById(empresaId)).isFalse();
+        assertThat(sedeRepository.countByEmpresaId(empresaId)).isZero();
+    }
+
+    @Test
+    void sinEmpresaOConOtraVersionNoSeEncola() {
+        Empresa empresa = DatosPrueba.guardarEmpresa(empresaRepository, "Eliminación", 1);
+
+        assertThatThrownBy(() -> eliminacionService.iniciar(empresa.getId(), empresa.getVersion() + 1))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> eliminacionService.iniciar(-1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(empresaRepository.existsById(empresa.getId())).isTrue();
+    }
+
+    private TrabajoEliminacionDTO esperarFin(String trabajoId) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < limite) {
+            TrabajoEliminacionDTO trabajo = eliminacionService.obtener(trabajoId)
+                    .orElseThrow(() -> new AssertionError("Trabajo no encontrado: " + trabajoId));
+            if (trabajo.getEstado() == Estado.COMPLETADO || trabajo.getEstado() == Estado.FALLIDO) {
+                return trabajo;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("La eliminación no terminó en 30 s: " + trabajoId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.config.CacheConfig;
+import com.empresa.gestion.dto.EstadisticasSectorDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.repository.EmpresaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * EmpresaService.estadisticasPorSector: agregados por GROUP BY e invalidación de la caché
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EstadisticasSectorTest {
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void agregaEmpresasYSedesDelSectorYSeRecalculaTrasUnaEscritura() {
+        String sector = "Sector " + DatosPrueba.cifUnico();
+        guardar(sector, 100.0, 1, 2, true);
+        guardar(sector, 200.0, 2, 0, true);
+        Long inactiva = guardar(sector, 600.0, 3, 3, false);
+        // Guardadas por repositorio: la caché no se ha enterado
+        cacheManager.getCache(CacheConfig.ESTADISTICAS_SECTORES).clear();
+
+        List<EstadisticasSectorDTO> estadisticas = empresaService.estadisticasPorSector();
+        EstadisticasSectorDTO fila = fila(estadisticas, sector);
+
+        assertThat(fila.getEmpresas()).isEqualTo(3);
+        assertThat(fila.getEmpresasActivas()).isEqualTo(2);
+        assertThat(fila.getFacturacionTotal()).isCloseTo(900.0, within(0.001));
+        assertThat(fila.getFacturacionMedia()).isCloseTo(300.0, within(0.001));
+        assertThat(fila.getFacturacionMinima()).isCloseTo(100.0, within(0.001));
+        assertThat(fila.getFacturacionMaxima()).isCloseTo(600.0, within(0.001));
+        assertThat(fila.getEmpleados()).isEqualTo(6);
+        assertThat(fila.getSedes()).isEqualTo(5);
+
+        // Cacheado hasta la siguiente escritura
+        assertThat(empresaService.estadisticasPorSector()).isSameAs(estadisticas);
+
+        empresaService.activar(inactiva);
+
+        List<EstadisticasSectorDTO> recalculadas = empresaService.estadisticasPorSector();
+        assertThat(recalculadas).isNotSameAs(estadisticas);
+        assertThat(fila(recalculadas, sector).getEmpresasActivas()).isEqualTo(3);
+    }
+
+    private Long guardar(String sector, double facturacion, int empleados, int sedes, boolean activo) {
+        Empresa empresa = DatosPrueba.empresa(sector, sedes);
+        empresa.setFacturacionAnual(facturacion);
+        empresa.setNumeroEmpleados(empleados);
+        empresa.setActivo(activo);
+        return empresaRepository.saveAndFlush(empresa).getId();
+    }
+
+    private static EstadisticasSectorDTO fila(List<EstadisticasSectorDTO> estadisticas, String sector) {
+        return estadisticas.stream()
+                .filter(fila -> sector.toUpperCase().equals(fila.getSector()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Sin estadísticas del sector " + sector));
+    }
+}
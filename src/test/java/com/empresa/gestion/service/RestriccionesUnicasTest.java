@@ -0,0 +1,152 @@
+package com.empresa.gestion.service;
+
+import com.empresa.gestion.DatosPrueba;
+import com.empresa.gestion.dto.EmpresaDTO;
+import com.empresa.gestion.dto.SedeDTO;
+import com.empresa.gestion.entity.Empresa;
+import com.empresa.gestion.entity.Sede;
+import com.empresa.gestion.repository.EmpresaRepository;
+import com.empresa.gestion.repository.SedeRepository;
+import com.empresa.gestion.util.Restricciones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restricciones únicas bajo concurrencia (uk_empresas_cif, uk_sedes_empresa_principal)
+ * 
+ * Los hilos se liberan a la vez: en cada carrera debe haber exactamente un ganador
+ * y el resto debe recibir la violación de la restricción, nunca otro error.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RestriccionesUnicasTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private SedeService sedeService;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private SedeRepository sedeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService hilos;
+
+    @BeforeEach
+    void preparar() {
+        hilos = Executors.newFixedThreadPool(HILOS);
+    }
+
+    @AfterEach
+    void terminar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void sedesPrincipalesPorRepositorioSinVersionarLaEmpresa() throws Exception {
+        Long empresaId = DatosPrueba.guardarEmpresa(empresaRepository, "Restricciones", 0).getId();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        // Sin el incremento de versión de SedeService.crear: solo la restricción las separa
+        List<Throwable> fallos = carrera(hilo -> transaccion.execute(estado -> {
+            Empresa empresa = empresaRepository.findById(empresaId).orElseThrow(AssertionError::new);
+            Sede sede = new Sede("Principal " + hilo, "Calle " + hilo, "Madrid");
+            sede.setEsPrincipal(true);
+            sede.setEmpresa(empresa);
+            return sedeRepository.saveAndFlush(sede);
+        }));
+
+        assertThat(fallos).hasSize(HILOS - 1).allSatisfy(fallo -> {
+            assertThat(fallo).isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(Restricciones.violada((DataIntegrityViolationException) fallo,
+                    Restricciones.SEDE_PRINCIPAL)).isTrue();
+        });
+        assertThat(sedeRepository.countByEmpresaId(empresaId)).isEqualTo(1);
+    }
+
+    @Test
+    void sedesPrincipalesPorElServicio() throws Exception {
+        Long empresaId = DatosPrueba.guardarEmpresa(empresaRepository, "Restricciones", 0).getId();
+
+        List<Throwable> fallos = carrera(hilo -> {
+            SedeDTO sede = new SedeDTO(null, "Principal " + hilo, "Madrid");
+            sede.setDireccion("Calle " + hilo);
+            sede.setEsPrincipal(true);
+            sede.setEmpresaId(empresaId);
+            return sedeService.crear(sede);
+        });
+
+        assertThat(fallos).hasSize(HILOS - 1)
+                .allSatisfy(fallo -> assertThat(fallo).isInstanceOf(IllegalArgumentException.class));
+        assertThat(sedeRepository.countByEmpresaId(empresaId)).isEqualTo(1);
+    }
+
+    @Test
+    void empresasConElMismoCif() throws Exception {
+        String cif = DatosPrueba.cifUnico();
+
+        List<Throwable> fallos = carrera(hilo -> empresaService.crear(new EmpresaDTO(null,
+                "Carrera " + hilo + " S.L.", cif, "info@carrera.es", "910000000", "Restricciones",
+                LocalDate.of(2020, 1, 1), true, 100000.0, 5, null)));
+
+        assertThat(fallos).hasSize(HILOS - 1)
+                .allSatisfy(fallo -> assertThat(fallo).isInstanceOf(IllegalArgumentException.class));
+        assertThat(empresaRepository.findByCif(cif)).isPresent();
+    }
+
+    /**
+     * Lanzar la operación en HILOS hilos a la vez y devolver los errores (uno por perdedor)
+     */
+    private List<Throwable> carrera(IntFunction<?> operacion) throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            int hilo = i;
+            Callable<Object> tarea = () -> {
+                salida.await();
+                return operacion.apply(hilo);
+            };
+            tareas.add(hilos.submit(tarea));
+        }
+        salida.countDown();
+
+        List<Throwable> fallos = new ArrayList<>();
+        for (Future<?> tarea : tareas) {
+            try {
+                tarea.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                fallos.add(e.getCause());
+            }
+        }
+        return fallos;
+    }
+}